@@ -0,0 +1,110 @@
+package com.inventorysystem.data;
+
+import com.inventorysystem.model.Product;
+import com.inventorysystem.model.StockRecord;
+import com.inventorysystem.model.TransactionPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the repository methods the counter uses most. Each trial seeds a
+ * throwaway store (see BenchmarkStore) with the requested number of products and
+ * stock log rows, and deletes it again afterwards. Throughput and sampled latency
+ * percentiles are written as JSON to build/results/jmh/results.json.
+ *
+ * By default every fork starts its own embedded MariaDB (see EmbeddedDatabase);
+ * -Pbench.db=config uses the db.* settings from config.properties instead, e.g.
+ *   gradle jmh -Pbench.db=config -Pdb.url=jdbc:mysql://localhost:3306/bench_db -Pproducts=10000 -PlogRows=1000000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DataLayerBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"10000"})
+    public int products;
+
+    @Param({"100000"})
+    public int logRows;
+
+    private BenchmarkStore store;
+    private boolean embedded;
+    private int userId;
+    private int sold;
+
+    private ProductRepository productRepository;
+    private final RecordsRepository recordsRepository = new RecordsRepository();
+    private final StockRepository stockRepository = new StockRepository();
+
+    private Timestamp end;
+    private Timestamp monthStart;
+    private Timestamp yearStart;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        embedded = !"config".equals(System.getProperty("bench.db"));
+        if (embedded) EmbeddedDatabase.start();
+
+        store = BenchmarkStore.create(products, logRows);
+        userId = store.userId();
+        productRepository = new ProductRepository(userId);
+
+        end = Timestamp.valueOf(LocalDate.now().plusDays(1).atStartOfDay());
+        monthStart = Timestamp.valueOf(LocalDate.now().minusDays(29).atStartOfDay());
+        yearStart = Timestamp.valueOf(LocalDate.now().minusDays(BenchmarkStore.HISTORY_DAYS - 1).atStartOfDay());
+    }
+
+    // The embedded database goes away with the fork, so only a shared one is cleaned up
+    @TearDown(Level.Trial)
+    public void cleanUp() throws SQLException {
+        if (!embedded) store.delete();
+    }
+
+    // --- Benchmarks ---
+
+    @Benchmark
+    public List<Product> getAllProducts() throws SQLException {
+        return productRepository.getAllProducts();
+    }
+
+    @Benchmark
+    public void sellProduct() throws SQLException {
+        productRepository.sellProduct(String.valueOf(1 + sold++ % products), 1);
+    }
+
+    @Benchmark
+    public TransactionPage getTransactionPage30Days() throws SQLException {
+        return recordsRepository.getTransactionPage(userId, monthStart, end, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public int countTransactions30Days() throws SQLException {
+        return recordsRepository.countTransactions(userId, monthStart, end, null);
+    }
+
+    @Benchmark
+    public List<StockRecord> getStockSummary30Days() throws SQLException {
+        return stockRepository.getStockSummaryWithDateRange(userId, monthStart, end);
+    }
+
+    @Benchmark
+    public List<StockRecord> getStockSummary365Days() throws SQLException {
+        return stockRepository.getStockSummaryWithDateRange(userId, yearStart, end);
+    }
+}
@@ -0,0 +1,215 @@
+package com.inventorysystem.data;
+
+import com.inventorysystem.model.User;
+import org.json.JSONObject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A throwaway admin and store filled with generated products and history, shared
+ * by the JMH benchmarks (jmh/) and the load test. Products are numbered 1..products,
+ * named "Product N" and stocked so they never run out; half the stock log rows are
+ * single-item sales with their sale and sale item, spread over the last year.
+ */
+final class BenchmarkStore {
+
+    private static final int SEED_BATCH = 1000;
+    static final int HISTORY_DAYS = 365;
+    private static final int CATEGORIES = 20;
+
+    private final String username;
+    private final int userId;
+    private final int products;
+    private final int logRows;
+    private final Random random = new Random(42); // Same data set on every run
+    private List<Integer> categoryIds = List.of();
+
+    private BenchmarkStore(String username, int userId, int products, int logRows) {
+        this.username = username;
+        this.userId = userId;
+        this.products = products;
+        this.logRows = logRows;
+    }
+
+    // Signs up a new admin with a store and seeds it; the rollups are rebuilt to match
+    static BenchmarkStore create(int products, int logRows) throws SQLException {
+        String username = "bench_" + System.currentTimeMillis();
+        UserRepository users = new UserRepository();
+        users.signup(username, username, "Admin");
+        User user = users.login(username, username);
+        new StoreRepository().addStore(user.id(), "Benchmark " + username, null, null);
+
+        BenchmarkStore store = new BenchmarkStore(username, user.id(), products, logRows);
+        long started = System.nanoTime();
+        store.seed();
+        System.out.println(String.format("Seeded %d products and %d log rows in %.1f s",
+            products, logRows, (System.nanoTime() - started) / 1e9));
+        return store;
+    }
+
+    int userId() {
+        return userId;
+    }
+
+    String username() {
+        return username;
+    }
+
+    int products() {
+        return products;
+    }
+
+    // QR payload that stocks in more of an existing seeded product
+    JSONObject qrPayload(int productId, int stock) {
+        return new JSONObject()
+            .put("name", "Product " + productId)
+            .put("category_id", categoryIds.get(productId % categoryIds.size()))
+            .put("cost_price", 10.0)
+            .put("stock", stock);
+    }
+
+    // Deletes the store with everything in it, then its categories and admin
+    void delete() throws SQLException {
+        StoreRepository stores = new StoreRepository();
+        stores.deleteStore(stores.getStoreByUserId(userId).storeId());
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (String sql : new String[]{"DELETE FROM categories WHERE user_id = ?", "DELETE FROM users WHERE user_id = ?"}) {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, userId);
+                    pstmt.executeUpdate();
+                }
+            }
+        }
+    }
+
+    // --- Seeding ---
+
+    private void seed() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                categoryIds = seedCategories(conn);
+                seedProducts(conn);
+                seedHistory(conn);
+            } catch (SQLException e) {
+                try { conn.rollback(); } catch (SQLException ex) { System.err.println("Rollback failed: " + ex.getMessage()); }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            // Rollups as the write paths would have left them
+            DailySalesRepository.rebuild(conn, userId);
+            DailyStockRepository.rebuild(conn, userId);
+        }
+    }
+
+    private List<Integer> seedCategories(Connection conn) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO categories (category_name, user_id) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 1; i <= CATEGORIES; i++) {
+                pstmt.setString(1, "Category " + i);
+                pstmt.setInt(2, userId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                while (rs.next()) ids.add(rs.getInt(1));
+            }
+        }
+        conn.commit();
+        return ids;
+    }
+
+    private void seedProducts(Connection conn) throws SQLException {
+        String sql = "INSERT INTO products (product_id, name, cost_price, retail_price, markup_percent, quantity_in_stock, category_id, user_id) " +
+                     "VALUES (?, ?, ?, ?, NULL, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int id = 1; id <= products; id++) {
+                double cost = 5 + random.nextInt(500);
+                pstmt.setInt(1, id);
+                pstmt.setString(2, "Product " + id);
+                pstmt.setDouble(3, cost);
+                pstmt.setDouble(4, Math.round(cost * 1.3 * 100) / 100.0);
+                pstmt.setInt(5, 1_000_000); // sellProduct never runs out
+                pstmt.setInt(6, categoryIds.get(id % categoryIds.size()));
+                pstmt.setInt(7, userId);
+                pstmt.addBatch();
+                if (id % SEED_BATCH == 0) flush(conn, pstmt);
+            }
+            flush(conn, pstmt);
+        }
+    }
+
+    // Half the log rows are stock-ins, half are single-item sales with their sale and sale item
+    private void seedHistory(Connection conn) throws SQLException {
+        String logSql = "INSERT INTO stock_log (product_id, quantity_changed, log_type, notes, user_id, log_date) VALUES (?, ?, ?, ?, ?, ?)";
+        String saleSql = "INSERT INTO sales (sale_date, total_amount, user_id) VALUES (?, ?, ?)";
+        String itemSql = "INSERT INTO sale_items (sale_id, product_id, quantity_sold, unit_price, cost_price, subtotal) VALUES (?, ?, ?, ?, ?, ?)";
+        long now = System.currentTimeMillis();
+
+        try (PreparedStatement logStmt = conn.prepareStatement(logSql);
+             PreparedStatement saleStmt = conn.prepareStatement(saleSql, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement itemStmt = conn.prepareStatement(itemSql)) {
+            int written = 0;
+            while (written < logRows) {
+                int batch = Math.min(SEED_BATCH, logRows - written);
+                List<int[]> sales = new ArrayList<>(); // {productId, quantity} per sale in this batch
+
+                for (int i = 0; i < batch; i++) {
+                    int productId = 1 + random.nextInt(products);
+                    int quantity = 1 + random.nextInt(5);
+                    Timestamp at = new Timestamp(now - (long) (random.nextDouble() * HISTORY_DAYS * 86_400_000L));
+                    boolean sale = (written + i) % 2 == 1;
+
+                    logStmt.setInt(1, productId);
+                    logStmt.setInt(2, sale ? -quantity : quantity);
+                    logStmt.setString(3, sale ? "SALE" : "STOCK-IN");
+                    logStmt.setString(4, "Benchmark seed");
+                    logStmt.setInt(5, userId);
+                    logStmt.setTimestamp(6, at);
+                    logStmt.addBatch();
+
+                    if (sale) {
+                        sales.add(new int[]{productId, quantity});
+                        saleStmt.setTimestamp(1, at);
+                        saleStmt.setDouble(2, quantity * 10.0);
+                        saleStmt.setInt(3, userId);
+                        saleStmt.addBatch();
+                    }
+                }
+                logStmt.executeBatch();
+                saleStmt.executeBatch();
+
+                try (ResultSet rs = saleStmt.getGeneratedKeys()) {
+                    for (int[] line : sales) {
+                        if (!rs.next()) throw new SQLException("Missing generated sale ID while seeding.");
+                        itemStmt.setLong(1, rs.getLong(1));
+                        itemStmt.setInt(2, line[0]);
+                        itemStmt.setInt(3, line[1]);
+                        itemStmt.setDouble(4, 10.0);
+                        itemStmt.setDouble(5, 7.0);
+                        itemStmt.setDouble(6, line[1] * 10.0);
+                        itemStmt.addBatch();
+                    }
+                }
+                flush(conn, itemStmt);
+                written += batch;
+            }
+        }
+    }
+
+    private static void flush(Connection conn, PreparedStatement pstmt) throws SQLException {
+        pstmt.executeBatch();
+        conn.commit();
+    }
+}
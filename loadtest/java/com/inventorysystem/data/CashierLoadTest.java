@@ -0,0 +1,316 @@
+package com.inventorysystem.data;
+
+import com.inventorysystem.model.CartLine;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless load generator: N cashier threads of one store sell, take returns,
+ * stock in by QR and refresh the dashboard at the same time, the way a busy
+ * shop with several counters does. Products are picked with a Zipf skew so a few
+ * hot SKUs take most of the sales and their row locks are contended.
+ * Reports throughput and latency per operation, the deadlocks and lock wait
+ * timeouts the cashiers hit, and the server's InnoDB row lock wait time.
+ *
+ * By default it runs on an embedded MariaDB (see EmbeddedDatabase), never the shop's
+ * database; -Pbench.db=config uses the db.* settings instead, e.g.
+ *   gradle loadTest -Pbench.db=config -Pdb.url=jdbc:mysql://localhost:3306/bench_db
+ *       --args="--cashiers 8 --seconds 60 --skew 1.2 --mix sale=70,return=10,upsert=10,dashboard=10"
+ */
+public final class CashierLoadTest {
+
+    // MySQL deadlock and lock wait timeout
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int MAX_CART_LINES = 3;
+
+    private enum Operation { SALE, RETURN, UPSERT, DASHBOARD }
+
+    private record Options(int cashiers, int seconds, int products, int logRows, double skew,
+                           Map<Operation, Integer> mix, Path out, boolean keep) {}
+
+    // What one cashier saw; merged after the run
+    private static final class Tally {
+        final Map<Operation, List<Long>> latencies = new EnumMap<>(Operation.class);
+        final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+        int deadlocks = 0;
+        int lockWaitTimeouts = 0;
+
+        Tally() {
+            for (Operation operation : Operation.values()) latencies.put(operation, new ArrayList<>());
+        }
+    }
+
+    private final Options options;
+    private final double[] zipfCdf;
+    private BenchmarkStore store;
+
+    private CashierLoadTest(Options options) {
+        this.options = options;
+        this.zipfCdf = zipfCdf(options.products(), options.skew());
+    }
+
+    /**
+     * Seeds, runs the cashiers and cleans up. Arguments: --cashiers N, --seconds N,
+     * --products N, --log-rows N, --skew S (0 = uniform), --mix op=weight,...,
+     * --out FILE and --keep (leave the seeded store).
+     */
+    public static void main(String[] args) {
+        try {
+            Options options = parse(args);
+            if ("config".equals(System.getProperty("bench.db"))) {
+                new SchemaMigrator().migrate();
+            } else {
+                EmbeddedDatabase.start();
+            }
+            new CashierLoadTest(options).run();
+            System.exit(0);
+        } catch (Exception e) {
+            System.err.println("Load test failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static Options parse(String[] args) {
+        int cashiers = 8;
+        int seconds = 60;
+        int products = 1_000;
+        int logRows = 10_000;
+        double skew = 1.0;
+        Map<Operation, Integer> mix = parseMix("sale=70,return=10,upsert=10,dashboard=10");
+        Path out = Paths.get("load-test-results.json");
+        boolean keep = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--cashiers" -> cashiers = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Integer.parseInt(args[++i]);
+                case "--products" -> products = Integer.parseInt(args[++i]);
+                case "--log-rows" -> logRows = Integer.parseInt(args[++i]);
+                case "--skew" -> skew = Double.parseDouble(args[++i]);
+                case "--mix" -> mix = parseMix(args[++i]);
+                case "--out" -> out = Paths.get(args[++i]);
+                case "--keep" -> keep = true;
+                default -> throw new IllegalArgumentException("Unknown load test option: " + args[i]);
+            }
+        }
+        if (cashiers <= 0 || seconds <= 0 || products <= 0 || logRows < 0 || skew < 0) {
+            throw new IllegalArgumentException("Load test sizes must be positive.");
+        }
+        return new Options(cashiers, seconds, products, logRows, skew, mix, out, keep);
+    }
+
+    // "sale=70,return=10" -> weights; operations left out never run
+    private static Map<Operation, Integer> parseMix(String text) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : text.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) throw new IllegalArgumentException("Invalid mix entry: " + part);
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) throw new IllegalArgumentException("Mix weights cannot be negative.");
+            mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("The operation mix is empty.");
+        }
+        return mix;
+    }
+
+    private void run() throws SQLException, IOException, InterruptedException {
+        store = BenchmarkStore.create(options.products(), options.logRows());
+        try {
+            long[] lockBefore = rowLockStatus();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.seconds());
+
+            List<Tally> tallies = new ArrayList<>();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> cashiers = new ArrayList<>();
+            for (int i = 0; i < options.cashiers(); i++) {
+                Tally tally = new Tally();
+                tallies.add(tally);
+                Random random = new Random(1000 + i);
+                cashiers.add(Thread.ofPlatform().name("cashier-" + (i + 1)).start(() -> {
+                    try {
+                        start.await();
+                        runCashier(tally, random, deadline);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Thread cashier : cashiers) cashier.join();
+            double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+            long[] lockAfter = rowLockStatus();
+            report(tallies, elapsedSeconds, lockAfter[0] - lockBefore[0], lockAfter[1] - lockBefore[1]);
+        } finally {
+            if (options.keep()) {
+                System.out.println("Kept load test store of user " + store.username());
+            } else {
+                store.delete();
+            }
+        }
+    }
+
+    // --- Cashiers ---
+
+    private void runCashier(Tally tally, Random random, long deadline) {
+        ProductRepository products = new ProductRepository(store.userId());
+        DashboardRepository dashboard = new DashboardRepository();
+        int totalWeight = options.mix().values().stream().mapToInt(Integer::intValue).sum();
+
+        while (System.nanoTime() < deadline) {
+            Operation operation = pickOperation(random, totalWeight);
+            long before = System.nanoTime();
+            try {
+                switch (operation) {
+                    case SALE -> {
+                        List<CartLine> cart = new ArrayList<>();
+                        int lines = 1 + random.nextInt(MAX_CART_LINES);
+                        for (int i = 0; i < lines; i++) cart.add(new CartLine(pickProduct(random), 1 + random.nextInt(3)));
+                        products.sellCart(cart);
+                    }
+                    case RETURN -> products.processReturn(pickProduct(random), 1, "CUSTOMER-RETURN", "Load test");
+                    case UPSERT -> products.upsertProductFromQR(store.qrPayload(pickProduct(random), 1 + random.nextInt(20)));
+                    case DASHBOARD -> {
+                        Timestamp end = Timestamp.valueOf(LocalDate.now().plusDays(1).atStartOfDay());
+                        Timestamp begin = Timestamp.valueOf(LocalDate.now().minusDays(29).atStartOfDay());
+                        dashboard.getSnapshot(store.userId(), begin, end, 5);
+                    }
+                }
+                tally.latencies.get(operation).add(System.nanoTime() - before);
+            } catch (SQLException e) {
+                tally.errors.merge(operation, 1, Integer::sum);
+                if (e.getErrorCode() == ER_LOCK_DEADLOCK) tally.deadlocks++;
+                else if (e.getErrorCode() == ER_LOCK_WAIT_TIMEOUT) tally.lockWaitTimeouts++;
+                else System.err.println(Thread.currentThread().getName() + " " + operation + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private Operation pickOperation(Random random, int totalWeight) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : options.mix().entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) return entry.getKey();
+        }
+        return Operation.SALE;
+    }
+
+    // Product 1 is the hottest; with skew 0 every product is equally likely
+    private int pickProduct(Random random) {
+        int index = Arrays.binarySearch(zipfCdf, random.nextDouble());
+        if (index < 0) index = -index - 1;
+        return Math.min(index, zipfCdf.length - 1) + 1;
+    }
+
+    private static double[] zipfCdf(int products, double skew) {
+        double[] cdf = new double[products];
+        double sum = 0;
+        for (int rank = 1; rank <= products; rank++) {
+            sum += 1.0 / Math.pow(rank, skew);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < products; i++) cdf[i] /= sum;
+        return cdf;
+    }
+
+    // --- Reporting ---
+
+    // {row lock waits, row lock time in ms} since server start
+    private static long[] rowLockStatus() throws SQLException {
+        long[] status = new long[2];
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "SHOW GLOBAL STATUS WHERE Variable_name IN ('Innodb_row_lock_waits', 'Innodb_row_lock_time')");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                int slot = rs.getString(1).equalsIgnoreCase("Innodb_row_lock_waits") ? 0 : 1;
+                status[slot] = rs.getLong(2);
+            }
+        }
+        return status;
+    }
+
+    private void report(List<Tally> tallies, double elapsedSeconds, long lockWaits, long lockWaitMillis) throws IOException {
+        int deadlocks = 0;
+        int lockWaitTimeouts = 0;
+        for (Tally tally : tallies) {
+            deadlocks += tally.deadlocks;
+            lockWaitTimeouts += tally.lockWaitTimeouts;
+        }
+
+        System.out.println(String.format("%d cashiers for %.1f s, skew %.2f over %d products",
+            options.cashiers(), elapsedSeconds, options.skew(), options.products()));
+        JSONArray rows = new JSONArray();
+        for (Operation operation : Operation.values()) {
+            List<Long> merged = new ArrayList<>();
+            int errors = 0;
+            for (Tally tally : tallies) {
+                merged.addAll(tally.latencies.get(operation));
+                errors += tally.errors.getOrDefault(operation, 0);
+            }
+            if (merged.isEmpty() && errors == 0) continue;
+
+            long[] samples = merged.stream().mapToLong(Long::longValue).sorted().toArray();
+            double p50 = samples.length == 0 ? 0 : percentile(samples, 50);
+            double p99 = samples.length == 0 ? 0 : percentile(samples, 99);
+            double opsPerSecond = samples.length / elapsedSeconds;
+            System.out.println(String.format("%-10s %8d ok %6d failed %9.1f ops/s  p50 %8.2f ms  p99 %8.2f ms",
+                operation, samples.length, errors, opsPerSecond, p50, p99));
+            rows.put(new JSONObject()
+                .put("operation", operation.name().toLowerCase())
+                .put("completed", samples.length)
+                .put("failed", errors)
+                .put("ops_per_second", opsPerSecond)
+                .put("p50_ms", p50)
+                .put("p99_ms", p99));
+        }
+        System.out.println(String.format("Deadlocks %d, lock wait timeouts %d, InnoDB row lock waits %d totalling %d ms",
+            deadlocks, lockWaitTimeouts, lockWaits, lockWaitMillis));
+
+        JSONObject mix = new JSONObject();
+        options.mix().forEach((operation, weight) -> mix.put(operation.name().toLowerCase(), weight));
+        JSONObject report = new JSONObject()
+            .put("cashiers", options.cashiers())
+            .put("seconds", elapsedSeconds)
+            .put("products", options.products())
+            .put("skew", options.skew())
+            .put("mix", mix)
+            .put("deadlocks", deadlocks)
+            .put("lock_wait_timeouts", lockWaitTimeouts)
+            .put("row_lock_waits", lockWaits)
+            .put("row_lock_wait_ms", lockWaitMillis)
+            .put("run_at", new Timestamp(System.currentTimeMillis()).toString())
+            .put("results", rows);
+        Files.writeString(options.out(), report.toString(2), StandardCharsets.UTF_8);
+        System.out.println("Wrote " + options.out().toAbsolutePath());
+    }
+
+    // Nearest-rank percentile of sorted nanosecond samples, in milliseconds
+    private static double percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,79 @@
+package com.inventorysystem.data;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A throwaway MariaDB server for the benchmarks and the load test, started once per JVM.
+ * The base tables come from base-schema.sql and everything newer from
+ * SchemaMigrator, so the schema matches a migrated production database.
+ * The db.* system properties are pointed at it before DatabaseConnection loads.
+ */
+final class EmbeddedDatabase {
+
+    private static final String DATABASE = "bench_inventory_db";
+
+    private static DB server;
+
+    private EmbeddedDatabase() {}
+
+    static synchronized void start() throws SQLException {
+        if (server != null) return;
+
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0); // Any free port
+        config.addArg("--user=root"); // mysqld refuses to run as root otherwise
+        try {
+            server = DB.newEmbeddedDB(config.build());
+            server.start();
+        } catch (Exception e) {
+            throw new SQLException("Could not start the embedded database: " + e.getMessage(), e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(EmbeddedDatabase::stop, "embedded-db-shutdown"));
+
+        String serverUrl = "jdbc:mysql://localhost:" + config.getPort() + "/";
+        try (Connection conn = DriverManager.getConnection(serverUrl, "root", "");
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE DATABASE " + DATABASE);
+            stmt.execute("USE " + DATABASE);
+            for (String ddl : readBaseSchema().split(";")) {
+                if (!ddl.isBlank()) stmt.execute(ddl);
+            }
+        }
+
+        System.setProperty("db.url", serverUrl + DATABASE + "?useSSL=false&serverTimezone=UTC&rewriteBatchedStatements=true");
+        System.setProperty("db.user", "root");
+        System.setProperty("db.password", "");
+        new SchemaMigrator().migrate();
+    }
+
+    private static void stop() {
+        try {
+            server.stop();
+        } catch (Exception e) {
+            System.err.println("Could not stop the embedded database: " + e.getMessage());
+        }
+    }
+
+    // Statements are separated by ';' and comments are whole lines starting with '--'
+    private static String readBaseSchema() throws SQLException {
+        try (InputStream input = EmbeddedDatabase.class.getResourceAsStream("/base-schema.sql")) {
+            if (input == null) throw new SQLException("Cannot find base-schema.sql");
+            StringBuilder sql = new StringBuilder();
+            for (String line : new String(input.readAllBytes(), StandardCharsets.UTF_8).split("\\R")) {
+                if (!line.trim().startsWith("--")) sql.append(line).append('\n');
+            }
+            return sql.toString();
+        } catch (IOException e) {
+            throw new SQLException("Could not read base-schema.sql: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+-- Tables as they were before the first schema migration; SchemaMigrator adds the rest.
+-- Only used to set up the embedded benchmark database.
+
+CREATE TABLE users (
+    user_id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    user_role VARCHAR(20) NOT NULL,
+    admin_id INT NULL,
+    default_markup_percent DECIMAL(10, 2) NULL
+);
+
+CREATE TABLE stores (
+    store_id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    store_name VARCHAR(100) NOT NULL,
+    location VARCHAR(255) NULL,
+    contact VARCHAR(100) NULL
+);
+
+CREATE TABLE categories (
+    category_id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    category_name VARCHAR(100) NOT NULL,
+    user_id INT NOT NULL
+);
+
+CREATE TABLE products (
+    product_id INT NOT NULL,
+    user_id INT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    category_id INT NULL,
+    cost_price DECIMAL(10, 2) NOT NULL DEFAULT 0.00,
+    retail_price DECIMAL(10, 2) NULL,
+    markup_percent DECIMAL(10, 2) NULL,
+    quantity_in_stock INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id, user_id)
+);
+
+CREATE TABLE sales (
+    sale_id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    sale_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    total_amount DECIMAL(12, 2) NOT NULL,
+    user_id INT NOT NULL
+);
+
+CREATE TABLE sale_items (
+    sale_item_id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    sale_id INT NOT NULL,
+    product_id INT NOT NULL,
+    quantity_sold INT NOT NULL,
+    unit_price DECIMAL(10, 2) NOT NULL,
+    subtotal DECIMAL(12, 2) NOT NULL
+);
+
+CREATE TABLE stock_log (
+    log_id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    product_id INT NOT NULL,
+    user_id INT NOT NULL,
+    quantity_changed INT NOT NULL,
+    log_type VARCHAR(20) NOT NULL,
+    notes VARCHAR(255) NULL,
+    log_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
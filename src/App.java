@@ -1,4 +1,10 @@
+import com.inventorysystem.data.DailySalesRepository;
+import com.inventorysystem.data.SchemaMigrator;
+import com.inventorysystem.data.StoreRepository;
 import com.inventorysystem.gui.userFrame;
+import com.inventorysystem.util.SoundUtil;
+import java.awt.GraphicsEnvironment;
+import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
@@ -7,6 +13,39 @@ public class App {
 
     public static void main(String[] args) {
         
+        // Bring the database schema up to date once, before any screen queries it
+        try {
+            new SchemaMigrator().migrate();
+        } catch (Exception e) {
+            // The repositories rely on every migrated column and table, so nothing below can run safely
+            System.err.println("Schema migration failed: " + e.getMessage());
+            if (!GraphicsEnvironment.isHeadless()) {
+                JOptionPane.showMessageDialog(null,
+                    "The database could not be updated to the current version:\n" + e.getMessage() +
+                    "\n\nSmartStock will close. Check the database connection and try again.",
+                    "Database Error", JOptionPane.ERROR_MESSAGE);
+            }
+            System.exit(1);
+        }
+        
+        // Maintenance command: recompute the daily sales rollup from history, then exit
+        if (args.length > 0 && args[0].equals("--rebuild-sales-rollup")) {
+            try {
+                new DailySalesRepository().rebuild();
+                System.out.println("Daily sales rollup rebuilt.");
+                System.exit(0);
+            } catch (Exception e) {
+                System.err.println("Rollup rebuild failed: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        
+        // Finish any store deletion the last session was interrupted in
+        StoreRepository.resumePendingDeletions();
+        
+        // Decode the scan and login sounds before the first scan needs them
+        SoundUtil.preload();
+        
         SwingUtilities.invokeLater(() -> {
             try {
                 // Native OS appearance
@@ -0,0 +1,87 @@
+package com.inventorysystem.data;
+
+import com.inventorysystem.util.AppExecutors;
+import com.inventorysystem.util.Metrics;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * CompletableFuture facade over any repository. Calls run on the shared
+ * database executor, never on the caller's thread; a SQLException completes
+ * the future exceptionally. Screens consume results with AppExecutors.onEdt.
+ * Cancelling a returned future aborts the statement it is running, or skips
+ * the call entirely if it has not started yet.
+ */
+public final class AsyncRepository<R> {
+
+    @FunctionalInterface
+    public interface SqlCall<R, T> {
+        T call(R repository) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface SqlAction<R> {
+        void run(R repository) throws SQLException;
+    }
+
+    private final R repository;
+
+    public AsyncRepository(R repository) {
+        if (repository == null) {
+            throw new IllegalArgumentException("Repository cannot be null.");
+        }
+        this.repository = repository;
+    }
+
+    public static <R> AsyncRepository<R> of(R repository) {
+        return new AsyncRepository<>(repository);
+    }
+
+    /**
+     * Runs a repository call in the background and completes with its result.
+     */
+    public <T> CompletableFuture<T> supply(SqlCall<R, T> call) {
+        QueryCancellation scope = new QueryCancellation();
+        CompletableFuture<T> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                scope.cancel();
+                return cancelled;
+            }
+        };
+
+        try {
+            AppExecutors.db().execute(() -> {
+                if (future.isDone()) return; // Cancelled while queued
+                scope.enter();
+                String[] outerCall = QueryMetrics.beginCall();
+                long started = System.nanoTime();
+                try {
+                    future.complete(call.call(repository));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    String method = QueryMetrics.endCall(outerCall);
+                    Metrics.record("repo " + (method != null ? method : repository.getClass().getSimpleName() + " (no SQL)"),
+                                   System.nanoTime() - started);
+                    scope.exit();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Runs a repository call that returns nothing.
+     */
+    public CompletableFuture<Void> run(SqlAction<R> action) {
+        return supply(repo -> {
+            action.run(repo);
+            return null;
+        });
+    }
+}
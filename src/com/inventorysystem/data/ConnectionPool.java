@@ -0,0 +1,249 @@
+package com.inventorysystem.data;
+
+import com.inventorysystem.util.Metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Small bounded JDBC connection pool used behind DatabaseConnection.
+ * Callers keep using try-with-resources: close() on a borrowed connection
+ * hands the physical connection back to the pool instead of closing it.
+ */
+class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int minIdle;
+    private final long connectionTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final int validationTimeoutSec;
+
+    // Permits = connections that may still be handed out (bounds total size)
+    private final Semaphore permits;
+    // Idle connections, most recently returned first
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean shutdown = false;
+
+    // Physical connection plus bookkeeping for eviction
+    private static final class PooledEntry {
+        final Connection physical;
+        final long createdAt;
+        long lastReturnedAt;
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+            this.createdAt = System.currentTimeMillis();
+            this.lastReturnedAt = this.createdAt;
+        }
+    }
+
+    ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+                   long connectionTimeoutMs, long idleTimeoutMs, long maxLifetimeMs, int validationTimeoutSec) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive.");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minIdle = Math.max(0, Math.min(minIdle, maxSize));
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.validationTimeoutSec = validationTimeoutSec;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, Math.min(idleTimeoutMs, 30_000L));
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Borrow a connection, waiting up to connectionTimeoutMs if the pool is exhausted
+    Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down.");
+        }
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + connectionTimeoutMs
+                    + " ms waiting for a database connection.", "08001");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", "08001", e);
+        }
+
+        try {
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    return wrap(entry);
+                }
+                closeQuietly(entry.physical);
+            }
+            Metrics.increment("db.connections.opened");
+            return wrap(new PooledEntry(DriverManager.getConnection(url, user, password)));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Close idle connections and stop the evictor
+    void shutdown() {
+        shutdown = true;
+        evictor.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            closeQuietly(entry.physical);
+        }
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        long now = System.currentTimeMillis();
+        if (now - entry.createdAt > maxLifetimeMs) {
+            return false;
+        }
+        try {
+            return !entry.physical.isClosed() && entry.physical.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // Return a physical connection to the idle list in a clean state
+    private void release(PooledEntry entry) {
+        try {
+            boolean broken = entry.physical.isClosed();
+            if (!broken) {
+                try {
+                    if (!entry.physical.getAutoCommit()) {
+                        entry.physical.rollback();
+                        entry.physical.setAutoCommit(true);
+                    }
+                    if (entry.physical.isReadOnly()) {
+                        entry.physical.setReadOnly(false);
+                    }
+                    entry.physical.clearWarnings();
+                } catch (SQLException e) {
+                    broken = true;
+                }
+            }
+
+            if (broken || shutdown || System.currentTimeMillis() - entry.createdAt > maxLifetimeMs) {
+                closeQuietly(entry.physical);
+            } else {
+                entry.lastReturnedAt = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            }
+        } catch (SQLException e) {
+            closeQuietly(entry.physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Drop connections that sat idle too long, keeping at least minIdle around
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        List<PooledEntry> expired = new ArrayList<>();
+        int keep = idle.size();
+        Iterator<PooledEntry> it = idle.descendingIterator(); // oldest first
+        while (it.hasNext() && keep > 0) {
+            PooledEntry entry = it.next();
+            boolean tooOld = now - entry.createdAt > maxLifetimeMs;
+            boolean idleTooLong = now - entry.lastReturnedAt > idleTimeoutMs && keep > minIdle;
+            if ((tooOld || idleTooLong) && idle.remove(entry)) {
+                expired.add(entry);
+                keep--;
+            }
+        }
+        for (PooledEntry entry : expired) {
+            closeQuietly(entry.physical);
+        }
+    }
+
+    private Connection wrap(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            new PooledConnectionHandler(entry)
+        );
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try { conn.close(); } catch (SQLException e) { /* Ignored */ }
+    }
+
+    // Delegates to the physical connection; close() returns it to the pool once.
+    // Statements are registered with the borrowing task's cancellation scope, if any,
+    // and handed out wrapped so their executes are timed (see QueryMetrics).
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private final QueryCancellation scope = QueryCancellation.current();
+
+        PooledConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            if (closed.get()) {
+                throw new SQLException("Connection is closed.", "08003");
+            }
+            Object result;
+            try {
+                result = method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement statement) {
+                if (scope != null) scope.register(statement);
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return QueryMetrics.timed(statement, method.getReturnType(), sql);
+            }
+            return result;
+        }
+    }
+}
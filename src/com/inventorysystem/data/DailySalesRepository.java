@@ -0,0 +1,180 @@
+package com.inventorysystem.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the daily_product_sales rollup: one row per (user, day, product) with
+ * quantity sold, revenue, COGS and margin, plus customer-return and refund quantities.
+ * The write paths in ProductRepository update it inside their own transactions;
+ * rebuild() recomputes it from sales, sale_items and stock_log.
+ */
+public class DailySalesRepository {
+
+    // Sales lines grouped by day and product (shared by the per-sale update and the rebuild)
+    private static final String SALES_ROLLUP_SELECT =
+        "SELECT s.user_id, DATE(s.sale_date) AS sale_day, si.product_id, " +
+        "SUM(si.quantity_sold) AS quantity_sold, " +
+        "SUM(si.subtotal) AS revenue, " +
+        "SUM(si.quantity_sold * si.cost_price) AS cogs, " +
+        "SUM(si.quantity_sold * (si.unit_price - si.cost_price)) AS margin " +
+        "FROM sales s JOIN sale_items si ON s.sale_id = si.sale_id ";
+
+    private static final String SALES_ROLLUP_UPSERT =
+        "INSERT INTO daily_product_sales (user_id, sale_day, product_id, quantity_sold, revenue, cogs, margin) " +
+        "SELECT * FROM (%s) AS t " +
+        "ON DUPLICATE KEY UPDATE " +
+        "quantity_sold = daily_product_sales.quantity_sold + t.quantity_sold, " +
+        "revenue = daily_product_sales.revenue + t.revenue, " +
+        "cogs = daily_product_sales.cogs + t.cogs, " +
+        "margin = daily_product_sales.margin + t.margin";
+
+    // Creates the rollup table (used by schema migration 5)
+    static void createTable(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "CREATE TABLE IF NOT EXISTS daily_product_sales (" +
+                "user_id INT NOT NULL, " +
+                "sale_day DATE NOT NULL, " +
+                "product_id INT NOT NULL, " +
+                "quantity_sold INT NOT NULL DEFAULT 0, " +
+                "revenue DECIMAL(14, 2) NOT NULL DEFAULT 0.00, " +
+                "cogs DECIMAL(14, 2) NOT NULL DEFAULT 0.00, " +
+                "margin DECIMAL(14, 2) NOT NULL DEFAULT 0.00, " +
+                "quantity_returned INT NOT NULL DEFAULT 0, " +
+                "quantity_refunded INT NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (user_id, sale_day, product_id))")) {
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Add one sale's lines to the rollup; call inside the sale's transaction
+    static void recordSale(Connection conn, long saleId) throws SQLException {
+        String sql = String.format(SALES_ROLLUP_UPSERT,
+            SALES_ROLLUP_SELECT + "WHERE s.sale_id = ? GROUP BY s.user_id, DATE(s.sale_date), si.product_id");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, saleId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Count a customer return against today's row
+    static void recordCustomerReturn(Connection conn, int userId, int productId, int quantity) throws SQLException {
+        addToday(conn, "quantity_returned", userId, productId, quantity);
+    }
+
+    // Count a refund to the supplier against today's row
+    static void recordRefund(Connection conn, int userId, int productId, int quantity) throws SQLException {
+        addToday(conn, "quantity_refunded", userId, productId, quantity);
+    }
+
+    // Batched customer returns and refunds for today, product ID -> quantity
+    static void recordCustomerReturns(Connection conn, int userId, Map<Integer, Integer> quantities) throws SQLException {
+        addTodayBatch(conn, "quantity_returned", userId, quantities);
+    }
+
+    static void recordRefunds(Connection conn, int userId, Map<Integer, Integer> quantities) throws SQLException {
+        addTodayBatch(conn, "quantity_refunded", userId, quantities);
+    }
+
+    // Drop the rollup rows of several deleted products
+    static void deleteProducts(Connection conn, int userId, List<Integer> productIds) throws SQLException {
+        if (productIds.isEmpty()) return;
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "DELETE FROM daily_product_sales WHERE user_id = ? AND product_id IN (" + placeholders + ")")) {
+            pstmt.setInt(1, userId);
+            for (int i = 0; i < productIds.size(); i++) pstmt.setInt(i + 2, productIds.get(i));
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void addToday(Connection conn, String column, int userId, int productId, int quantity) throws SQLException {
+        String sql = "INSERT INTO daily_product_sales (user_id, sale_day, product_id, " + column + ") " +
+                     "VALUES (?, CURDATE(), ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE " + column + " = " + column + " + ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, productId);
+            pstmt.setInt(3, quantity);
+            pstmt.setInt(4, quantity);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void addTodayBatch(Connection conn, String column, int userId, Map<Integer, Integer> quantities) throws SQLException {
+        if (quantities.isEmpty()) return;
+        String sql = "INSERT INTO daily_product_sales (user_id, sale_day, product_id, " + column + ") " +
+                     "VALUES (?, CURDATE(), ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE " + column + " = " + column + " + VALUES(" + column + ")";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, entry.getKey());
+                pstmt.setInt(3, entry.getValue());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Recomputes the rollup for every user from the raw sales and stock log history.
+     */
+    public void rebuild() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            rebuild(conn, null);
+        }
+    }
+
+    /**
+     * Recomputes the rollup for one user from the raw sales and stock log history.
+     */
+    public void rebuild(int userId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            rebuild(conn, userId);
+        }
+    }
+
+    // Replace the rollup rows in one transaction; userId null means all users
+    static void rebuild(Connection conn, Integer userId) throws SQLException {
+        String userFilter = userId != null ? " AND s.user_id = ?" : "";
+        String logUserFilter = userId != null ? " AND sl.user_id = ?" : "";
+
+        String deleteSql = "DELETE FROM daily_product_sales" + (userId != null ? " WHERE user_id = ?" : "");
+        String salesSql = String.format(SALES_ROLLUP_UPSERT,
+            SALES_ROLLUP_SELECT + "WHERE 1 = 1" + userFilter + " GROUP BY s.user_id, DATE(s.sale_date), si.product_id");
+        String returnsSql =
+            "INSERT INTO daily_product_sales (user_id, sale_day, product_id, quantity_returned, quantity_refunded) " +
+            "SELECT * FROM (" +
+            "  SELECT sl.user_id, DATE(sl.log_date) AS sale_day, sl.product_id, " +
+            "  SUM(CASE WHEN sl.log_type = 'CUSTOMER-RETURN' THEN ABS(sl.quantity_changed) ELSE 0 END) AS quantity_returned, " +
+            "  SUM(CASE WHEN sl.log_type = 'REFUND' THEN ABS(sl.quantity_changed) ELSE 0 END) AS quantity_refunded " +
+            "  FROM stock_log sl WHERE sl.log_type IN ('CUSTOMER-RETURN', 'REFUND')" + logUserFilter +
+            "  GROUP BY sl.user_id, DATE(sl.log_date), sl.product_id" +
+            ") AS t " +
+            "ON DUPLICATE KEY UPDATE " +
+            "quantity_returned = t.quantity_returned, " +
+            "quantity_refunded = t.quantity_refunded";
+
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            conn.setAutoCommit(false);
+            for (String sql : new String[]{deleteSql, salesSql, returnsSql}) {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    if (userId != null) pstmt.setInt(1, userId);
+                    pstmt.executeUpdate();
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            try { conn.rollback(); } catch (SQLException ex) { System.err.println("Rollback failed: " + ex.getMessage()); }
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.inventorysystem.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the daily_stock_movements rollup: one row per (user, day, product, log type)
+ * with the total quantity moved, always positive. The write paths in ProductRepository
+ * update it next to every stock_log insert, inside their own transactions;
+ * rebuild() recomputes it from stock_log.
+ */
+public class DailyStockRepository {
+
+    // Log types counted as stock coming in and going out (read by StockRepository)
+    static final String IN_TYPES = "'STOCK-IN', 'CUSTOMER-RETURN'";
+    static final String OUT_TYPES = "'SALE', 'REMOVAL', 'REJECT', 'REFUND', 'DISPOSE'";
+
+    // Day of the movement's log_date, the same day rebuild() would count it on
+    private static final String ADD_SQL =
+        "INSERT INTO daily_stock_movements (user_id, log_day, product_id, log_type, quantity) " +
+        "VALUES (?, DATE(COALESCE(?, NOW())), ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)";
+
+    // Creates the rollup table (used by schema migration 8)
+    static void createTable(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "CREATE TABLE IF NOT EXISTS daily_stock_movements (" +
+                "user_id INT NOT NULL, " +
+                "log_day DATE NOT NULL, " +
+                "product_id INT NOT NULL, " +
+                "log_type VARCHAR(20) NOT NULL, " +
+                "quantity INT NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (user_id, log_day, product_id, log_type))")) {
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Count one stock_log row against today's movements; quantity may carry the log's sign
+    static void recordMovement(Connection conn, int userId, int productId, String logType, int quantity) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(ADD_SQL)) {
+            pstmt.setInt(1, userId);
+            pstmt.setTimestamp(2, null);
+            pstmt.setInt(3, productId);
+            pstmt.setString(4, logType);
+            pstmt.setInt(5, Math.abs(quantity));
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Batched movements of one log type logged at loggedAt (today when null), product ID -> quantity
+    static void recordMovements(Connection conn, int userId, String logType, Map<Integer, Integer> quantities,
+                                Timestamp loggedAt) throws SQLException {
+        if (quantities.isEmpty()) return;
+        try (PreparedStatement pstmt = conn.prepareStatement(ADD_SQL)) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                pstmt.setInt(1, userId);
+                pstmt.setTimestamp(2, loggedAt);
+                pstmt.setInt(3, entry.getKey());
+                pstmt.setString(4, logType);
+                pstmt.setInt(5, Math.abs(entry.getValue()));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // Drop the rollup rows of several deleted products
+    static void deleteProducts(Connection conn, int userId, List<Integer> productIds) throws SQLException {
+        if (productIds.isEmpty()) return;
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "DELETE FROM daily_stock_movements WHERE user_id = ? AND product_id IN (" + placeholders + ")")) {
+            pstmt.setInt(1, userId);
+            for (int i = 0; i < productIds.size(); i++) pstmt.setInt(i + 2, productIds.get(i));
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Recomputes the rollup for one user from the raw stock log.
+     */
+    public void rebuild(int userId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            rebuild(conn, userId);
+        }
+    }
+
+    // Replace the rollup rows in one transaction; userId null means all users
+    static void rebuild(Connection conn, Integer userId) throws SQLException {
+        String deleteSql = "DELETE FROM daily_stock_movements" + (userId != null ? " WHERE user_id = ?" : "");
+        String insertSql =
+            "INSERT INTO daily_stock_movements (user_id, log_day, product_id, log_type, quantity) " +
+            "SELECT sl.user_id, DATE(sl.log_date), sl.product_id, sl.log_type, SUM(ABS(sl.quantity_changed)) " +
+            "FROM stock_log sl" + (userId != null ? " WHERE sl.user_id = ?" : "") + " " +
+            "GROUP BY sl.user_id, DATE(sl.log_date), sl.product_id, sl.log_type";
+
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            conn.setAutoCommit(false);
+            for (String sql : new String[]{deleteSql, insertSql}) {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    if (userId != null) pstmt.setInt(1, userId);
+                    pstmt.executeUpdate();
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            try { conn.rollback(); } catch (SQLException ex) { System.err.println("Rollback failed: " + ex.getMessage()); }
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
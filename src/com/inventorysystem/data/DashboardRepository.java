@@ -1,5 +1,7 @@
 package com.inventorysystem.data;
 
+import com.inventorysystem.model.DashboardSnapshot;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -8,6 +10,52 @@ import java.sql.SQLException;
 // Gets statistics for the dashboard (total products, sales, profit, etc.)
 public class DashboardRepository {
 
+    // Get every dashboard figure on one connection: one query for all card totals,
+    // plus the best sellers and stock alert lists. Sales figures come from the
+    // daily_product_sales rollup, so their cost depends on the days in the range.
+    public DashboardSnapshot getSnapshot(int userId, java.sql.Timestamp startDate, java.sql.Timestamp endDate, int bestSellerLimit) throws SQLException {
+        String cardsSql = "SELECT COUNT(*) AS total_products, " +
+                          "COALESCE(SUM(p.quantity_in_stock), 0) AS total_stock, " +
+                          "COALESCE(SUM(CASE WHEN p.quantity_in_stock <= 0 THEN 1 ELSE 0 END), 0) AS out_of_stock, " +
+                          "COALESCE(SUM(p.cost_price * p.quantity_in_stock), 0) AS inventory_cost, " +
+                          "(SELECT COALESCE(SUM(d.revenue), 0) FROM daily_product_sales d " +
+                          " WHERE d.user_id = ? AND d.sale_day >= ? AND d.sale_day < ?) AS total_income, " +
+                          "(SELECT COALESCE(SUM(d.margin), 0) FROM daily_product_sales d " +
+                          " WHERE d.user_id = ? AND d.sale_day >= ? AND d.sale_day < ?) AS total_profit " +
+                          "FROM products p WHERE p.user_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int totalProducts = 0, totalStock = 0, outOfStock = 0;
+            double inventoryCost = 0.0, income = 0.0, profit = 0.0;
+
+            try (PreparedStatement pstmt = conn.prepareStatement(cardsSql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setDate(2, toDay(startDate));
+                pstmt.setDate(3, toDay(endDate));
+                pstmt.setInt(4, userId);
+                pstmt.setDate(5, toDay(startDate));
+                pstmt.setDate(6, toDay(endDate));
+                pstmt.setInt(7, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        totalProducts = rs.getInt("total_products");
+                        totalStock = rs.getInt("total_stock");
+                        outOfStock = rs.getInt("out_of_stock");
+                        inventoryCost = rs.getDouble("inventory_cost");
+                        income = rs.getDouble("total_income");
+                        profit = rs.getDouble("total_profit");
+                    }
+                }
+            }
+
+            return new DashboardSnapshot(
+                totalProducts, totalStock, outOfStock, inventoryCost, income, profit,
+                getBestSellers(conn, userId, startDate, endDate, bestSellerLimit),
+                getStockAlerts(conn, userId)
+            );
+        }
+    }
+
     // Count how many different products user has
     public int getTotalProducts(int userId) throws SQLException {
         String sql = "SELECT COUNT(*) FROM products WHERE user_id = ?";
@@ -70,7 +118,7 @@ public class DashboardRepository {
 
     // Get total money earned from all sales
     public double getTotalIncome(int userId) throws SQLException {
-        String sql = "SELECT COALESCE(SUM(total_amount), 0) FROM sales WHERE user_id = ?";
+        String sql = "SELECT COALESCE(SUM(revenue), 0) FROM daily_product_sales WHERE user_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
@@ -84,14 +132,14 @@ public class DashboardRepository {
     }
 
     // Get income for specific date range
-    public double getTotalIncome(int userId, java.sql.Date startDate, java.sql.Date endDate) throws SQLException {
-        String sql = "SELECT COALESCE(SUM(total_amount), 0) FROM sales " +
-                     "WHERE user_id = ? AND DATE(sale_date) BETWEEN DATE(?) AND DATE(?)";
+    public double getTotalIncome(int userId, java.sql.Timestamp startDate, java.sql.Timestamp endDate) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(revenue), 0) FROM daily_product_sales " +
+                     "WHERE user_id = ? AND sale_day >= ? AND sale_day < ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
-            pstmt.setDate(2, startDate);
-            pstmt.setDate(3, endDate);
+            pstmt.setDate(2, toDay(startDate));
+            pstmt.setDate(3, toDay(endDate));
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
                     return rs.getDouble(1);
@@ -103,11 +151,10 @@ public class DashboardRepository {
 
     // Calculate profit: (Selling Price - Saved Historical Cost) × Quantity Sold
     public double getTotalProfit(int userId) throws SQLException {
-        // UPDATED SQL: Uses si.cost_price instead of p.cost_price
-        String sql = "SELECT COALESCE(SUM(si.quantity_sold * (si.unit_price - si.cost_price)), 0) AS total_profit " +
-                     "FROM sales s " +
-                     "JOIN sale_items si ON s.sale_id = si.sale_id " +
-                     "WHERE s.user_id = ?";
+        // Margin in the rollup is built from si.cost_price (historical cost)
+        String sql = "SELECT COALESCE(SUM(margin), 0) AS total_profit " +
+                     "FROM daily_product_sales " +
+                     "WHERE user_id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -122,18 +169,16 @@ public class DashboardRepository {
     }
 
     // Calculate profit for specific date range
-    public double getTotalProfit(int userId, java.sql.Date startDate, java.sql.Date endDate) throws SQLException {
-        // UPDATED SQL: Uses si.cost_price
-        String sql = "SELECT COALESCE(SUM(si.quantity_sold * (si.unit_price - si.cost_price)), 0) AS total_profit " +
-                     "FROM sales s " +
-                     "JOIN sale_items si ON s.sale_id = si.sale_id " +
-                     "WHERE s.user_id = ? AND DATE(s.sale_date) BETWEEN DATE(?) AND DATE(?)";
+    public double getTotalProfit(int userId, java.sql.Timestamp startDate, java.sql.Timestamp endDate) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(margin), 0) AS total_profit " +
+                     "FROM daily_product_sales " +
+                     "WHERE user_id = ? AND sale_day >= ? AND sale_day < ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
-            pstmt.setDate(2, startDate);
-            pstmt.setDate(3, endDate);
+            pstmt.setDate(2, toDay(startDate));
+            pstmt.setDate(3, toDay(endDate));
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
                     return rs.getDouble("total_profit");
@@ -144,28 +189,32 @@ public class DashboardRepository {
     }
     
     // Get best selling products with sales data
-    public java.util.List<Object[]> getBestSellers(int userId, java.sql.Date startDate, java.sql.Date endDate, int limit) throws SQLException {
-        // UPDATED SQL: Uses si.cost_price for COGS and Margin calculations
+    public java.util.List<Object[]> getBestSellers(int userId, java.sql.Timestamp startDate, java.sql.Timestamp endDate, int limit) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return getBestSellers(conn, userId, startDate, endDate, limit);
+        }
+    }
+
+    private java.util.List<Object[]> getBestSellers(Connection conn, int userId, java.sql.Timestamp startDate, java.sql.Timestamp endDate, int limit) throws SQLException {
+        // COGS and margin in the rollup use si.cost_price (historical cost)
         String sql = "SELECT p.name, " +
-                     "COALESCE(SUM(si.subtotal), 0) AS sales_amount, " +
-                     "COALESCE(SUM(si.quantity_sold * si.cost_price), 0) AS cogs, " +
-                     "COALESCE(SUM(si.quantity_sold * (si.unit_price - si.cost_price)), 0) AS margin, " +
-                     "COALESCE(SUM(si.quantity_sold), 0) AS qty_sold " +
-                     "FROM sales s " +
-                     "JOIN sale_items si ON s.sale_id = si.sale_id " +
-                     "JOIN products p ON si.product_id = p.product_id " +
-                     "WHERE s.user_id = ? " +
-                     "AND DATE(s.sale_date) BETWEEN DATE(?) AND DATE(?) " +
+                     "COALESCE(SUM(d.revenue), 0) AS sales_amount, " +
+                     "COALESCE(SUM(d.cogs), 0) AS cogs, " +
+                     "COALESCE(SUM(d.margin), 0) AS margin, " +
+                     "COALESCE(SUM(d.quantity_sold), 0) AS qty_sold " +
+                     "FROM daily_product_sales d " +
+                     "JOIN products p ON d.product_id = p.product_id AND d.user_id = p.user_id " +
+                     "WHERE d.user_id = ? " +
+                     "AND d.sale_day >= ? AND d.sale_day < ? AND d.quantity_sold > 0 " +
                      "GROUP BY p.product_id, p.name " +
                      "ORDER BY sales_amount DESC " +
                      "LIMIT ?";
         
         java.util.List<Object[]> results = new java.util.ArrayList<>();
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
-            pstmt.setDate(2, startDate);
-            pstmt.setDate(3, endDate);
+            pstmt.setDate(2, toDay(startDate));
+            pstmt.setDate(3, toDay(endDate));
             pstmt.setInt(4, limit);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -185,6 +234,12 @@ public class DashboardRepository {
     
     // Get stock alerts - shows all products with status
     public java.util.List<Object[]> getStockAlerts(int userId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return getStockAlerts(conn, userId);
+        }
+    }
+
+    private java.util.List<Object[]> getStockAlerts(Connection conn, int userId) throws SQLException {
         String sql = "SELECT name, quantity_in_stock, " +
                      "CASE " +
                      "  WHEN quantity_in_stock = 0 THEN 'Out of Stock' " +
@@ -197,8 +252,7 @@ public class DashboardRepository {
                      "ORDER BY quantity_in_stock ASC";
         
         java.util.List<Object[]> results = new java.util.ArrayList<>();
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -216,4 +270,9 @@ public class DashboardRepository {
         }
         return results;
     }
+
+    // Local calendar day of a range bound (the rollup is keyed by day)
+    private static java.sql.Date toDay(java.sql.Timestamp timestamp) {
+        return timestamp == null ? null : java.sql.Date.valueOf(timestamp.toLocalDateTime().toLocalDate());
+    }
 }
\ No newline at end of file
@@ -1,43 +1,59 @@
 package com.inventorysystem.data;
 
-import java.io.IOException;
-import java.io.InputStream;
+import com.inventorysystem.util.AppConfig;
+import com.inventorysystem.util.Metrics;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Properties;
 
-// Handles connecting to MySQL database
+// Handles connecting to MySQL database through a bounded connection pool
 public class DatabaseConnection {
 
     private static final String DB_URL;
     private static final String DB_USER;
     private static final String DB_PASSWORD;
 
+    private static final ConnectionPool POOL;
+
     // Load database settings from config.properties file
     static {
-        Properties properties = new Properties();
-        try (InputStream input = DatabaseConnection.class.getResourceAsStream("/config.properties")) {
-            if (input == null) {
-                throw new RuntimeException("Cannot find config.properties file");
-            }
-            properties.load(input);
-            DB_URL = properties.getProperty("db.url");
-            DB_USER = properties.getProperty("db.user");
-            DB_PASSWORD = properties.getProperty("db.password");
-
-            if (DB_URL == null || DB_USER == null || DB_PASSWORD == null) {
-                throw new RuntimeException("Database config is incomplete in config.properties");
-            }
-        } catch (IOException ex) {
-            throw new RuntimeException("Failed to load database configuration", ex);
+        if (!AppConfig.isLoaded()) {
+            throw new RuntimeException("Cannot find config.properties file");
+        }
+        DB_URL = AppConfig.get("db.url");
+        DB_USER = AppConfig.get("db.user");
+        DB_PASSWORD = AppConfig.get("db.password");
+
+        if (DB_URL == null || DB_USER == null || DB_PASSWORD == null) {
+            throw new RuntimeException("Database config is incomplete in config.properties");
         }
+
+        // Pool settings are optional; defaults suit a single counter PC
+        POOL = new ConnectionPool(
+            DB_URL, DB_USER, DB_PASSWORD,
+            AppConfig.getInt("db.pool.maxSize", 10),
+            AppConfig.getInt("db.pool.minIdle", 2),
+            AppConfig.getLong("db.pool.connectionTimeoutMs", 10_000L),
+            AppConfig.getLong("db.pool.idleTimeoutMs", 300_000L),
+            AppConfig.getLong("db.pool.maxLifetimeMs", 1_800_000L),
+            AppConfig.getInt("db.pool.validationTimeoutSec", 2)
+        );
+        Runtime.getRuntime().addShutdownHook(new Thread(POOL::shutdown, "db-pool-shutdown"));
     }
 
     private DatabaseConnection() {}
 
-    // Get a connection to the database
+    // Get a pooled connection; closing it returns it to the pool
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        long started = System.nanoTime();
+        try {
+            return POOL.borrow();
+        } finally {
+            Metrics.record("db.connection.acquire", System.nanoTime() - started);
+        }
+    }
+
+    // Close all idle connections (called on application exit)
+    public static void shutdown() {
+        POOL.shutdown();
     }
-}
\ No newline at end of file
+}
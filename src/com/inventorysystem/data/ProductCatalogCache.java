@@ -0,0 +1,107 @@
+package com.inventorysystem.data;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of one store's product catalog: names, categories, prices and markup.
+ * Stock is not cached; it changes on every sale and is always read with a row lock.
+ * Shared by every ProductRepository for the same user, which keeps it in step with its writes.
+ */
+final class ProductCatalogCache {
+
+    // Catalog fields of one product
+    record Entry(
+        int productId,
+        String name,
+        int categoryId,
+        String categoryName,
+        double costPrice,
+        double retailPrice,
+        Double markupPercent
+    ) {}
+
+    // Enough for any single store; beyond this, arbitrary entries are dropped and reloaded on demand
+    private static final int MAX_ENTRIES = 20_000;
+
+    private static final Map<Integer, ProductCatalogCache> CACHES = new ConcurrentHashMap<>();
+
+    static ProductCatalogCache forUser(int userId) {
+        return CACHES.computeIfAbsent(userId, id -> new ProductCatalogCache());
+    }
+
+    private final ConcurrentHashMap<Integer, Entry> byId = new ConcurrentHashMap<>();
+    // Secondary index: lower-cased name + category id -> product id
+    private final ConcurrentHashMap<String, Integer> byNameAndCategory = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> categoryNames = new ConcurrentHashMap<>();
+
+    private ProductCatalogCache() {}
+
+    Entry get(int productId) {
+        return byId.get(productId);
+    }
+
+    Integer findId(String name, int categoryId) {
+        return byNameAndCategory.get(indexKey(name, categoryId));
+    }
+
+    String getCategoryName(int categoryId) {
+        return categoryNames.get(categoryId);
+    }
+
+    void put(Entry entry) {
+        Entry old = byId.put(entry.productId(), entry);
+        if (old != null) {
+            byNameAndCategory.remove(indexKey(old.name(), old.categoryId()), old.productId());
+        }
+        byNameAndCategory.put(indexKey(entry.name(), entry.categoryId()), entry.productId());
+        if (entry.categoryName() != null) {
+            categoryNames.put(entry.categoryId(), entry.categoryName());
+        }
+        trim(entry.productId());
+    }
+
+    void putCategory(int categoryId, String categoryName) {
+        categoryNames.put(categoryId, categoryName);
+    }
+
+    void remove(int productId) {
+        Entry old = byId.remove(productId);
+        if (old != null) {
+            byNameAndCategory.remove(indexKey(old.name(), old.categoryId()), productId);
+        }
+    }
+
+    // Replace the whole catalog with a fresh load
+    void replaceAll(Collection<Entry> entries) {
+        clear();
+        for (Entry entry : entries) {
+            put(entry);
+        }
+    }
+
+    void clear() {
+        byId.clear();
+        byNameAndCategory.clear();
+        categoryNames.clear();
+    }
+
+    // Keep the map bounded; never evicts the entry that was just written
+    private void trim(int keepId) {
+        Iterator<Entry> it = byId.values().iterator();
+        while (byId.size() > MAX_ENTRIES && it.hasNext()) {
+            Entry victim = it.next();
+            if (victim.productId() != keepId) {
+                remove(victim.productId());
+            }
+        }
+    }
+
+    // MySQL compares names case-insensitively, so the index does too
+    private static String indexKey(String name, int categoryId) {
+        return (name == null ? "" : name.trim().toLowerCase(Locale.ROOT)) + '\u0000' + categoryId;
+    }
+}
@@ -1,62 +1,56 @@
 package com.inventorysystem.data;
 
+import com.inventorysystem.model.BulkResult;
+import com.inventorysystem.model.CartLine;
 import com.inventorysystem.model.Category;
 import com.inventorysystem.model.Product;
+import com.inventorysystem.model.ProductLabel;
+import com.inventorysystem.model.StockAdjustment;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 // Product CRUD operations, sales, stock, and QR code handling
 public class ProductRepository {
 
     private final int userId;
+    // Shared per store; lookups on the scan path are served from here
+    private final ProductCatalogCache catalog;
 
     public ProductRepository(int userId) {
         if (userId <= 0) {
             throw new IllegalArgumentException("User ID must be positive.");
         }
         this.userId = userId;
-
-        try {
-            ensureQuantityDamagedColumn();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    // Ensure quantity_damaged column exists
-    private void ensureQuantityDamagedColumn() throws SQLException {
-        String checkColumnSql = "SHOW COLUMNS FROM products LIKE 'quantity_damaged'";
-        String addColumnSql = "ALTER TABLE products ADD COLUMN quantity_damaged INT(11) NOT NULL DEFAULT 0 AFTER quantity_in_stock";
-        
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            boolean columnExists = false;
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkColumnSql);
-                 ResultSet rs = checkStmt.executeQuery()) {
-                if (rs.next()) {
-                    columnExists = true;
-                }
-            }
-            
-            if (!columnExists) {
-                try (PreparedStatement addColStmt = conn.prepareStatement(addColumnSql)) {
-                    addColStmt.executeUpdate();
-                }
-            }
-        }
+        this.catalog = ProductCatalogCache.forUser(userId);
     }
 
-    // Get all products for user
+    // Get all products for user, with markup and selling price resolved in the same query.
+    // Also refreshes the catalog cache from the same result.
     public List<Product> getAllProducts() throws SQLException {
         List<Product> products = new ArrayList<>();
+        List<ProductCatalogCache.Entry> entries = new ArrayList<>();
         
-        String sql = "SELECT p.product_id, p.name, c.category_name, p.cost_price, p.retail_price, p.quantity_in_stock, " +
-                     "COALESCE(p.quantity_damaged, 0) as quantity_damaged " +
+        String sql = "SELECT p.product_id, p.name, p.category_id, c.category_name, p.cost_price, p.retail_price, p.quantity_in_stock, " +
+                     "COALESCE(p.quantity_damaged, 0) as quantity_damaged, p.markup_percent, " +
+                     "COALESCE(p.markup_percent, u.default_markup_percent, 0) AS effective_markup, " +
+                     "CASE WHEN p.retail_price > 0 THEN p.retail_price " +
+                     "     ELSE ROUND(p.cost_price * (1 + COALESCE(p.markup_percent, u.default_markup_percent, 0) / 100), 2) " +
+                     "END AS effective_retail_price " +
                      "FROM products p " +
                      "JOIN categories c ON p.category_id = c.category_id " +
+                     "LEFT JOIN users u ON p.user_id = u.user_id " +
                      "WHERE p.user_id = ? " +
                      "ORDER BY p.product_id";
 
@@ -71,6 +65,7 @@ public class ProductRepository {
                     int stock = rs.getInt("quantity_in_stock");
                     double retailPrice = rs.getObject("retail_price") == null ? 0.0 : rs.getDouble("retail_price");
                     double totalCost = costPrice * stock;
+                    Double markup = rs.getObject("markup_percent") != null ? rs.getDouble("markup_percent") : null;
 
                     products.add(new Product(
                         rs.getInt("product_id"),
@@ -79,43 +74,94 @@ public class ProductRepository {
                         costPrice,
                         retailPrice,
                         stock,
-                        totalCost
+                        totalCost,
+                        rs.getInt("quantity_damaged"),
+                        markup,
+                        rs.getDouble("effective_markup"),
+                        rs.getDouble("effective_retail_price")
+                    ));
+                    entries.add(new ProductCatalogCache.Entry(
+                        rs.getInt("product_id"), rs.getString("name"),
+                        rs.getInt("category_id"), rs.getString("category_name"),
+                        costPrice, retailPrice, markup
                     ));
                 }
             }
         }
+        catalog.replaceAll(entries);
         return products;
     }
 
-    // Get retail price for product
-    public double getProductRetailPrice(String productId) throws SQLException, NumberFormatException {
-        int prodId = Integer.parseInt(productId);
-
-        String sql = "SELECT retail_price FROM products WHERE product_id = ? AND user_id = ?";
+    /**
+     * Reloads this store's catalog cache from the database.
+     */
+    public void reloadCatalog() throws SQLException {
+        String sql = CATALOG_SELECT + "WHERE p.user_id = ?";
+        List<ProductCatalogCache.Entry> entries = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, this.userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) entries.add(readCatalogEntry(rs));
+            }
+        }
+        catalog.replaceAll(entries);
+    }
 
-            pstmt.setInt(1, prodId);
-            pstmt.setInt(2, this.userId);
+    private static final String CATALOG_SELECT =
+        "SELECT p.product_id, p.name, p.category_id, c.category_name, p.cost_price, p.retail_price, p.markup_percent " +
+        "FROM products p LEFT JOIN categories c ON p.category_id = c.category_id ";
+
+    // Catalog fields for one product: from the cache, or loaded and cached on a miss. Null if not found.
+    private ProductCatalogCache.Entry getCatalogEntry(int productId) throws SQLException {
+        ProductCatalogCache.Entry entry = catalog.get(productId);
+        if (entry != null) return entry;
 
+        String sql = CATALOG_SELECT + "WHERE p.product_id = ? AND p.user_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, productId);
+            pstmt.setInt(2, this.userId);
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    double retailPrice = rs.getDouble("retail_price");
-                    return rs.wasNull() ? 0.0 : retailPrice;
-                } else {
-                    return 0.0;
-                }
+                if (!rs.next()) return null;
+                entry = readCatalogEntry(rs);
             }
         }
+        catalog.put(entry);
+        return entry;
+    }
+
+    private ProductCatalogCache.Entry readCatalogEntry(ResultSet rs) throws SQLException {
+        Double markup = rs.getObject("markup_percent") != null ? rs.getDouble("markup_percent") : null;
+        double retail = rs.getDouble("retail_price"); // 0 when not set
+        return new ProductCatalogCache.Entry(
+            rs.getInt("product_id"), rs.getString("name"),
+            rs.getInt("category_id"), rs.getString("category_name"),
+            rs.getDouble("cost_price"), retail, markup
+        );
+    }
+
+    // Get retail price for product (0 when not set)
+    public double getProductRetailPrice(String productId) throws SQLException, NumberFormatException {
+        int prodId = Integer.parseInt(productId);
+
+        ProductCatalogCache.Entry entry = getCatalogEntry(prodId);
+        return entry != null ? entry.retailPrice() : 0.0;
     }
 
     /**
      * Gets the next available product ID for the current user.
      */
     public int getNextProductId() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return getNextProductId(conn);
+        }
+    }
+
+    // On the caller's connection, so products inserted earlier in its transaction are counted
+    private int getNextProductId(Connection conn) throws SQLException {
         String sql = "SELECT MAX(product_id) FROM products WHERE user_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, this.userId);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -134,10 +180,25 @@ public class ProductRepository {
      * Returns product_id if found, -1 if not found.
      * Used to check if a QR code product already exists.
      */
-    private int findProductByNameAndCategory(String name, int categoryId) throws SQLException {
+    private int findProductByNameAndCategory(Connection conn, String name, int categoryId) throws SQLException {
+        // The cache is per terminal, so another one may have renamed or deleted this product since
+        Integer cachedId = catalog.findId(name, categoryId);
+        if (cachedId != null) {
+            String confirmSql = "SELECT product_id FROM products WHERE product_id = ? AND user_id = ? AND name = ? AND category_id = ? FOR UPDATE";
+            try (PreparedStatement pstmt = conn.prepareStatement(confirmSql)) {
+                pstmt.setInt(1, cachedId);
+                pstmt.setInt(2, this.userId);
+                pstmt.setString(3, name);
+                pstmt.setInt(4, categoryId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) return cachedId;
+                }
+            }
+            catalog.remove(cachedId); // Stale; reloaded on next use
+        }
+
         String sql = "SELECT product_id FROM products WHERE name = ? AND category_id = ? AND user_id = ? LIMIT 1";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, name);
             pstmt.setInt(2, categoryId);
@@ -172,6 +233,12 @@ public class ProductRepository {
             
             pstmt.executeUpdate();
         }
+
+        ProductCatalogCache.Entry entry = catalog.get(productId);
+        if (entry != null) {
+            catalog.put(new ProductCatalogCache.Entry(entry.productId(), entry.name(), entry.categoryId(),
+                entry.categoryName(), entry.costPrice(), entry.retailPrice(), markupPercent));
+        }
     }
 
     /**
@@ -189,6 +256,12 @@ public class ProductRepository {
             
             pstmt.executeUpdate();
         }
+
+        ProductCatalogCache.Entry entry = catalog.get(productId);
+        if (entry != null) {
+            catalog.put(new ProductCatalogCache.Entry(entry.productId(), entry.name(), entry.categoryId(),
+                entry.categoryName(), entry.costPrice(), 0.0, entry.markupPercent()));
+        }
     }
 
     /**
@@ -196,21 +269,8 @@ public class ProductRepository {
      * Returns null if no specific markup is set.
      */
     public Double getProductMarkup(int productId) throws SQLException {
-        String sql = "SELECT markup_percent FROM products WHERE product_id = ? AND user_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, productId);
-            pstmt.setInt(2, this.userId);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    Object markup = rs.getObject("markup_percent");
-                    return markup != null ? rs.getDouble("markup_percent") : null;
-                }
-            }
-        }
-        return null;
+        ProductCatalogCache.Entry entry = getCatalogEntry(productId);
+        return entry != null ? entry.markupPercent() : null;
     }
 
     /**
@@ -223,21 +283,51 @@ public class ProductRepository {
             throw new IllegalArgumentException("JSON data cannot be null.");
         }
 
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            int productId = upsertProductFromQR(conn, data);
+            conn.commit();
+            catalog.remove(productId); // Reloaded on next lookup
+            return productId; // Return the actual product ID used (auto-generated or from QR) 
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try { conn.rollback(); } catch (SQLException ex) { 
+                    System.err.println("Rollback failed: " + ex.getMessage()); 
+                }
+            }
+            throw new SQLException("Error during QR database transaction: " + e.getMessage(), e);
+        } finally {
+             if (conn != null) {
+                 try { conn.setAutoCommit(true); conn.close(); } 
+                 catch (SQLException e) { /* Ignored */ }
+             }
+        }
+    }
+
+    // Stock-in from QR data on the caller's transaction; the caller commits and then calls forgetProduct
+    int upsertProductFromQR(Connection conn, JSONObject data) throws SQLException, JSONException {
         String name = data.getString("name");
         int categoryId = data.getInt("category_id");
         double costPrice = data.getDouble("cost_price");
         int stockToAdd = data.getInt("stock");
-        
+
+        if (costPrice < 0 || stockToAdd < 0) {
+             throw new IllegalArgumentException("Cost price and stock quantity from QR cannot be negative.");
+        }
+
         // Determine product ID: check for existing product with same name + category
         int productId;
         if (data.has("id")) {
             productId = data.getInt("id"); // Old QR codes with explicit ID
         } else {
             // New QR codes without ID - check if product already exists
-            productId = findProductByNameAndCategory(name, categoryId);
+            productId = findProductByNameAndCategory(conn, name, categoryId);
             if (productId == -1) {
                 // Product doesn't exist - auto-generate new ID
-                productId = getNextProductId();
+                productId = getNextProductId(conn);
             }
             // If productId > 0, it means product exists - will add to existing
         }
@@ -249,53 +339,39 @@ public class ProductRepository {
                            "quantity_in_stock = quantity_in_stock + VALUES(quantity_in_stock), category_id = VALUES(category_id)";
         String logSql = "INSERT INTO stock_log (product_id, quantity_changed, log_type, notes, user_id) VALUES (?, ?, 'STOCK-IN', 'From QR Scan', ?)";
 
-        if (costPrice < 0 || stockToAdd < 0) {
-             throw new IllegalArgumentException("Cost price and stock quantity from QR cannot be negative.");
+        int affectedRows;
+        try (PreparedStatement upsertPstmt = conn.prepareStatement(upsertSql)) {
+            upsertPstmt.setInt(1, productId);
+            upsertPstmt.setString(2, name);
+            upsertPstmt.setDouble(3, costPrice);
+            upsertPstmt.setInt(4, stockToAdd);
+            upsertPstmt.setInt(5, categoryId);
+            upsertPstmt.setInt(6, this.userId);
+            affectedRows = upsertPstmt.executeUpdate();
         }
 
-        Connection conn = null;
-        int affectedRows = 0;
-        try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
-
-            try (PreparedStatement upsertPstmt = conn.prepareStatement(upsertSql)) {
-                upsertPstmt.setInt(1, productId);
-                upsertPstmt.setString(2, name);
-                upsertPstmt.setDouble(3, costPrice);
-                upsertPstmt.setInt(4, stockToAdd);
-                upsertPstmt.setInt(5, categoryId);
-                upsertPstmt.setInt(6, this.userId);
-                affectedRows = upsertPstmt.executeUpdate();
-            }
-
-            if (affectedRows > 0) {
-                try (PreparedStatement logPstmt = conn.prepareStatement(logSql)) {
-                    logPstmt.setInt(1, productId);
-                    logPstmt.setInt(2, +stockToAdd);
-                    logPstmt.setInt(3, this.userId);
-                    logPstmt.executeUpdate();
-                }
-            } else {
-                throw new SQLException("Upsert operation affected 0 rows for product ID: " + productId);
+        if (affectedRows > 0) {
+            try (PreparedStatement logPstmt = conn.prepareStatement(logSql)) {
+                logPstmt.setInt(1, productId);
+                logPstmt.setInt(2, +stockToAdd);
+                logPstmt.setInt(3, this.userId);
+                logPstmt.executeUpdate();
             }
+            DailyStockRepository.recordMovement(conn, this.userId, productId, "STOCK-IN", stockToAdd);
+        } else {
+            throw new SQLException("Upsert operation affected 0 rows for product ID: " + productId);
+        }
+        return productId;
+    }
 
-            conn.commit();
-            return productId; // Return the actual product ID used (auto-generated or from QR) 
+    // Drop a product from the catalog cache after a write committed elsewhere
+    void forgetProduct(int productId) {
+        catalog.remove(productId);
+    }
 
-        } catch (SQLException e) {
-            if (conn != null) {
-                try { conn.rollback(); } catch (SQLException ex) { 
-                    System.err.println("Rollback failed: " + ex.getMessage()); 
-                }
-            }
-            throw new SQLException("Error during QR database transaction: " + e.getMessage(), e);
-        } finally {
-             if (conn != null) {
-                 try { conn.setAutoCommit(true); conn.close(); } 
-                 catch (SQLException e) { /* Ignored */ }
-             }
-        }
+    // Category name if it is already cached; never touches the database
+    public String getCachedCategoryName(int categoryId) {
+        return catalog.getCategoryName(categoryId);
     }
 
     /**
@@ -435,11 +511,21 @@ public class ProductRepository {
                         logPstmt.setInt(5, this.userId);
                         logPstmt.executeUpdate();
                     }
+                    DailyStockRepository.recordMovement(conn, this.userId, resultProductId, logType, quantityChange);
                 }
             }
 
             conn.commit();
 
+            // Write-through: every catalog field is known here except possibly the category name
+            String categoryName = catalog.getCategoryName(categoryId);
+            if (rowsAffected > 0 && categoryName != null) {
+                catalog.put(new ProductCatalogCache.Entry(resultProductId, name.trim(), categoryId, categoryName,
+                    costPrice, finalRetailPrice, markupPercent));
+            } else {
+                catalog.remove(resultProductId);
+            }
+
         } catch (SQLException e) {
             if (conn != null) {
                 try { conn.rollback(); } catch (SQLException ex) { 
@@ -457,125 +543,157 @@ public class ProductRepository {
     }
 
 
-    // ---HELPER METHOD ---
-    private void ensureSaleItemsCostColumn() throws SQLException {
-        String checkSql = "SHOW COLUMNS FROM sale_items LIKE 'cost_price'";
-        // Add column with default 0
-        String addSql = "ALTER TABLE sale_items ADD COLUMN cost_price DECIMAL(10, 2) NOT NULL DEFAULT 0.00 AFTER unit_price";
-        // Important: Backfill old records with current product cost so history isn't zero
-        String backfillSql = "UPDATE sale_items si JOIN products p ON si.product_id = p.product_id SET si.cost_price = p.cost_price WHERE si.cost_price = 0";
-
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            boolean exists = false;
-            try (PreparedStatement stmt = conn.prepareStatement(checkSql);
-                 ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) exists = true;
-            }
-            
-            if (!exists) {
-                try (PreparedStatement stmt = conn.prepareStatement(addSql)) {
-                    stmt.executeUpdate();
-                }
-                // Run backfill immediately after creating
-                try (PreparedStatement stmt = conn.prepareStatement(backfillSql)) {
-                    stmt.executeUpdate();
-                }
-            }
-        }
-    }
-
      /**
      * Processes a product sale, determining price from retail_price or markup.
      */
     public void sellProduct(String productId, int quantityToSell) throws SQLException, NumberFormatException {
         if (quantityToSell <= 0) throw new IllegalArgumentException("Positive quantity required.");
-        
-        // 1. Ensure the table has the new column before we try to write to it
-        ensureSaleItemsCostColumn();
 
         int prodId = Integer.parseInt(productId);
+        sellCart(List.of(new CartLine(prodId, quantityToSell)));
+    }
+
+    /**
+     * Sells a whole basket in one transaction and returns the new sale ID.
+     * Products are locked in ascending ID order so concurrent checkouts can't deadlock;
+     * one sales header is written and the item and log rows are batch-inserted.
+     */
+    public long sellCart(List<CartLine> lines) throws SQLException {
+        if (lines == null || lines.isEmpty()) throw new IllegalArgumentException("Basket is empty.");
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            long saleId = sellCart(conn, lines, null);
+            conn.commit();
+            return saleId;
+        } catch (SQLException e) {
+            if (conn != null) try { conn.rollback(); } catch (SQLException ex) {}
+            throw e;
+        } finally {
+            if (conn != null) try { conn.setAutoCommit(true); conn.close(); } catch (SQLException e) {}
+        }
+    }
 
-        String findSql = "SELECT quantity_in_stock, cost_price, retail_price, markup_percent FROM products WHERE product_id = ? AND user_id = ? FOR UPDATE";
+    // Sale on the caller's transaction, dated saleTime (or now when null); the caller commits
+    long sellCart(Connection conn, List<CartLine> lines, Timestamp saleTime) throws SQLException {
+        if (lines == null || lines.isEmpty()) throw new IllegalArgumentException("Basket is empty.");
+
+        // Merge repeated products; TreeMap keeps the lock order deterministic
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (CartLine line : lines) {
+            if (line.quantity() <= 0) throw new IllegalArgumentException("Positive quantity required.");
+            quantities.merge(line.productId(), line.quantity(), Integer::sum);
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(quantities.size(), "?"));
+        // The store default markup comes along on the same connection; the subquery takes no lock on users
+        String findSql = "SELECT product_id, name, quantity_in_stock, cost_price, retail_price, markup_percent, " +
+                         "COALESCE((SELECT u.default_markup_percent FROM users u WHERE u.user_id = ?), 0) AS default_markup " +
+                         "FROM products WHERE user_id = ? AND product_id IN (" + placeholders + ") " +
+                         "ORDER BY product_id FOR UPDATE";
         String updateSql = "UPDATE products SET quantity_in_stock = ? WHERE product_id = ? AND user_id = ?";
-        String salesSql = "INSERT INTO sales (sale_date, total_amount, user_id) VALUES (NOW(), ?, ?)";
+        String salesSql = "INSERT INTO sales (sale_date, total_amount, user_id) VALUES (COALESCE(?, NOW()), ?, ?)";
         
         // UPDATED SQL: Now inserts cost_price
         String itemsSql = "INSERT INTO sale_items (sale_id, product_id, quantity_sold, unit_price, cost_price, subtotal) VALUES (?, ?, ?, ?, ?, ?)";
         
-        String logSql = "INSERT INTO stock_log (product_id, quantity_changed, log_type, notes, user_id) VALUES (?, ?, 'SALE', ?, ?)";
+        // Logged at the sale time too, so a replayed sale's stock-out lands on the same day as the sale
+        String logSql = "INSERT INTO stock_log (product_id, quantity_changed, log_type, notes, user_id, log_date) VALUES (?, ?, 'SALE', ?, ?, COALESCE(?, NOW()))";
+
+        // Locked rows keyed by product ID: {stock, cost, price}
+        Map<Integer, double[]> locked = new TreeMap<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(findSql)) {
+            stmt.setInt(1, this.userId);
+            stmt.setInt(2, this.userId);
+            int index = 3;
+            for (int prodId : quantities.keySet()) {
+                stmt.setInt(index++, prodId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int prodId = rs.getInt("product_id");
+                    int currentStock = rs.getInt("quantity_in_stock");
+                    double cost = rs.getDouble("cost_price");
+                    Double markup = rs.getObject("markup_percent") != null ? rs.getDouble("markup_percent") : null;
 
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
-            
-            int currentStock;
-            double cost, retail;
-            Double markup;
-
-            try (PreparedStatement stmt = conn.prepareStatement(findSql)) {
-                stmt.setInt(1, prodId);
-                stmt.setInt(2, this.userId);
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (!rs.next()) throw new SQLException("Product not found.");
-                    currentStock = rs.getInt("quantity_in_stock");
-                    cost = rs.getDouble("cost_price");
-                    retail = rs.getDouble("retail_price");
-                    markup = rs.getObject("markup_percent") != null ? rs.getDouble("markup_percent") : null;
+                    if (currentStock < quantities.get(prodId)) {
+                        throw new SQLException("Insufficient stock for " + rs.getString("name") + ".");
+                    }
+
+                    double price = rs.getDouble("retail_price");
+                    if (price <= 0.0) {
+                        double m = (markup != null) ? markup : rs.getDouble("default_markup");
+                        price = cost * (1 + m / 100.0);
+                    }
+                    locked.put(prodId, new double[]{currentStock, cost, price});
                 }
             }
+        }
 
-            if (currentStock < quantityToSell) throw new SQLException("Insufficient stock.");
+        for (int prodId : quantities.keySet()) {
+            if (!locked.containsKey(prodId)) throw new SQLException("Product not found (ID: " + prodId + ").");
+        }
 
-            double price = retail;
-            if (price <= 0.0) {
-                double m = (markup != null) ? markup : new UserRepository().getDefaultMarkup(this.userId);
-                price = cost * (1 + m / 100.0);
-            }
+        double total = 0.0;
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            total += locked.get(entry.getKey())[2] * entry.getValue();
+        }
 
-            try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
-                stmt.setInt(1, currentStock - quantityToSell);
-                stmt.setInt(2, prodId);
+        try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                stmt.setInt(1, (int) locked.get(entry.getKey())[0] - entry.getValue());
+                stmt.setInt(2, entry.getKey());
                 stmt.setInt(3, this.userId);
-                stmt.executeUpdate();
-            }
-
-            long saleId;
-            double total = price * quantityToSell;
-            try (PreparedStatement stmt = conn.prepareStatement(salesSql, Statement.RETURN_GENERATED_KEYS)) {
-                stmt.setDouble(1, total);
-                stmt.setInt(2, this.userId);
-                stmt.executeUpdate();
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) saleId = rs.getLong(1);
-                    else throw new SQLException("No sale ID.");
-                }
+                stmt.addBatch();
             }
+            stmt.executeBatch();
+        }
 
-            try (PreparedStatement stmt = conn.prepareStatement(itemsSql)) {
-                stmt.setLong(1, saleId);
-                stmt.setInt(2, prodId);
-                stmt.setInt(3, quantityToSell);
-                stmt.setDouble(4, price);
-                stmt.setDouble(5, cost); // Save the HISTORICAL COST here
-                stmt.setDouble(6, total);
-                stmt.executeUpdate();
+        long saleId;
+        try (PreparedStatement stmt = conn.prepareStatement(salesSql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setTimestamp(1, saleTime);
+            stmt.setDouble(2, total);
+            stmt.setInt(3, this.userId);
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next()) saleId = rs.getLong(1);
+                else throw new SQLException("No sale ID.");
             }
+        }
 
-            try (PreparedStatement stmt = conn.prepareStatement(logSql)) {
-                stmt.setInt(1, prodId);
-                stmt.setInt(2, -quantityToSell);
-                stmt.setString(3, "Sale ID: " + saleId);
-                stmt.setInt(4, this.userId);
-                stmt.executeUpdate();
+        try (PreparedStatement itemStmt = conn.prepareStatement(itemsSql);
+             PreparedStatement logStmt = conn.prepareStatement(logSql)) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                int prodId = entry.getKey();
+                int qty = entry.getValue();
+                double cost = locked.get(prodId)[1];
+                double price = locked.get(prodId)[2];
+
+                itemStmt.setLong(1, saleId);
+                itemStmt.setInt(2, prodId);
+                itemStmt.setInt(3, qty);
+                itemStmt.setDouble(4, price);
+                itemStmt.setDouble(5, cost); // Save the HISTORICAL COST here
+                itemStmt.setDouble(6, price * qty);
+                itemStmt.addBatch();
+
+                logStmt.setInt(1, prodId);
+                logStmt.setInt(2, -qty);
+                logStmt.setString(3, "Sale ID: " + saleId);
+                logStmt.setInt(4, this.userId);
+                logStmt.setTimestamp(5, saleTime);
+                logStmt.addBatch();
             }
-            conn.commit();
-        } catch (SQLException e) {
-            if (conn != null) try { conn.rollback(); } catch (SQLException ex) {}
-            throw e;
-        } finally {
-            if (conn != null) try { conn.setAutoCommit(true); conn.close(); } catch (SQLException e) {}
+            itemStmt.executeBatch();
+            logStmt.executeBatch();
         }
+
+        DailySalesRepository.recordSale(conn, saleId);
+        DailyStockRepository.recordMovements(conn, this.userId, "SALE", quantities, saleTime);
+        return saleId;
     }
 
     /**
@@ -610,6 +728,7 @@ public class ProductRepository {
                 logStmt.setInt(4, this.userId); // Set user ID
                 logStmt.executeUpdate();
             }
+            DailyStockRepository.recordMovement(conn, this.userId, productId, "REMOVAL", quantityToRemove);
 
             conn.commit();
 
@@ -680,6 +799,7 @@ public class ProductRepository {
                 logStmt.setInt(4, this.userId);
                 logStmt.executeUpdate();
             }
+            DailyStockRepository.recordMovement(conn, this.userId, productId, "REJECT", quantityToReject);
 
             conn.commit();
 
@@ -734,6 +854,8 @@ public class ProductRepository {
                 logStmt.executeUpdate();
             }
 
+            DailySalesRepository.recordCustomerReturn(conn, this.userId, productId, quantityToReturn);
+            DailyStockRepository.recordMovement(conn, this.userId, productId, "CUSTOMER-RETURN", quantityToReturn);
             conn.commit();
 
         } catch (SQLException e) {
@@ -805,6 +927,8 @@ public class ProductRepository {
                 logStmt.executeUpdate();
             }
 
+            DailySalesRepository.recordRefund(conn, this.userId, productId, quantityToRefund);
+            DailyStockRepository.recordMovement(conn, this.userId, productId, "REFUND", quantityToRefund);
             conn.commit();
 
         } catch (SQLException e) {
@@ -824,68 +948,15 @@ public class ProductRepository {
      * Deletes a product and all related data (sale items, stock logs).
      */
     public boolean deleteProduct(int productId) throws SQLException {
-        // 1. Delete all associated sale items
-        String deleteSaleItemsSql = "DELETE FROM sale_items WHERE product_id = ? AND sale_id IN (SELECT sale_id FROM sales WHERE user_id = ?)";
-        
-        // 2. Update the total_amount in the sales table based on remaining items
-        String updateSalesTotalSql = 
-            "UPDATE sales s " +
-            "SET total_amount = ( " +
-            "    SELECT COALESCE(SUM(si.quantity_sold * si.unit_price), 0) " +
-            "    FROM sale_items si " +
-            "    WHERE si.sale_id = s.sale_id " +
-            ") " +
-            "WHERE s.user_id = ?";
-        
-        // 3. Delete sale records that now have no items (total_amount = 0)
-        String deleteEmptySalesSql = "DELETE FROM sales WHERE user_id = ? AND total_amount = 0";
-        
-        // 4. Delete associated stock logs
-        String deleteStockLogSql = "DELETE FROM stock_log WHERE product_id = ? AND user_id = ?";
-        
-        // 5. Delete the product itself
-        String deleteProductSql = "DELETE FROM products WHERE product_id = ? AND user_id = ?";
-
         Connection conn = null;
-        int productRowsAffected = 0;
         try {
             conn = DatabaseConnection.getConnection();
             conn.setAutoCommit(false); // Start transaction
 
-            // 1. Delete associated sale items
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteSaleItemsSql)) {
-                pstmt.setInt(1, productId);
-                pstmt.setInt(2, this.userId);
-                pstmt.executeUpdate();
-            }
-
-            // 2. Update sales totals based on remaining items
-            try (PreparedStatement pstmt = conn.prepareStatement(updateSalesTotalSql)) {
-                pstmt.setInt(1, this.userId);
-                pstmt.executeUpdate();
-            }
-            
-            // 3. Delete sales records that are now empty (total_amount = 0)
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteEmptySalesSql)) {
-                pstmt.setInt(1, this.userId);
-                pstmt.executeUpdate();
-            }
-
-            // 4. Delete associated stock logs
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteStockLogSql)) {
-                pstmt.setInt(1, productId);
-                pstmt.setInt(2, this.userId);
-                pstmt.executeUpdate();
-            }
-
-            // 5. Delete the product itself
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteProductSql)) {
-                pstmt.setInt(1, productId);
-                pstmt.setInt(2, this.userId);
-                productRowsAffected = pstmt.executeUpdate();
-            }
+            int productRowsAffected = deleteProductRows(conn, List.of(productId));
 
             conn.commit();
+            catalog.remove(productId);
             return productRowsAffected > 0;
 
         } catch (SQLException e) {
@@ -901,6 +972,417 @@ public class ProductRepository {
         }
     }
 
+    // --- Bulk operations: batched statements over chunks of the selection ---
+
+    // Upper bound on IN (...) list sizes
+    private static final int BULK_CHUNK_SIZE = 500;
+    // Products deleted per transaction; bounds how long sales rows stay locked
+    private static final int DELETE_CHUNK_SIZE = 50;
+
+    /**
+     * Sets the markup of many products and clears their fixed retail price so the markup applies.
+     * Returns one result per product, in input order; rejected rows do not stop the others.
+     */
+    public List<BulkResult> bulkSetMarkup(Map<Integer, Double> markups) throws SQLException {
+        List<BulkResult> results = new ArrayList<>(markups.size());
+        if (markups.isEmpty()) return results;
+
+        String sql = "UPDATE products SET markup_percent = ?, retail_price = 0 WHERE product_id = ? AND user_id = ?";
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            Map<Integer, Integer> stock = lockProducts(conn, markups.keySet());
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (Map.Entry<Integer, Double> entry : markups.entrySet()) {
+                    int productId = entry.getKey();
+                    double markup = entry.getValue();
+                    if (!stock.containsKey(productId)) {
+                        results.add(new BulkResult(productId, "Not found"));
+                    } else if (markup < 0) {
+                        results.add(new BulkResult(productId, "Negative markup"));
+                    } else {
+                        pstmt.setDouble(1, markup);
+                        pstmt.setInt(2, productId);
+                        pstmt.setInt(3, this.userId);
+                        pstmt.addBatch();
+                        results.add(new BulkResult(productId, null));
+                    }
+                }
+                pstmt.executeBatch();
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            if (conn != null) try { conn.rollback(); } catch (SQLException ex) { System.err.println("Rollback failed: " + ex.getMessage()); }
+            throw e;
+        } finally {
+            if (conn != null) try { conn.setAutoCommit(true); conn.close(); } catch (SQLException e) {}
+        }
+
+        for (BulkResult result : results) {
+            ProductCatalogCache.Entry entry = catalog.get(result.productId());
+            if (result.succeeded() && entry != null) {
+                catalog.put(new ProductCatalogCache.Entry(entry.productId(), entry.name(), entry.categoryId(),
+                    entry.categoryName(), entry.costPrice(), 0.0, markups.get(result.productId())));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Removes stock from many products. A row asking for more than the product has is rejected.
+     * Returns one result per line, in input order.
+     */
+    public List<BulkResult> bulkRemoveStock(List<StockAdjustment> lines) throws SQLException {
+        List<BulkResult> results = new ArrayList<>(lines.size());
+        if (lines.isEmpty()) return results;
+
+        String updateSql = "UPDATE products SET quantity_in_stock = quantity_in_stock - ? WHERE product_id = ? AND user_id = ?";
+        String logSql = "INSERT INTO stock_log (product_id, quantity_changed, log_type, notes, user_id) VALUES (?, ?, 'REMOVAL', ?, ?)";
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            Map<Integer, Integer> stock = lockProducts(conn, productIdsOf(lines));
+            Map<Integer, Integer> removed = new TreeMap<>();
+            try (PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                 PreparedStatement logStmt = conn.prepareStatement(logSql)) {
+                for (StockAdjustment line : lines) {
+                    String error = checkAdjustment(line, stock, true);
+                    results.add(new BulkResult(line.productId(), error));
+                    if (error != null) continue;
+                    stock.merge(line.productId(), -line.quantity(), Integer::sum); // Later lines see this removal
+
+                    updateStmt.setInt(1, line.quantity());
+                    updateStmt.setInt(2, line.productId());
+                    updateStmt.setInt(3, this.userId);
+                    updateStmt.addBatch();
+
+                    logStmt.setInt(1, line.productId());
+                    logStmt.setInt(2, -line.quantity());
+                    logStmt.setString(3, line.notes() != null && !line.notes().isEmpty() ? line.notes() : "Manual stock removal");
+                    logStmt.setInt(4, this.userId);
+                    logStmt.addBatch();
+                    removed.merge(line.productId(), line.quantity(), Integer::sum);
+                }
+                updateStmt.executeBatch();
+                logStmt.executeBatch();
+            }
+            DailyStockRepository.recordMovements(conn, this.userId, "REMOVAL", removed, null);
+
+            conn.commit();
+            return results;
+        } catch (SQLException e) {
+            if (conn != null) try { conn.rollback(); } catch (SQLException ex) { System.err.println("Rollback failed: " + ex.getMessage()); }
+            throw e;
+        } finally {
+            if (conn != null) try { conn.setAutoCommit(true); conn.close(); } catch (SQLException e) {}
+        }
+    }
+
+    /**
+     * Processes many returns with the same rules as processReturn: customer returns and
+     * refunds go back to sellable stock, rejects and disposals to damaged stock.
+     * Returns one result per line, in input order.
+     */
+    public List<BulkResult> bulkReturn(List<StockAdjustment> lines) throws SQLException {
+        List<BulkResult> results = new ArrayList<>(lines.size());
+        if (lines.isEmpty()) return results;
+
+        String updateStockSql = "UPDATE products SET quantity_in_stock = quantity_in_stock + ? WHERE product_id = ? AND user_id = ?";
+        String updateDamagedSql = "UPDATE products SET quantity_damaged = quantity_damaged + ? WHERE product_id = ? AND user_id = ?";
+        String logSql = "INSERT INTO stock_log (product_id, user_id, quantity_changed, log_type, notes, log_date) VALUES (?, ?, ?, ?, ?, NOW())";
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            Map<Integer, Integer> stock = lockProducts(conn, productIdsOf(lines));
+            Map<Integer, Integer> customerReturns = new TreeMap<>();
+            Map<Integer, Integer> refunds = new TreeMap<>();
+            Map<String, Map<Integer, Integer>> movements = new TreeMap<>(); // Log type -> product ID -> quantity
+            try (PreparedStatement stockStmt = conn.prepareStatement(updateStockSql);
+                 PreparedStatement damagedStmt = conn.prepareStatement(updateDamagedSql);
+                 PreparedStatement logStmt = conn.prepareStatement(logSql)) {
+                for (StockAdjustment line : lines) {
+                    String error = checkAdjustment(line, stock, false);
+                    String logType = line.type() != null ? line.type().toUpperCase() : "";
+                    boolean addBackToStock = logType.equals("CUSTOMER-RETURN") || logType.equals("REFUND");
+                    if (error == null && !addBackToStock && !logType.equals("REJECT") && !logType.equals("DISPOSE")) {
+                        error = "Invalid return reason: " + line.type();
+                    }
+                    results.add(new BulkResult(line.productId(), error));
+                    if (error != null) continue;
+
+                    PreparedStatement updateStmt = addBackToStock ? stockStmt : damagedStmt;
+                    updateStmt.setInt(1, line.quantity());
+                    updateStmt.setInt(2, line.productId());
+                    updateStmt.setInt(3, this.userId);
+                    updateStmt.addBatch();
+
+                    String notes = returnNotes(logType, line.notes());
+                    logStmt.setInt(1, line.productId());
+                    logStmt.setInt(2, this.userId);
+                    logStmt.setInt(3, line.quantity());
+                    logStmt.setString(4, logType);
+                    logStmt.setString(5, notes != null && !notes.trim().isEmpty() ? notes : null);
+                    logStmt.addBatch();
+
+                    if (logType.equals("CUSTOMER-RETURN")) customerReturns.merge(line.productId(), line.quantity(), Integer::sum);
+                    if (logType.equals("REFUND")) refunds.merge(line.productId(), line.quantity(), Integer::sum);
+                    movements.computeIfAbsent(logType, type -> new TreeMap<>()).merge(line.productId(), line.quantity(), Integer::sum);
+                }
+                stockStmt.executeBatch();
+                damagedStmt.executeBatch();
+                logStmt.executeBatch();
+            }
+
+            // Keep the daily rollup's return/refund counts in step
+            DailySalesRepository.recordCustomerReturns(conn, this.userId, customerReturns);
+            DailySalesRepository.recordRefunds(conn, this.userId, refunds);
+            for (Map.Entry<String, Map<Integer, Integer>> entry : movements.entrySet()) {
+                DailyStockRepository.recordMovements(conn, this.userId, entry.getKey(), entry.getValue(), null);
+            }
+
+            conn.commit();
+            return results;
+        } catch (SQLException e) {
+            if (conn != null) try { conn.rollback(); } catch (SQLException ex) { System.err.println("Rollback failed: " + ex.getMessage()); }
+            throw e;
+        } finally {
+            if (conn != null) try { conn.setAutoCommit(true); conn.close(); } catch (SQLException e) {}
+        }
+    }
+
+    /**
+     * Deletes many products and their sale items, stock logs and rollup rows.
+     * Products are deleted DELETE_CHUNK_SIZE at a time, each chunk in its own
+     * transaction, so checkout is never blocked for the whole selection. If a
+     * chunk fails, the chunks before it stay deleted and the error says how many.
+     * Returns one result per product, in input order.
+     */
+    public List<BulkResult> bulkDelete(List<Integer> productIds) throws SQLException {
+        List<BulkResult> results = new ArrayList<>(productIds.size());
+        if (productIds.isEmpty()) return results;
+
+        Set<Integer> deleted = new HashSet<>();
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            for (List<Integer> chunk : chunks(new ArrayList<>(new TreeSet<>(productIds)), DELETE_CHUNK_SIZE)) {
+                List<Integer> found = new ArrayList<>(lockProducts(conn, chunk).keySet());
+                deleteProductRows(conn, found);
+                conn.commit();
+                for (int productId : found) catalog.remove(productId);
+                deleted.addAll(found);
+            }
+        } catch (SQLException e) {
+            if (conn != null) try { conn.rollback(); } catch (SQLException ex) { System.err.println("Rollback failed: " + ex.getMessage()); }
+            if (deleted.isEmpty()) throw e;
+            throw new SQLException("Deleted " + deleted.size() + " product(s) before an error: " + e.getMessage(), e.getSQLState(), e);
+        } finally {
+            if (conn != null) try { conn.setAutoCommit(true); conn.close(); } catch (SQLException e) {}
+        }
+
+        Set<Integer> reported = new HashSet<>();
+        for (int productId : productIds) {
+            if (!reported.add(productId)) continue; // A repeated ID is reported once
+            results.add(new BulkResult(productId, deleted.contains(productId) ? null : "Not found"));
+        }
+        return results;
+    }
+
+    // Deletes the products and everything that references them on the caller's transaction.
+    // Only sales that contained them are touched: their items go, sales left empty are
+    // deleted, and the rest get their totals recomputed from what remains. Returns products deleted.
+    private int deleteProductRows(Connection conn, List<Integer> productIds) throws SQLException {
+        int deleted = 0;
+        for (List<Integer> chunk : chunks(productIds, BULK_CHUNK_SIZE)) {
+            String in = placeholders(chunk.size());
+
+            List<Long> saleIds = new ArrayList<>();
+            String affectedSql = "SELECT DISTINCT si.sale_id FROM sale_items si JOIN sales s ON s.sale_id = si.sale_id " +
+                                 "WHERE s.user_id = ? AND si.product_id IN (" + in + ")";
+            try (PreparedStatement pstmt = conn.prepareStatement(affectedSql)) {
+                pstmt.setInt(1, this.userId);
+                bindIds(pstmt, 2, chunk);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) saleIds.add(rs.getLong(1));
+                }
+            }
+
+            for (List<Long> sales : chunks(saleIds, BULK_CHUNK_SIZE)) {
+                String saleIn = placeholders(sales.size());
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "DELETE FROM sale_items WHERE sale_id IN (" + saleIn + ") AND product_id IN (" + in + ")")) {
+                    bindSaleIds(pstmt, 1, sales);
+                    bindIds(pstmt, sales.size() + 1, chunk);
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "DELETE FROM sales WHERE sale_id IN (" + saleIn + ") " +
+                        "AND NOT EXISTS (SELECT 1 FROM sale_items si WHERE si.sale_id = sales.sale_id)")) {
+                    bindSaleIds(pstmt, 1, sales);
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE sales s JOIN (" +
+                        "    SELECT sale_id, SUM(quantity_sold * unit_price) AS total FROM sale_items " +
+                        "    WHERE sale_id IN (" + saleIn + ") GROUP BY sale_id" +
+                        ") t ON s.sale_id = t.sale_id SET s.total_amount = t.total")) {
+                    bindSaleIds(pstmt, 1, sales);
+                    pstmt.executeUpdate();
+                }
+            }
+
+            executeForIds(conn, "DELETE FROM stock_log WHERE product_id IN (" + in + ") AND user_id = ?", chunk);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "DELETE FROM products WHERE product_id IN (" + in + ") AND user_id = ?")) {
+                bindIds(pstmt, 1, chunk);
+                pstmt.setInt(chunk.size() + 1, this.userId);
+                deleted += pstmt.executeUpdate();
+            }
+            DailySalesRepository.deleteProducts(conn, this.userId, chunk);
+            DailyStockRepository.deleteProducts(conn, this.userId, chunk);
+        }
+        return deleted;
+    }
+
+    // Locks the given products in ID order and returns their current stock; unknown IDs are absent
+    private Map<Integer, Integer> lockProducts(Connection conn, Collection<Integer> productIds) throws SQLException {
+        Map<Integer, Integer> stock = new HashMap<>();
+        for (List<Integer> chunk : chunks(new ArrayList<>(new TreeSet<>(productIds)), BULK_CHUNK_SIZE)) {
+            String sql = "SELECT product_id, quantity_in_stock FROM products " +
+                         "WHERE user_id = ? AND product_id IN (" + placeholders(chunk.size()) + ") ORDER BY product_id FOR UPDATE";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, this.userId);
+                bindIds(pstmt, 2, chunk);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) stock.put(rs.getInt("product_id"), rs.getInt("quantity_in_stock"));
+                }
+            }
+        }
+        return stock;
+    }
+
+    // Why a stock line cannot be applied, or null if it can
+    private static String checkAdjustment(StockAdjustment line, Map<Integer, Integer> stock, boolean removesStock) {
+        Integer current = stock.get(line.productId());
+        if (current == null) return "Not found";
+        if (line.quantity() <= 0) return "Quantity must be positive";
+        if (removesStock && line.quantity() > current) return "Insufficient stock";
+        return null;
+    }
+
+    // Same note suffixes as processReturn
+    private static String returnNotes(String logType, String notes) {
+        String prefix = notes != null && !notes.trim().isEmpty() ? notes + " - " : "";
+        switch (logType) {
+            case "CUSTOMER-RETURN": return prefix + "[Added back to sellable stock]";
+            case "REJECT": return prefix + "[Moved to damaged inventory - NOT FOR SALE]";
+            case "REFUND": return prefix + "[Returned to supplier]";
+            case "DISPOSE": return prefix + "[Disposed]";
+            default: return notes;
+        }
+    }
+
+    // Runs a statement whose parameters are the IDs followed by the user ID
+    private void executeForIds(Connection conn, String sql, List<Integer> ids) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bindIds(pstmt, 1, ids);
+            pstmt.setInt(ids.size() + 1, this.userId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static List<Integer> productIdsOf(List<StockAdjustment> lines) {
+        List<Integer> ids = new ArrayList<>(lines.size());
+        for (StockAdjustment line : lines) ids.add(line.productId());
+        return ids;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += size) {
+            chunks.add(items.subList(from, Math.min(items.size(), from + size)));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static void bindIds(PreparedStatement pstmt, int firstIndex, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) pstmt.setInt(firstIndex + i, ids.get(i));
+    }
+
+    private static void bindSaleIds(PreparedStatement pstmt, int firstIndex, List<Long> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) pstmt.setLong(firstIndex + i, ids.get(i));
+    }
+
+
+    // --- QR labels ---
+
+    private static final String LABEL_SELECT =
+        "SELECT p.product_id, p.name, p.category_id, c.category_name, p.cost_price, p.quantity_in_stock " +
+        "FROM products p JOIN categories c ON p.category_id = c.category_id " +
+        "WHERE p.user_id = ? ";
+
+    /**
+     * Label data for the given products, in product ID order. Unknown IDs are skipped.
+     */
+    public List<ProductLabel> getProductLabels(Collection<Integer> productIds) throws SQLException {
+        List<ProductLabel> labels = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (List<Integer> chunk : chunks(new ArrayList<>(new TreeSet<>(productIds)), BULK_CHUNK_SIZE)) {
+                String sql = LABEL_SELECT + "AND p.product_id IN (" + placeholders(chunk.size()) + ") ORDER BY p.product_id";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, this.userId);
+                    bindIds(pstmt, 2, chunk);
+                    readLabels(pstmt, labels);
+                }
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Label data for every product in a category, in product ID order.
+     */
+    public List<ProductLabel> getCategoryLabels(int categoryId) throws SQLException {
+        List<ProductLabel> labels = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(LABEL_SELECT + "AND p.category_id = ? ORDER BY p.product_id")) {
+            pstmt.setInt(1, this.userId);
+            pstmt.setInt(2, categoryId);
+            readLabels(pstmt, labels);
+        }
+        return labels;
+    }
+
+    private static void readLabels(PreparedStatement pstmt, List<ProductLabel> labels) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                labels.add(new ProductLabel(
+                    rs.getInt("product_id"),
+                    rs.getString("name"),
+                    rs.getInt("category_id"),
+                    rs.getString("category_name"),
+                    rs.getDouble("cost_price"),
+                    rs.getInt("quantity_in_stock")
+                ));
+            }
+        }
+    }
 
     /**
      * Fetches all categories for the current user.
@@ -941,49 +1423,6 @@ public class ProductRepository {
         }
     }
 
-    /**
-     * Deletes all products, sale items, and stock logs for the current user.
-     * Called during store deletion.
-     */
-    public void deleteAllProductsForUser(Connection conn) throws SQLException {
-        List<Integer> productIds = new ArrayList<>();
-        String selectSql = "SELECT product_id FROM products WHERE user_id = ?";
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
-            pstmt.setInt(1, this.userId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) productIds.add(rs.getInt("product_id"));
-            }
-        }
-
-        if (productIds.isEmpty()) return;
-
-        StringBuilder inClause = new StringBuilder("(");
-        for (int i = 0; i < productIds.size(); i++) {
-            inClause.append("?");
-            if (i < productIds.size() - 1) inClause.append(",");
-        }
-        inClause.append(")");
-
-        String delItems = "DELETE FROM sale_items WHERE product_id IN " + inClause;
-        String delLogs = "DELETE FROM stock_log WHERE product_id IN " + inClause;
-        String delProds = "DELETE FROM products WHERE product_id IN " + inClause + " AND user_id = ?";
-
-        try (PreparedStatement pstmt = conn.prepareStatement(delItems)) {
-            for (int i = 0; i < productIds.size(); i++) pstmt.setInt(i + 1, productIds.get(i));
-            pstmt.executeUpdate();
-        }
-        try (PreparedStatement pstmt = conn.prepareStatement(delLogs)) {
-            for (int i = 0; i < productIds.size(); i++) pstmt.setInt(i + 1, productIds.get(i));
-            pstmt.executeUpdate();
-        }
-        try (PreparedStatement pstmt = conn.prepareStatement(delProds)) {
-            for (int i = 0; i < productIds.size(); i++) pstmt.setInt(i + 1, productIds.get(i));
-            pstmt.setInt(productIds.size() + 1, this.userId);
-            pstmt.executeUpdate();
-        }
-    }
-
     // Process product return (customer return, reject, refund, dispose)
     public void processReturn(int productId, int quantity, String reason, String notes) throws SQLException {
         
@@ -1059,6 +1498,14 @@ public class ProductRepository {
                 pstmt.executeUpdate();
             }
 
+            // Keep the daily rollup's return/refund counts in step
+            if (logType.equals("CUSTOMER-RETURN")) {
+                DailySalesRepository.recordCustomerReturn(conn, this.userId, productId, quantity);
+            } else if (logType.equals("REFUND")) {
+                DailySalesRepository.recordRefund(conn, this.userId, productId, quantity);
+            }
+            DailyStockRepository.recordMovement(conn, this.userId, productId, logType, quantity);
+
             conn.commit();
         } catch (SQLException e) {
             if (conn != null) {
@@ -1078,6 +1525,9 @@ public class ProductRepository {
      * Returns "Unknown Category" if not found for this user.
      */
     public String getCategoryNameById(int categoryId) throws SQLException {
+        String cached = catalog.getCategoryName(categoryId);
+        if (cached != null) return cached;
+
         String sql = "SELECT category_name FROM categories WHERE category_id = ? AND user_id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
@@ -1088,7 +1538,9 @@ public class ProductRepository {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getString("category_name");
+                    String categoryName = rs.getString("category_name");
+                    catalog.putCategory(categoryId, categoryName);
+                    return categoryName;
                 }
             }
         }
@@ -1100,21 +1552,7 @@ public class ProductRepository {
      * Used to ensure the dialog shows the correct category after auto-creation.
      */
     public String getProductCategoryName(int productId) throws SQLException {
-        String sql = "SELECT c.category_name FROM products p " +
-                     "JOIN categories c ON p.category_id = c.category_id " +
-                     "WHERE p.product_id = ? AND p.user_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, productId);
-            pstmt.setInt(2, this.userId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString("category_name");
-                }
-            }
-        }
-        return "Unknown";
+        ProductCatalogCache.Entry entry = getCatalogEntry(productId);
+        return entry != null && entry.categoryName() != null ? entry.categoryName() : "Unknown";
     }
-}
-
-
+}
\ No newline at end of file
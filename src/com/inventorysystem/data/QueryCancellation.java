@@ -0,0 +1,68 @@
+package com.inventorysystem.data;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cancellation scope for one background repository task. While a task runs
+ * inside a scope, every statement created on a pooled connection borrowed by
+ * that thread is registered here, so cancel() can abort the query that is
+ * running on the server instead of waiting for it to finish.
+ */
+final class QueryCancellation {
+
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    private final List<Statement> statements = new ArrayList<>(); // Guarded by this
+    private boolean cancelled = false; // Guarded by this
+
+    // Scope of the task running on this thread, or null outside AsyncRepository
+    static QueryCancellation current() {
+        return CURRENT.get();
+    }
+
+    // Make this the active scope of the current thread
+    void enter() {
+        CURRENT.set(this);
+    }
+
+    // Leave the scope once the task is done; its statements are closed by then
+    void exit() {
+        CURRENT.remove();
+        synchronized (this) {
+            statements.clear();
+        }
+    }
+
+    // Track a new statement; fails fast if the task was already cancelled
+    synchronized void register(Statement statement) throws SQLException {
+        if (cancelled) {
+            statement.close();
+            throw new SQLException("Query was cancelled.", "70100");
+        }
+        statements.add(statement);
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Abort whatever statement is executing; later statements in the task fail immediately
+    void cancel() {
+        List<Statement> running;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            running = new ArrayList<>(statements);
+        }
+        for (Statement statement : running) {
+            try {
+                statement.cancel(); // No-op for statements that already finished
+            } catch (SQLException e) {
+                System.err.println("Failed to cancel query: " + e.getMessage());
+            }
+        }
+    }
+}
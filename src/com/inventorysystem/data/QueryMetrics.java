@@ -0,0 +1,136 @@
+package com.inventorysystem.data;
+
+import com.inventorysystem.util.Metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Feeds Metrics from the data layer. Statements handed out by the pool are
+ * wrapped so every execute is timed under its SQL text, and AsyncRepository
+ * times each call under the repository method that ran it ("repo
+ * ProductRepository.getAllProducts"). The method is found once per call, from
+ * the stack, when the call prepares its first statement.
+ */
+final class QueryMetrics {
+
+    private static final String PACKAGE = QueryMetrics.class.getPackageName() + ".";
+    private static final int MAX_SQL_LENGTH = 160;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // "?, ?, ?" from IN lists of any length, so each list size is not its own statement
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    // Metric names by SQL text, so the same statement is only normalized once; once full, new SQL is named uncached
+    private static final int MAX_CACHED_NAMES = 512;
+    private static final Map<String, String> CACHED_NAMES = new ConcurrentHashMap<>();
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    // Repository method of the AsyncRepository call running on this thread; [0] is null until known
+    private static final ThreadLocal<String[]> CURRENT_CALL = new ThreadLocal<>();
+
+    private QueryMetrics() {}
+
+    // Start naming a repository call; pass the result to endCall
+    static String[] beginCall() {
+        String[] previous = CURRENT_CALL.get();
+        CURRENT_CALL.set(new String[1]);
+        return previous;
+    }
+
+    // The method the call turned out to run, or null if it never touched the database
+    static String endCall(String[] previous) {
+        String name = CURRENT_CALL.get()[0];
+        if (previous == null) CURRENT_CALL.remove();
+        else CURRENT_CALL.set(previous);
+        return name;
+    }
+
+    // Wraps a statement from the pool so its executes are timed
+    static Statement timed(Statement statement, Class<?> type, String sql) {
+        noteCaller();
+        Metrics.increment("db.statements.prepared");
+        return (Statement) Proxy.newProxyInstance(
+            Statement.class.getClassLoader(),
+            new Class<?>[]{type},
+            new TimedStatementHandler(statement, sql));
+    }
+
+    // Outermost repository frame on the stack, recorded once per call
+    private static void noteCaller() {
+        String[] call = CURRENT_CALL.get();
+        if (call == null || call[0] != null) return;
+        Optional<StackWalker.StackFrame> frame = WALKER.walk(frames -> frames
+            .filter(f -> f.getClassName().startsWith(PACKAGE) && f.getClassName().endsWith("Repository")
+                         && !f.getClassName().equals(AsyncRepository.class.getName()))
+            .reduce((inner, outer) -> outer));
+        frame.ifPresent(f -> call[0] = f.getClassName().substring(PACKAGE.length()) + "." + f.getMethodName());
+    }
+
+    static String statementName(String sql) {
+        if (sql == null) return "sql (unknown)";
+        String text = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        text = PLACEHOLDER_LIST.matcher(text).replaceAll("?..");
+        if (text.length() > MAX_SQL_LENGTH) text = text.substring(0, MAX_SQL_LENGTH) + "...";
+        return "sql " + text;
+    }
+
+    private static String cachedStatementName(String sql) {
+        if (sql == null) return statementName(null);
+        String name = CACHED_NAMES.get(sql);
+        if (name == null) {
+            name = statementName(sql);
+            if (CACHED_NAMES.size() < MAX_CACHED_NAMES) CACHED_NAMES.put(sql, name);
+        }
+        return name;
+    }
+
+    private static final class TimedStatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String name; // Named once for prepared statements; null for plain ones, whose SQL comes with each execute
+
+        TimedStatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.name = sql != null ? cachedStatementName(sql) : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (!method.getName().startsWith("execute")) {
+                return invokeOnStatement(method, args);
+            }
+
+            long started = System.nanoTime();
+            try {
+                return invokeOnStatement(method, args);
+            } finally {
+                String metric = name != null ? name
+                    : cachedStatementName(args != null && args.length > 0 && args[0] instanceof String s ? s : null);
+                Metrics.record(metric, System.nanoTime() - started);
+            }
+        }
+
+        private Object invokeOnStatement(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
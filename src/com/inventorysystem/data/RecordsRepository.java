@@ -1,5 +1,6 @@
 package com.inventorysystem.data;
 
+import com.inventorysystem.model.TransactionPage;
 import com.inventorysystem.model.TransactionRecord;
 
 import java.sql.Connection;
@@ -8,10 +9,22 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 // Transaction history (sales and stock movements)
 public class RecordsRepository {
 
+    // Source ordering inside one timestamp: stock log rows sort before sales (newest first)
+    public static final int SOURCE_SALE = 0;
+    public static final int SOURCE_STOCK_LOG = 1;
+
+    private static final String HISTORY_LOG_TYPES =
+        "('STOCK-IN', 'REMOVAL', 'REJECT', 'REFUND', 'CUSTOMER-RETURN', 'DISPOSE', 'SALE', 'Manual product added', 'Manual stock update')";
+
+    // Row id column per table, looked up once from the schema
+    private static final Map<String, String> ROW_ID_COLUMNS = new ConcurrentHashMap<>();
+
     // Get all transaction records for user
     public List<TransactionRecord> getTransactionHistory(int userId) throws SQLException {
         List<TransactionRecord> history = new ArrayList<>();
@@ -23,7 +36,7 @@ public class RecordsRepository {
         String sql =
             "(SELECT s.sale_date AS transaction_date, p.name AS product_name, 'STOCK-OUT' AS transaction_type, " +
             "-si.quantity_sold AS quantity, si.unit_price AS unitPrice, p.retail_price AS retailPrice, " +
-            "p.cost_price AS costPrice, s.total_amount AS total " +
+            "p.cost_price AS costPrice, si.subtotal AS total " +
             "FROM sales s " +
             "JOIN sale_items si ON s.sale_id = si.sale_id " +
             "JOIN products p ON si.product_id = p.product_id AND s.user_id = p.user_id " +
@@ -73,68 +86,210 @@ public class RecordsRepository {
     }
 
     /**
-     * Fetches transaction history with date range filtering.
+     * Counts transactions in [startDate, endDate) matching the search text, without loading them.
      */
-    public List<TransactionRecord> getTransactionHistoryWithDateRange(int userId, java.sql.Date startDate, java.sql.Date endDate) throws SQLException {
-        List<TransactionRecord> history = new ArrayList<>();
-
-        UserRepository userRepo = new UserRepository();
-        double markupPercent = userRepo.getDefaultMarkup(userId);
-
+    public int countTransactions(int userId, java.sql.Timestamp startDate, java.sql.Timestamp endDate, String search) throws SQLException {
+        boolean filtered = search != null && !search.trim().isEmpty();
         String sql =
-            "(SELECT s.sale_date AS transaction_date, p.name AS product_name, 'STOCK-OUT' AS transaction_type, " +
-            "-si.quantity_sold AS quantity, si.unit_price AS unitPrice, p.retail_price AS retailPrice, " +
-            "p.cost_price AS costPrice, s.total_amount AS total " +
-            "FROM sales s " +
-            "JOIN sale_items si ON s.sale_id = si.sale_id " +
-            "JOIN products p ON si.product_id = p.product_id AND s.user_id = p.user_id " +
-            "WHERE s.user_id = ? AND s.sale_date BETWEEN ? AND ?) " +
-            
-            "UNION ALL " +
-
-            "(SELECT sl.log_date AS transaction_date, p.name AS product_name, sl.log_type AS transaction_type, " +
-            "sl.quantity_changed AS quantity, p.cost_price AS unitPrice, p.retail_price AS retailPrice, " +
-            "p.cost_price AS costPrice, (p.cost_price * sl.quantity_changed) AS total " +
-            "FROM stock_log sl " +
-            "JOIN products p ON sl.product_id = p.product_id AND sl.user_id = p.user_id " +
-            "WHERE sl.user_id = ? AND sl.log_date BETWEEN ? AND ? " +
-            "AND sl.log_type IN ('STOCK-IN', 'REMOVAL', 'REJECT', 'REFUND', 'CUSTOMER-RETURN', 'DISPOSE', 'SALE', 'Manual product added', 'Manual stock update')) " +
-            
-            "ORDER BY transaction_date DESC";
+            "SELECT " +
+            "(SELECT COUNT(*) FROM sales s " +
+            " JOIN sale_items si ON s.sale_id = si.sale_id " +
+            " JOIN products p ON si.product_id = p.product_id AND s.user_id = p.user_id " +
+            " WHERE s.user_id = ? AND s.sale_date >= ? AND s.sale_date < ?" +
+            (filtered ? " AND (p.name LIKE ? OR 'STOCK-OUT' LIKE ?)" : "") + ") + " +
+            "(SELECT COUNT(*) FROM stock_log sl " +
+            " JOIN products p ON sl.product_id = p.product_id AND sl.user_id = p.user_id " +
+            " WHERE sl.user_id = ? AND sl.log_date >= ? AND sl.log_date < ? AND sl.log_type IN " + HISTORY_LOG_TYPES +
+            (filtered ? " AND (p.name LIKE ? OR sl.log_type LIKE ?)" : "") + ")";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            String pattern = filtered ? "%" + search.trim() + "%" : null;
+            int i = 1;
+            for (int branch = 0; branch < 2; branch++) {
+                pstmt.setInt(i++, userId);
+                pstmt.setTimestamp(i++, startDate);
+                pstmt.setTimestamp(i++, endDate);
+                if (filtered) {
+                    pstmt.setString(i++, pattern);
+                    pstmt.setString(i++, pattern);
+                }
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
 
-            pstmt.setInt(1, userId);
-            pstmt.setDate(2, startDate);
-            pstmt.setDate(3, endDate);
-            pstmt.setInt(4, userId);
-            pstmt.setDate(5, startDate);
-            pstmt.setDate(6, endDate);
+    /**
+     * Fetches one page of transaction history in [startDate, endDate), newest first.
+     * Pages are keyed on (transaction date, source, row id): pass null for the first page,
+     * then the previous page's nextKey. Each branch only reads up to pageSize rows.
+     */
+    public TransactionPage getTransactionPage(int userId, java.sql.Timestamp startDate, java.sql.Timestamp endDate,
+                                              String search, TransactionPage.Key after, int pageSize) throws SQLException {
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be positive.");
+        boolean filtered = search != null && !search.trim().isEmpty();
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    double retailPrice = rs.getDouble("retailPrice");
-                    double costPrice = rs.getDouble("costPrice");
-                    
-                    // Calculate retail price using markup if not set
-                    if (retailPrice <= 0.0 && costPrice > 0.0) {
-                        retailPrice = costPrice * (1 + markupPercent / 100.0);
-                        retailPrice = Math.round(retailPrice * 100.0) / 100.0;
+        // First page starts just before the (exclusive) end of the range
+        TransactionPage.Key key = after != null ? after : new TransactionPage.Key(endDate, SOURCE_SALE, Long.MIN_VALUE);
+
+        List<TransactionRecord> rows = new ArrayList<>();
+        TransactionPage.Key lastKey = null;
+        // Looked up before borrowing this method's connection, so it never holds two
+        double markupPercent = new UserRepository().getDefaultMarkup(userId);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            String saleId = "si." + rowIdColumn(conn, "sale_items");
+            String logId = "sl." + rowIdColumn(conn, "stock_log");
+
+            String sql =
+                "(SELECT s.sale_date AS transaction_date, " + SOURCE_SALE + " AS source, " + saleId + " AS row_id, " +
+                "p.name AS product_name, 'STOCK-OUT' AS transaction_type, " +
+                "-si.quantity_sold AS quantity, si.unit_price AS unitPrice, p.retail_price AS retailPrice, " +
+                "p.cost_price AS costPrice, si.subtotal AS total " +
+                "FROM sales s " +
+                "JOIN sale_items si ON s.sale_id = si.sale_id " +
+                "JOIN products p ON si.product_id = p.product_id AND s.user_id = p.user_id " +
+                "WHERE s.user_id = ? AND s.sale_date >= ? AND s.sale_date < ? " +
+                "AND (s.sale_date < ? OR (s.sale_date = ? AND " + saleId + " < ?)) " +
+                (filtered ? "AND (p.name LIKE ? OR 'STOCK-OUT' LIKE ?) " : "") +
+                "ORDER BY s.sale_date DESC, " + saleId + " DESC LIMIT ?) " +
+
+                "UNION ALL " +
+
+                "(SELECT sl.log_date AS transaction_date, " + SOURCE_STOCK_LOG + " AS source, " + logId + " AS row_id, " +
+                "p.name AS product_name, sl.log_type AS transaction_type, " +
+                "sl.quantity_changed AS quantity, p.cost_price AS unitPrice, p.retail_price AS retailPrice, " +
+                "p.cost_price AS costPrice, (p.cost_price * sl.quantity_changed) AS total " +
+                "FROM stock_log sl " +
+                "JOIN products p ON sl.product_id = p.product_id AND sl.user_id = p.user_id " +
+                "WHERE sl.user_id = ? AND sl.log_date >= ? AND sl.log_date < ? " +
+                "AND (sl.log_date < ? OR (sl.log_date = ? AND " + logId + " < ?)) " +
+                "AND sl.log_type IN " + HISTORY_LOG_TYPES + " " +
+                (filtered ? "AND (p.name LIKE ? OR sl.log_type LIKE ?) " : "") +
+                "ORDER BY sl.log_date DESC, " + logId + " DESC LIMIT ?) " +
+
+                "ORDER BY transaction_date DESC, source DESC, row_id DESC LIMIT ?";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int i = bindBranches(pstmt, userId, startDate, endDate, search, key, pageSize);
+                pstmt.setInt(i, pageSize);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        double retailPrice = rs.getDouble("retailPrice");
+                        double costPrice = rs.getDouble("costPrice");
+
+                        // Calculate retail price using markup if not set
+                        if (retailPrice <= 0.0 && costPrice > 0.0) {
+                            retailPrice = costPrice * (1 + markupPercent / 100.0);
+                            retailPrice = Math.round(retailPrice * 100.0) / 100.0;
+                        }
+
+                        java.sql.Timestamp date = rs.getTimestamp("transaction_date");
+                        rows.add(new TransactionRecord(
+                            date,
+                            rs.getString("product_name"),
+                            rs.getString("transaction_type"),
+                            rs.getInt("quantity"),
+                            rs.getDouble("unitPrice"),
+                            retailPrice,
+                            rs.getDouble("total")
+                        ));
+                        lastKey = new TransactionPage.Key(date, rs.getInt("source"), rs.getLong("row_id"));
                     }
-                    
-                    history.add(new TransactionRecord(
-                        rs.getTimestamp("transaction_date"),
-                        rs.getString("product_name"),
-                        rs.getString("transaction_type"),
-                        rs.getInt("quantity"), 
-                        rs.getDouble("unitPrice"),
-                        retailPrice,
-                        rs.getDouble("total")
-                    ));
                 }
             }
         }
-        return history;
+        return new TransactionPage(rows, rows.size() < pageSize ? null : lastKey);
+    }
+
+    /**
+     * Key of the row count rows past after (null = from the start), in the same order and
+     * with the same filter as getTransactionPage, or null if the history ends sooner.
+     * Lets a far jump seek straight to a page's key instead of reading every page before it.
+     */
+    public TransactionPage.Key skipTransactions(int userId, java.sql.Timestamp startDate, java.sql.Timestamp endDate,
+                                                String search, TransactionPage.Key after, int count) throws SQLException {
+        if (count <= 0) throw new IllegalArgumentException("Row count must be positive.");
+        boolean filtered = search != null && !search.trim().isEmpty();
+        TransactionPage.Key key = after != null ? after : new TransactionPage.Key(endDate, SOURCE_SALE, Long.MIN_VALUE);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            String saleId = "si." + rowIdColumn(conn, "sale_items");
+            String logId = "sl." + rowIdColumn(conn, "stock_log");
+
+            // Key columns only; each branch still stops after count rows
+            String sql =
+                "(SELECT s.sale_date AS transaction_date, " + SOURCE_SALE + " AS source, " + saleId + " AS row_id " +
+                "FROM sales s " +
+                "JOIN sale_items si ON s.sale_id = si.sale_id " +
+                "JOIN products p ON si.product_id = p.product_id AND s.user_id = p.user_id " +
+                "WHERE s.user_id = ? AND s.sale_date >= ? AND s.sale_date < ? " +
+                "AND (s.sale_date < ? OR (s.sale_date = ? AND " + saleId + " < ?)) " +
+                (filtered ? "AND (p.name LIKE ? OR 'STOCK-OUT' LIKE ?) " : "") +
+                "ORDER BY s.sale_date DESC, " + saleId + " DESC LIMIT ?) " +
+
+                "UNION ALL " +
+
+                "(SELECT sl.log_date AS transaction_date, " + SOURCE_STOCK_LOG + " AS source, " + logId + " AS row_id " +
+                "FROM stock_log sl " +
+                "JOIN products p ON sl.product_id = p.product_id AND sl.user_id = p.user_id " +
+                "WHERE sl.user_id = ? AND sl.log_date >= ? AND sl.log_date < ? " +
+                "AND (sl.log_date < ? OR (sl.log_date = ? AND " + logId + " < ?)) " +
+                "AND sl.log_type IN " + HISTORY_LOG_TYPES + " " +
+                (filtered ? "AND (p.name LIKE ? OR sl.log_type LIKE ?) " : "") +
+                "ORDER BY sl.log_date DESC, " + logId + " DESC LIMIT ?) " +
+
+                "ORDER BY transaction_date DESC, source DESC, row_id DESC LIMIT 1 OFFSET ?";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int i = bindBranches(pstmt, userId, startDate, endDate, search, key, count);
+                pstmt.setInt(i, count - 1);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) return null;
+                    return new TransactionPage.Key(rs.getTimestamp("transaction_date"), rs.getInt("source"), rs.getLong("row_id"));
+                }
+            }
+        }
+    }
+
+    // Binds the sale branch, then the stock log branch, of a keyed history query; returns the next index
+    private static int bindBranches(PreparedStatement pstmt, int userId, java.sql.Timestamp startDate, java.sql.Timestamp endDate,
+                                    String search, TransactionPage.Key key, int limit) throws SQLException {
+        boolean filtered = search != null && !search.trim().isEmpty();
+        String pattern = filtered ? "%" + search.trim() + "%" : null;
+        // Within one timestamp stock log rows come before sales, so a bound is "all" or "none" for the other source
+        long saleIdBound = key.source() == SOURCE_STOCK_LOG ? Long.MAX_VALUE : key.rowId();
+        long logIdBound = key.source() == SOURCE_SALE ? Long.MIN_VALUE : key.rowId();
+        int i = 1;
+        for (long idBound : new long[]{saleIdBound, logIdBound}) {
+            pstmt.setInt(i++, userId);
+            pstmt.setTimestamp(i++, startDate);
+            pstmt.setTimestamp(i++, endDate);
+            pstmt.setTimestamp(i++, key.transactionDate());
+            pstmt.setTimestamp(i++, key.transactionDate());
+            pstmt.setLong(i++, idBound);
+            if (filtered) {
+                pstmt.setString(i++, pattern);
+                pstmt.setString(i++, pattern);
+            }
+            pstmt.setInt(i++, limit);
+        }
+        return i;
+    }
+
+    // Unique row id column used as the paging tie-breaker (see schema migration 4)
+    private static String rowIdColumn(Connection conn, String table) throws SQLException {
+        String column = ROW_ID_COLUMNS.get(table);
+        if (column == null) {
+            column = SchemaMigrator.findAutoIncrementColumn(conn, table);
+            if (column == null) {
+                throw new SQLException("Table " + table + " has no row id column; schema migrations have not run.");
+            }
+            ROW_ID_COLUMNS.put(table, column);
+        }
+        return column;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,275 @@
+package com.inventorysystem.data;
+
+import com.inventorysystem.util.AppExecutors;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Append-only local journal of scan-driven writes, one file per store.
+ * A scan is durable once its line is on disk; ScanReplayer then applies it
+ * to the database. Lines are JSON: scan entries, and "applied" or "failed"
+ * markers for finished ones. Writes queued while an fsync is in progress are
+ * written and synced together, so a burst of scans costs one fsync.
+ */
+public final class ScanJournal {
+
+    public enum Operation { STOCK_IN, SALE }
+
+    /**
+     * One journaled scan. STOCK_IN carries the QR data; SALE carries a product and quantity.
+     */
+    public record Entry(String key, Operation operation, long createdAt,
+                        JSONObject data, int productId, int quantity) {
+
+        public static Entry stockIn(JSONObject data) throws JSONException {
+            // Fail now, at the counter, rather than during replay
+            data.getString("name");
+            data.getInt("category_id");
+            if (data.getDouble("cost_price") < 0 || data.getInt("stock") < 0) {
+                throw new IllegalArgumentException("Cost price and stock quantity from QR cannot be negative.");
+            }
+            return new Entry(UUID.randomUUID().toString(), Operation.STOCK_IN, System.currentTimeMillis(), data, 0, 0);
+        }
+
+        public static Entry sale(int productId, int quantity) {
+            if (quantity <= 0) throw new IllegalArgumentException("Positive quantity required.");
+            return new Entry(UUID.randomUUID().toString(), Operation.SALE, System.currentTimeMillis(), null, productId, quantity);
+        }
+    }
+
+    // Once everything is replayed, a file larger than this is emptied
+    private static final long COMPACT_BYTES = 1024 * 1024;
+
+    private static final Map<Integer, ScanJournal> JOURNALS = new ConcurrentHashMap<>();
+
+    private record PendingWrite(String line, Runnable onDurable, CompletableFuture<Void> future) {}
+
+    private final Path file;
+    private final FileChannel channel;
+    // Durable entries not yet applied or failed, oldest first
+    private final Map<String, Entry> pending = new LinkedHashMap<>(); // Guarded by this
+    private final List<PendingWrite> queued = new ArrayList<>(); // Guarded by this
+    private boolean flushing = false; // Guarded by this
+    private volatile Runnable pendingListener = () -> {};
+
+    private ScanJournal(Path file) throws IOException {
+        this.file = file;
+        load();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // The journal of one store, opened on first use
+    static ScanJournal forUser(int userId) throws IOException {
+        ScanJournal journal = JOURNALS.get(userId);
+        if (journal != null) return journal;
+        synchronized (JOURNALS) {
+            journal = JOURNALS.get(userId);
+            if (journal == null) {
+                journal = new ScanJournal(Paths.get("smartstock_scans_" + userId + ".journal"));
+                JOURNALS.put(userId, journal);
+            }
+            return journal;
+        }
+    }
+
+    // Close every open journal file (called on application exit, after the journal executor has drained)
+    public static void closeAll() {
+        synchronized (JOURNALS) {
+            for (ScanJournal journal : JOURNALS.values()) {
+                try {
+                    journal.channel.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close scan journal: " + e.getMessage());
+                }
+            }
+            JOURNALS.clear();
+        }
+    }
+
+    /**
+     * Appends an entry. The future completes once it is on disk, and only then
+     * is the entry handed to the replayer.
+     */
+    CompletableFuture<Void> append(Entry entry) {
+        return write(toJson(entry).toString(), () -> {
+            synchronized (this) {
+                pending.put(entry.key(), entry);
+            }
+        });
+    }
+
+    void markApplied(String key) {
+        finish(key, new JSONObject().put("type", "applied").put("key", key));
+    }
+
+    void markFailed(String key, String error) {
+        finish(key, new JSONObject().put("type", "failed").put("key", key).put("error", String.valueOf(error)));
+    }
+
+    // Oldest pending entries, up to limit
+    synchronized List<Entry> pending(int limit) {
+        List<Entry> batch = new ArrayList<>(Math.min(limit, pending.size()));
+        for (Entry entry : pending.values()) {
+            if (batch.size() == limit) break;
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    // Called on the journal thread whenever the pending count changes
+    void setPendingListener(Runnable listener) {
+        this.pendingListener = listener;
+    }
+
+    // The marker only has to reach the file eventually: replaying an applied entry is a no-op
+    private void finish(String key, JSONObject marker) {
+        synchronized (this) {
+            if (pending.remove(key) == null) return;
+        }
+        write(marker.toString(), null);
+    }
+
+    private CompletableFuture<Void> write(String line, Runnable onDurable) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (this) {
+            queued.add(new PendingWrite(line, onDurable, future));
+            if (flushing) return future; // The running flush picks it up
+            flushing = true;
+        }
+        try {
+            AppExecutors.journal().execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            List<PendingWrite> dropped;
+            synchronized (this) {
+                flushing = false;
+                dropped = new ArrayList<>(queued);
+                queued.clear();
+            }
+            for (PendingWrite write : dropped) write.future().completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // Write and sync everything queued, repeating until nothing new arrived meanwhile
+    private void flush() {
+        while (true) {
+            List<PendingWrite> batch;
+            synchronized (this) {
+                if (queued.isEmpty()) {
+                    flushing = false;
+                    return;
+                }
+                batch = new ArrayList<>(queued);
+                queued.clear();
+            }
+
+            StringBuilder text = new StringBuilder();
+            for (PendingWrite write : batch) text.append(write.line()).append('\n');
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) channel.write(buffer);
+                channel.force(false);
+            } catch (IOException e) {
+                System.err.println("Scan journal write failed: " + e.getMessage());
+                for (PendingWrite write : batch) write.future().completeExceptionally(e);
+                continue;
+            }
+
+            for (PendingWrite write : batch) {
+                if (write.onDurable() != null) write.onDurable().run();
+                write.future().complete(null);
+            }
+            compactIfIdle();
+            pendingListener.run();
+        }
+    }
+
+    // Everything in the file is finished, so it can start over empty
+    private void compactIfIdle() {
+        try {
+            synchronized (this) {
+                if (!pending.isEmpty() || !queued.isEmpty()) return;
+            }
+            if (channel.size() > COMPACT_BYTES) {
+                channel.truncate(0);
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            System.err.println("Scan journal compaction failed: " + e.getMessage());
+        }
+    }
+
+    private static JSONObject toJson(Entry entry) {
+        JSONObject line = new JSONObject()
+            .put("type", "scan")
+            .put("key", entry.key())
+            .put("op", entry.operation().name())
+            .put("at", entry.createdAt());
+        if (entry.data() != null) line.put("data", entry.data());
+        if (entry.productId() > 0) line.put("product_id", entry.productId());
+        if (entry.quantity() > 0) line.put("quantity", entry.quantity());
+        return line;
+    }
+
+    // Read unfinished entries left by an earlier session, then rewrite the file with only those
+    private void load() throws IOException {
+        if (!Files.exists(file)) return;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    JSONObject json = new JSONObject(line);
+                    String key = json.getString("key");
+                    switch (json.getString("type")) {
+                        case "scan" -> pending.put(key, new Entry(
+                            key, Operation.valueOf(json.getString("op")), json.getLong("at"),
+                            json.optJSONObject("data"), json.optInt("product_id", 0), json.optInt("quantity", 0)));
+                        case "applied", "failed" -> pending.remove(key);
+                        default -> System.err.println("Skipping unknown scan journal line: " + line);
+                    }
+                } catch (JSONException | IllegalArgumentException e) {
+                    // A torn last line from a crash mid-write; its scan was never confirmed
+                    System.err.println("Skipping unreadable scan journal line: " + e.getMessage());
+                }
+            }
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            StringBuilder text = new StringBuilder();
+            for (Entry entry : pending.values()) {
+                text.append(toJson(entry)).append('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) out.write(buffer);
+            out.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,259 @@
+package com.inventorysystem.data;
+
+import com.inventorysystem.model.CartLine;
+import com.inventorysystem.util.AppExecutors;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies a store's scan journal to the database in the background.
+ * Entries are replayed oldest first, up to BATCH_SIZE per transaction, each
+ * behind a savepoint. Every entry's key is claimed in applied_scans in the
+ * same transaction as its writes, so an entry replayed twice (after a crash
+ * or a lost marker) is applied once. Connection trouble leaves the batch
+ * pending and retries with backoff; an entry the database rejects on its own
+ * merits (e.g. insufficient stock) is marked failed and reported.
+ */
+public final class ScanReplayer {
+
+    private static final int BATCH_SIZE = 50;
+    private static final long MIN_RETRY_MS = 1_000;
+    private static final long MAX_RETRY_MS = 30_000;
+
+    // MySQL lock wait timeout and deadlock: the batch is retried, not the entry blamed
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int ER_LOCK_DEADLOCK = 1213;
+
+    private static final Map<Integer, ScanReplayer> REPLAYERS = new ConcurrentHashMap<>();
+
+    /**
+     * Receives replay events on the database executor thread.
+     */
+    public interface Listener {
+        // result is the product ID for STOCK_IN and the sale ID for SALE
+        default void applied(ScanJournal.Entry entry, long result) {}
+        default void failed(ScanJournal.Entry entry, String message) {}
+        default void pendingChanged(int pendingCount) {}
+    }
+
+    // Outcome of one entry inside a committed batch
+    private record Outcome(ScanJournal.Entry entry, long result, String error) {}
+
+    private final int userId;
+    private final ScanJournal journal;
+    private final ProductRepository productRepository;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean retryScheduled = new AtomicBoolean(false);
+    private volatile long retryDelayMs = MIN_RETRY_MS;
+
+    private ScanReplayer(int userId, ScanJournal journal) {
+        this.userId = userId;
+        this.journal = journal;
+        this.productRepository = new ProductRepository(userId);
+        journal.setPendingListener(() -> {
+            int count = journal.pendingCount();
+            for (Listener listener : listeners) listener.pendingChanged(count);
+        });
+    }
+
+    /**
+     * The replayer of one store. Opens its journal on first use and starts
+     * replaying anything an earlier session left behind.
+     */
+    public static ScanReplayer forUser(int userId) throws IOException {
+        ScanReplayer replayer = REPLAYERS.get(userId);
+        if (replayer != null) return replayer;
+        synchronized (REPLAYERS) {
+            replayer = REPLAYERS.get(userId);
+            if (replayer == null) {
+                replayer = new ScanReplayer(userId, ScanJournal.forUser(userId));
+                REPLAYERS.put(userId, replayer);
+                replayer.kick();
+            }
+            return replayer;
+        }
+    }
+
+    // Creates the idempotency table (used by schema migration 6)
+    static void createTable(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "CREATE TABLE IF NOT EXISTS applied_scans (" +
+                "scan_key CHAR(36) NOT NULL PRIMARY KEY, " +
+                "user_id INT NOT NULL, " +
+                "result_id BIGINT NOT NULL DEFAULT 0, " +
+                "applied_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP)")) {
+            pstmt.executeUpdate();
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getPendingCount() {
+        return journal.pendingCount();
+    }
+
+    /**
+     * Journals a scan and schedules it for replay. The future completes once
+     * the entry is on disk; the database write follows in the background.
+     */
+    public CompletableFuture<Void> submit(ScanJournal.Entry entry) {
+        return journal.append(entry).thenRun(this::kick);
+    }
+
+    // Start a drain unless one is running or a retry is already waiting
+    private void kick() {
+        if (retryScheduled.get() || !draining.compareAndSet(false, true)) return;
+        try {
+            AppExecutors.db().execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false); // Shutting down; the journal keeps the entries for next time
+        }
+    }
+
+    private void drain() {
+        try {
+            List<ScanJournal.Entry> batch;
+            while (!(batch = journal.pending(BATCH_SIZE)).isEmpty()) {
+                List<Outcome> outcomes = applyBatch(batch);
+                retryDelayMs = MIN_RETRY_MS;
+                report(outcomes);
+            }
+        } catch (SQLException e) {
+            System.err.println("Scan replay paused, " + journal.pendingCount() + " pending: " + e.getMessage());
+            scheduleRetry();
+        } finally {
+            draining.set(false);
+        }
+        // Entries that became durable after the last pending() check
+        if (journal.pendingCount() > 0) kick();
+    }
+
+    private void scheduleRetry() {
+        if (!retryScheduled.compareAndSet(false, true)) return;
+        long delay = retryDelayMs;
+        retryDelayMs = Math.min(MAX_RETRY_MS, delay * 2);
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+            retryScheduled.set(false);
+            kick();
+        });
+    }
+
+    // One transaction for the whole batch; throws only when the batch should be retried
+    private List<Outcome> applyBatch(List<ScanJournal.Entry> batch) throws SQLException {
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            for (ScanJournal.Entry entry : batch) {
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    Long previous = claim(conn, entry.key());
+                    long result = previous != null ? previous : apply(conn, entry);
+                    if (previous == null) recordResult(conn, entry.key(), result);
+                    outcomes.add(new Outcome(entry, result, null));
+                } catch (SQLException e) {
+                    if (isTransient(e)) throw e;
+                    conn.rollback(savepoint);
+                    outcomes.add(new Outcome(entry, 0, e.getMessage()));
+                } catch (JSONException | IllegalArgumentException e) {
+                    conn.rollback(savepoint);
+                    outcomes.add(new Outcome(entry, 0, e.getMessage()));
+                }
+            }
+
+            conn.commit();
+            return outcomes;
+        } catch (SQLException e) {
+            if (conn != null) try { conn.rollback(); } catch (SQLException ex) {}
+            throw e;
+        } finally {
+            if (conn != null) try { conn.setAutoCommit(true); conn.close(); } catch (SQLException e) {}
+        }
+    }
+
+    // Claims the key for this transaction; returns the earlier result if it was already applied
+    private Long claim(Connection conn, String key) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT IGNORE INTO applied_scans (scan_key, user_id) VALUES (?, ?)")) {
+            pstmt.setString(1, key);
+            pstmt.setInt(2, this.userId);
+            if (pstmt.executeUpdate() == 1) return null;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT result_id FROM applied_scans WHERE scan_key = ?")) {
+            pstmt.setString(1, key);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+    }
+
+    private void recordResult(Connection conn, String key, long result) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE applied_scans SET result_id = ? WHERE scan_key = ?")) {
+            pstmt.setLong(1, result);
+            pstmt.setString(2, key);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private long apply(Connection conn, ScanJournal.Entry entry) throws SQLException {
+        return switch (entry.operation()) {
+            case STOCK_IN -> productRepository.upsertProductFromQR(conn, entry.data());
+            // Dated when it was scanned, not when the database caught up
+            case SALE -> productRepository.sellCart(conn,
+                List.of(new CartLine(entry.productId(), entry.quantity())), new Timestamp(entry.createdAt()));
+        };
+    }
+
+    private void report(List<Outcome> outcomes) {
+        for (Outcome outcome : outcomes) {
+            ScanJournal.Entry entry = outcome.entry();
+            if (outcome.error() == null) {
+                journal.markApplied(entry.key());
+                productRepository.forgetProduct(entry.operation() == ScanJournal.Operation.STOCK_IN
+                    ? (int) outcome.result() : entry.productId());
+                for (Listener listener : listeners) listener.applied(entry, outcome.result());
+            } else {
+                System.err.println("Scan " + entry.key() + " rejected by the database: " + outcome.error());
+                journal.markFailed(entry.key(), outcome.error());
+                for (Listener listener : listeners) listener.failed(entry, outcome.error());
+            }
+        }
+    }
+
+    // Problems with the connection or lock contention, as opposed to problems with the entry
+    private static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) return true;
+        String state = e.getSQLState();
+        if (state != null && (state.startsWith("08") || state.startsWith("40"))) return true;
+        return e.getErrorCode() == ER_LOCK_WAIT_TIMEOUT || e.getErrorCode() == ER_LOCK_DEADLOCK;
+    }
+}
@@ -0,0 +1,211 @@
+package com.inventorysystem.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Versioned schema migrations, run once at application startup.
+ * Every DDL change, backfill and index lives here so the repositories
+ * never have to probe the schema on a hot path. Applied versions are
+ * recorded in the schema_version table.
+ */
+public class SchemaMigrator {
+
+    // Named lock so two terminals starting together don't migrate twice
+    private static final String LOCK_NAME = "smartstock_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    // One schema change; steps must be safe to re-run on databases that already have the change
+    @FunctionalInterface
+    private interface MigrationStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private record Migration(int version, String description, MigrationStep step) {}
+
+    private final List<Migration> migrations = new ArrayList<>();
+
+    public SchemaMigrator() {
+        migrations.add(new Migration(1, "Add products.quantity_damaged", conn -> {
+            if (!columnExists(conn, "products", "quantity_damaged")) {
+                execute(conn, "ALTER TABLE products ADD COLUMN quantity_damaged INT(11) NOT NULL DEFAULT 0 AFTER quantity_in_stock");
+            }
+        }));
+
+        migrations.add(new Migration(2, "Add sale_items.cost_price with backfill", conn -> {
+            if (!columnExists(conn, "sale_items", "cost_price")) {
+                execute(conn, "ALTER TABLE sale_items ADD COLUMN cost_price DECIMAL(10, 2) NOT NULL DEFAULT 0.00 AFTER unit_price");
+                // Backfill old records with current product cost so history isn't zero
+                execute(conn, "UPDATE sale_items si JOIN products p ON si.product_id = p.product_id " +
+                              "SET si.cost_price = p.cost_price WHERE si.cost_price = 0");
+            }
+        }));
+
+        // Composite indexes so date-range reports and per-user lookups use range scans
+        migrations.add(new Migration(3, "Add composite indexes for range reports", conn -> {
+            createIndexIfMissing(conn, "sales", "idx_sales_user_date", "user_id, sale_date");
+            createIndexIfMissing(conn, "stock_log", "idx_stock_log_user_date_product", "user_id, log_date, product_id");
+            createIndexIfMissing(conn, "sale_items", "idx_sale_items_sale_product", "sale_id, product_id");
+            createIndexIfMissing(conn, "products", "idx_products_user_product", "user_id, product_id");
+        }));
+
+        // History paging needs a unique, increasing id on both sources of the transaction list
+        migrations.add(new Migration(4, "Ensure row ids on sale_items and stock_log", conn -> {
+            for (String table : new String[]{"sale_items", "stock_log"}) {
+                if (findAutoIncrementColumn(conn, table) == null) {
+                    execute(conn, "ALTER TABLE " + table + " ADD COLUMN history_id BIGINT NOT NULL AUTO_INCREMENT UNIQUE");
+                }
+            }
+        }));
+
+        // Daily per-product sales rollup read by the dashboard, backfilled from existing history
+        migrations.add(new Migration(5, "Add daily_product_sales rollup", conn -> {
+            DailySalesRepository.createTable(conn);
+            DailySalesRepository.rebuild(conn, null);
+        }));
+
+        // Idempotency keys of replayed scan journal entries
+        migrations.add(new Migration(6, "Add applied_scans", ScanReplayer::createTable));
+
+        // Store deletions in progress, so an interrupted one can be resumed
+        migrations.add(new Migration(7, "Add store_deletions", StoreDeletionJob::createTable));
+
+        // Daily per-product stock movements read by the Stocks tab, backfilled from stock_log
+        migrations.add(new Migration(8, "Add daily_stock_movements rollup", conn -> {
+            DailyStockRepository.createTable(conn);
+            DailyStockRepository.rebuild(conn, null);
+        }));
+    }
+
+    /**
+     * Applies every migration that is not yet recorded in schema_version.
+     * Returns the number of migrations applied.
+     */
+    public int migrate() throws SQLException {
+        int applied = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            acquireLock(conn);
+            try {
+                execute(conn, "CREATE TABLE IF NOT EXISTS schema_version (" +
+                              "version INT NOT NULL PRIMARY KEY, " +
+                              "description VARCHAR(200) NOT NULL, " +
+                              "applied_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+
+                Set<Integer> done = getAppliedVersions(conn);
+                for (Migration migration : migrations) {
+                    if (done.contains(migration.version())) continue;
+
+                    // MySQL commits DDL implicitly, so each step is recorded right after it runs
+                    try {
+                        migration.step().apply(conn);
+                    } catch (SQLException e) {
+                        throw new SQLException("Schema migration " + migration.version() + " (" +
+                                               migration.description() + ") failed: " + e.getMessage(), e);
+                    }
+                    recordVersion(conn, migration);
+                    applied++;
+                    System.out.println("Applied schema migration " + migration.version() + ": " + migration.description());
+                }
+            } finally {
+                releaseLock(conn);
+            }
+        }
+        return applied;
+    }
+
+    private Set<Integer> getAppliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT version FROM schema_version");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) versions.add(rs.getInt(1));
+        }
+        return versions;
+    }
+
+    private void recordVersion(Connection conn, Migration migration) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description) VALUES (?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, migration.version());
+            pstmt.setString(2, migration.description());
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for the schema migration lock.");
+                }
+            }
+        }
+    }
+
+    private void releaseLock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("Failed to release schema migration lock: " + e.getMessage());
+        }
+    }
+
+    // --- Helpers for migration steps ---
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static void createIndexIfMissing(Connection conn, String table, String index, String columns) throws SQLException {
+        if (!indexExists(conn, table, index)) {
+            execute(conn, "CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+        }
+    }
+
+    private static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.STATISTICS " +
+                     "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ? LIMIT 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, index);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // Name of the table's AUTO_INCREMENT column, or null if it has none
+    static String findAutoIncrementColumn(Connection conn, String table) throws SQLException {
+        String sql = "SELECT COLUMN_NAME FROM information_schema.COLUMNS " +
+                     "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND EXTRA LIKE '%auto_increment%' LIMIT 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.COLUMNS " +
+                     "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, column);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
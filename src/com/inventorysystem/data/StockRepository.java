@@ -11,35 +11,39 @@ import java.util.List;
 // Stock movement summary with date filtering
 public class StockRepository {
 
-    // Get stock summary for date range
-    public List<StockRecord> getStockSummaryWithDateRange(int userId, java.sql.Date startDate, java.sql.Date endDate) throws SQLException {
+    // Get stock summary for date range [startDate, endDate)
+    public List<StockRecord> getStockSummaryWithDateRange(int userId, java.sql.Timestamp startDate, java.sql.Timestamp endDate) throws SQLException {
         List<StockRecord> records = new ArrayList<>();
 
+        // Range totals come from the daily rollup, so the cost follows days x products, not the log's size
         String sql =
             "SELECT " +
             "    p.product_id, " +
             "    p.name AS product_name, " +
             "    c.category_name, " +
-            "    COALESCE(SUM(CASE WHEN sl.log_type IN ('STOCK-IN', 'CUSTOMER-RETURN') " +
-            "                      AND sl.log_date BETWEEN ? AND ? THEN ABS(sl.quantity_changed) ELSE 0 END), 0) AS stock_in, " +
-            "    COALESCE(SUM(CASE WHEN sl.log_type IN ('SALE', 'REMOVAL', 'REJECT', 'REFUND', 'DISPOSE') " +
-            "                      AND sl.log_date BETWEEN ? AND ? THEN ABS(sl.quantity_changed) ELSE 0 END), 0) AS stock_out, " +
+            "    COALESCE(m.stock_in, 0) AS stock_in, " +
+            "    COALESCE(m.stock_out, 0) AS stock_out, " +
             "    p.quantity_in_stock AS current_stock " +
             "FROM products p " +
             "JOIN categories c ON p.category_id = c.category_id " +
-            "LEFT JOIN stock_log sl ON p.product_id = sl.product_id AND p.user_id = sl.user_id " +
+            "LEFT JOIN ( " +
+            "    SELECT product_id, " +
+            "        SUM(CASE WHEN log_type IN (" + DailyStockRepository.IN_TYPES + ") THEN quantity ELSE 0 END) AS stock_in, " +
+            "        SUM(CASE WHEN log_type IN (" + DailyStockRepository.OUT_TYPES + ") THEN quantity ELSE 0 END) AS stock_out " +
+            "    FROM daily_stock_movements " +
+            "    WHERE user_id = ? AND log_day >= ? AND log_day < ? " +
+            "    GROUP BY product_id " +
+            ") m ON m.product_id = p.product_id " +
             "WHERE p.user_id = ? " +
-            "GROUP BY p.product_id, p.name, c.category_name, p.quantity_in_stock " +
             "ORDER BY p.product_id";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setDate(1, startDate);
-            pstmt.setDate(2, endDate);
-            pstmt.setDate(3, startDate);
-            pstmt.setDate(4, endDate);
-            pstmt.setInt(5, userId);
+            pstmt.setInt(1, userId);
+            pstmt.setDate(2, toDay(startDate));
+            pstmt.setDate(3, toDay(endDate));
+            pstmt.setInt(4, userId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -56,4 +60,8 @@ public class StockRepository {
         }
         return records;
     }
+
+    private static java.sql.Date toDay(java.sql.Timestamp timestamp) {
+        return timestamp == null ? null : java.sql.Date.valueOf(timestamp.toLocalDateTime().toLocalDate());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package com.inventorysystem.data;
+
+import com.inventorysystem.model.StoreDeletionProgress;
+import com.inventorysystem.util.AppConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Deletes a store and everything recorded under its user, a fixed-size batch
+ * at a time. Each batch commits on its own, so no transaction grows with the
+ * store and other terminals only ever wait on one batch. The store is marked
+ * in store_deletions before the first batch; a run that is interrupted leaves
+ * the mark, and since every batch just deletes "the next rows of this user",
+ * running the job again picks up where it stopped.
+ */
+public final class StoreDeletionJob {
+
+    private static final int BATCH_SIZE = AppConfig.getInt("store.deleteBatchSize", 1000);
+
+    private final int storeId;
+    private final int userId;
+
+    private StoreDeletionJob(int storeId, int userId) {
+        this.storeId = storeId;
+        this.userId = userId;
+    }
+
+    // Creates the pending deletion table (used by schema migration 7)
+    static void createTable(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "CREATE TABLE IF NOT EXISTS store_deletions (" +
+                "store_id INT NOT NULL PRIMARY KEY, " +
+                "user_id INT NOT NULL, " +
+                "requested_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP)")) {
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Marks the store for deletion and returns the job that deletes it.
+     * Marking an already marked store returns its job again.
+     */
+    static StoreDeletionJob start(int storeId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int userId;
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT user_id FROM stores WHERE store_id = ?")) {
+                pstmt.setInt(1, storeId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) throw new SQLException("Cannot delete. Store not found with ID: " + storeId);
+                    userId = rs.getInt("user_id");
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT IGNORE INTO store_deletions (store_id, user_id) VALUES (?, ?)")) {
+                pstmt.setInt(1, storeId);
+                pstmt.setInt(2, userId);
+                pstmt.executeUpdate();
+            }
+            return new StoreDeletionJob(storeId, userId);
+        }
+    }
+
+    // Deletions that were started but never finished, oldest first
+    static List<StoreDeletionJob> pending() throws SQLException {
+        List<StoreDeletionJob> jobs = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "SELECT store_id, user_id FROM store_deletions ORDER BY requested_at, store_id");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) jobs.add(new StoreDeletionJob(rs.getInt("store_id"), rs.getInt("user_id")));
+        }
+        return jobs;
+    }
+
+    public int getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Deletes the store's data batch by batch, then the store itself, reporting
+     * progress after every batch. Returns whether the store row was deleted.
+     * An interrupt stops the run between batches; the mark stays for a later run.
+     */
+    boolean run(Consumer<StoreDeletionProgress> progress) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            long total = countRows(conn);
+            long deleted = 0;
+            progress.accept(new StoreDeletionProgress(storeId, "Starting", 0, total));
+
+            // Children before parents: stock_log and sale_items reference products
+            deleted = deleteInBatches(conn, "Stock log", total, deleted,
+                "DELETE FROM stock_log WHERE user_id = ? LIMIT ?", progress);
+            deleted = deleteSalesInBatches(conn, total, deleted, progress);
+            deleted = deleteInBatches(conn, "Daily sales", total, deleted,
+                "DELETE FROM daily_product_sales WHERE user_id = ? LIMIT ?", progress);
+            deleted = deleteInBatches(conn, "Daily stock", total, deleted,
+                "DELETE FROM daily_stock_movements WHERE user_id = ? LIMIT ?", progress);
+            deleted = deleteInBatches(conn, "Products", total, deleted,
+                "DELETE FROM products WHERE user_id = ? ORDER BY product_id LIMIT ?", progress);
+
+            boolean storeDeleted = finish(conn);
+            ProductCatalogCache.forUser(userId).clear();
+            progress.accept(new StoreDeletionProgress(storeId, "Done", Math.max(deleted, total), total));
+            return storeDeleted;
+        }
+    }
+
+    private long countRows(Connection conn) throws SQLException {
+        String sql = "SELECT " +
+                     "(SELECT COUNT(*) FROM stock_log WHERE user_id = ?) + " +
+                     "(SELECT COUNT(*) FROM sale_items si JOIN sales s ON s.sale_id = si.sale_id WHERE s.user_id = ?) + " +
+                     "(SELECT COUNT(*) FROM sales WHERE user_id = ?) + " +
+                     "(SELECT COUNT(*) FROM daily_product_sales WHERE user_id = ?) + " +
+                     "(SELECT COUNT(*) FROM daily_stock_movements WHERE user_id = ?) + " +
+                     "(SELECT COUNT(*) FROM products WHERE user_id = ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 1; i <= 6; i++) pstmt.setInt(i, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    // Repeats a single-table DELETE ... LIMIT until it finds nothing; each statement commits by itself
+    private long deleteInBatches(Connection conn, String step, long total, long deleted, String sql,
+                                 Consumer<StoreDeletionProgress> progress) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, BATCH_SIZE);
+            int rows;
+            do {
+                checkInterrupted();
+                rows = pstmt.executeUpdate();
+                deleted += rows;
+                progress.accept(new StoreDeletionProgress(storeId, step, deleted, total));
+            } while (rows > 0);
+        }
+        return deleted;
+    }
+
+    // The oldest BATCH_SIZE sales with their items, one transaction per batch
+    private long deleteSalesInBatches(Connection conn, long total, long deleted,
+                                      Consumer<StoreDeletionProgress> progress) throws SQLException {
+        // LIMIT makes MySQL materialize the derived table, so sales can be read while sale_items is the target
+        String deleteItemsSql = "DELETE si FROM sale_items si JOIN (" +
+                                "    SELECT sale_id FROM sales WHERE user_id = ? ORDER BY sale_id LIMIT ?" +
+                                ") batch ON si.sale_id = batch.sale_id";
+        String deleteSalesSql = "DELETE FROM sales WHERE user_id = ? ORDER BY sale_id LIMIT ?";
+
+        conn.setAutoCommit(false);
+        try (PreparedStatement items = conn.prepareStatement(deleteItemsSql);
+             PreparedStatement sales = conn.prepareStatement(deleteSalesSql)) {
+            for (PreparedStatement pstmt : new PreparedStatement[]{items, sales}) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, BATCH_SIZE);
+            }
+            int rows;
+            do {
+                checkInterrupted();
+                rows = items.executeUpdate();
+                int salesDeleted = sales.executeUpdate();
+                conn.commit();
+                deleted += rows + salesDeleted;
+                rows = salesDeleted;
+                progress.accept(new StoreDeletionProgress(storeId, "Sales", deleted, total));
+            } while (rows > 0);
+        } catch (SQLException e) {
+            try { conn.rollback(); } catch (SQLException ex) { System.err.println("Rollback failed: " + ex.getMessage()); }
+            throw e;
+        } finally {
+            try { conn.setAutoCommit(true); } catch (SQLException e) { /* Ignored */ }
+        }
+        return deleted;
+    }
+
+    // Store row and mark go together, so a finished deletion is never resumed
+    private boolean finish(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            int rowsAffected;
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM stores WHERE store_id = ?")) {
+                pstmt.setInt(1, storeId);
+                rowsAffected = pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM store_deletions WHERE store_id = ?")) {
+                pstmt.setInt(1, storeId);
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+            return rowsAffected > 0;
+        } catch (SQLException e) {
+            try { conn.rollback(); } catch (SQLException ex) { System.err.println("Rollback failed: " + ex.getMessage()); }
+            throw e;
+        } finally {
+            try { conn.setAutoCommit(true); } catch (SQLException e) { /* Ignored */ }
+        }
+    }
+
+    private void checkInterrupted() throws SQLException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new SQLException("Deletion of store " + storeId + " was interrupted; it resumes on the next start.");
+        }
+    }
+}
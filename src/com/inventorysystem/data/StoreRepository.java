@@ -1,7 +1,13 @@
 package com.inventorysystem.data;
 
 import com.inventorysystem.model.Store;
+import com.inventorysystem.model.StoreDeletionProgress;
+import com.inventorysystem.util.AppExecutors;
+import com.inventorysystem.util.DebugLogger;
 import java.sql.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 // Store profile management
 public class StoreRepository {
@@ -60,57 +66,44 @@ public class StoreRepository {
         }
     }
 
-    // Delete store and all associated data
+    /**
+     * Deletes a store and all associated data on the calling thread.
+     * Runs in batches (see StoreDeletionJob), so it can take a while for a large store.
+     */
     public boolean deleteStore(int storeId) throws SQLException {
-        String findUserSql = "SELECT user_id FROM stores WHERE store_id = ?";
-        String deleteStoreSql = "DELETE FROM stores WHERE store_id = ?";
-        
-        Connection conn = null;
-        boolean storeDeleted = false;
-        int userId = -1;
-
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
-
-            // Get userId for the store
-            try (PreparedStatement pstmt = conn.prepareStatement(findUserSql)) {
-                pstmt.setInt(1, storeId);
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    if (rs.next()) {
-                        userId = rs.getInt("user_id");
-                    } else {
-                        throw new SQLException("Cannot delete. Store not found with ID: " + storeId);
-                    }
-                }
-            }
-            
-            // Delete all products and related data
-            ProductRepository productRepo = new ProductRepository(userId);
-            productRepo.deleteAllProductsForUser(conn);
+            return StoreDeletionJob.start(storeId).run(progress -> {});
+        } catch (SQLException e) {
+            throw new SQLException("Error deleting store and associated data: " + e.getMessage(), e);
+        }
+    }
 
-            // Delete the store
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteStoreSql)) {
-                pstmt.setInt(1, storeId);
-                int rowsAffected = pstmt.executeUpdate();
-                storeDeleted = (rowsAffected > 0);
+    /**
+     * Marks a store for deletion and deletes it on the maintenance executor.
+     * onProgress is called on that thread after every batch. If the application
+     * closes first, the deletion resumes on the next start.
+     */
+    public CompletableFuture<Boolean> deleteStoreInBackground(int storeId, Consumer<StoreDeletionProgress> onProgress) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return StoreDeletionJob.start(storeId).run(onProgress);
+            } catch (SQLException e) {
+                throw new CompletionException(new SQLException("Error deleting store and associated data: " + e.getMessage(), e));
             }
+        }, AppExecutors.maintenance());
+    }
 
-            conn.commit();
-            return storeDeleted;
-
-        } catch (SQLException e) {
-            if (conn != null) {
-                try { conn.rollback(); } catch (SQLException ex) { 
-                    System.err.println("Rollback failed: " + ex.getMessage()); 
+    // Finish store deletions an earlier session left incomplete (called once at startup)
+    public static void resumePendingDeletions() {
+        AppExecutors.maintenance().execute(() -> {
+            try {
+                for (StoreDeletionJob job : StoreDeletionJob.pending()) {
+                    DebugLogger.info("Resuming deletion of store " + job.getStoreId());
+                    job.run(progress -> {});
                 }
+            } catch (SQLException e) {
+                System.err.println("Store deletion paused: " + e.getMessage());
             }
-            throw new SQLException("Error deleting store and associated data: " + e.getMessage(), e);
-        } finally {
-            if (conn != null) {
-                try { conn.setAutoCommit(true); } catch (SQLException e) { /* Ignored */ }
-                try { conn.close(); } catch (SQLException e) { /* Ignored */ }
-            }
-        }
+        });
     }
 }
\ No newline at end of file
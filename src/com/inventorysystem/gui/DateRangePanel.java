@@ -17,6 +17,13 @@ public class DateRangePanel extends JPanel {
     private JComboBox<String> presetComboBox;
     private List<DateRangeChangeListener> listeners = new ArrayList<>();
     
+    // One user action (a preset sets both dates) becomes one change event
+    private static final int CHANGE_DELAY_MS = 250;
+    private final Timer changeTimer;
+    private boolean updatingControls = false;
+    private java.sql.Timestamp notifiedStart;
+    private java.sql.Timestamp notifiedEnd;
+    
     // When dates change, we tell other panels to refresh
     public interface DateRangeChangeListener {
         void onDateRangeChanged();
@@ -52,23 +59,46 @@ public class DateRangePanel extends JPanel {
         });
         presetComboBox.setPreferredSize(new Dimension(140, 30));
         presetComboBox.addActionListener(e -> {
+            if (updatingControls) return;
             applyPreset();
-            notifyListeners();
+            scheduleChange();
         });
         add(presetComboBox);
         
-        // Listen for manual date changes
-        startDateChooser.addPropertyChangeListener("date", e -> {
-            if ("Custom".equals(presetComboBox.getSelectedItem())) {
-                notifyListeners();
-            }
-        });
+        changeTimer = new Timer(CHANGE_DELAY_MS, e -> notifyIfChanged());
+        changeTimer.setRepeats(false);
+        notifiedStart = getRangeStart();
+        notifiedEnd = getRangeEndExclusive();
         
-        endDateChooser.addPropertyChangeListener("date", e -> {
-            if ("Custom".equals(presetComboBox.getSelectedItem())) {
-                notifyListeners();
-            }
-        });
+        // Listen for manual date changes; editing a date switches back to Custom
+        startDateChooser.addPropertyChangeListener("date", e -> onDateEdited());
+        endDateChooser.addPropertyChangeListener("date", e -> onDateEdited());
+    }
+    
+    private void onDateEdited() {
+        if (updatingControls) return; // Set by applyPreset, already scheduled
+        if (!"Custom".equals(presetComboBox.getSelectedItem())) {
+            updatingControls = true;
+            presetComboBox.setSelectedItem("Custom");
+            updatingControls = false;
+        }
+        scheduleChange();
+    }
+    
+    // Restart the quiet period; listeners hear about the range once it settles
+    private void scheduleChange() {
+        changeTimer.restart();
+    }
+    
+    private void notifyIfChanged() {
+        java.sql.Timestamp start = getRangeStart();
+        java.sql.Timestamp end = getRangeEndExclusive();
+        if (java.util.Objects.equals(start, notifiedStart) && java.util.Objects.equals(end, notifiedEnd)) {
+            return; // Same range as last time, nothing to reload
+        }
+        notifiedStart = start;
+        notifiedEnd = end;
+        notifyListeners();
     }
     
     // Other panels can register to know when dates change
@@ -123,8 +153,13 @@ public class DateRangePanel extends JPanel {
                 return;
         }
         
-        startDateChooser.setDate(java.sql.Date.valueOf(start));
-        endDateChooser.setDate(java.sql.Date.valueOf(end));
+        updatingControls = true;
+        try {
+            startDateChooser.setDate(java.sql.Date.valueOf(start));
+            endDateChooser.setDate(java.sql.Date.valueOf(end));
+        } finally {
+            updatingControls = false;
+        }
     }
     
     public Date getStartDate() {
@@ -135,33 +170,24 @@ public class DateRangePanel extends JPanel {
         return endDateChooser.getDate();
     }
     
-    // Get date for SQL queries (start of day: 00:00:00)
-    public java.sql.Date getSqlStartDate() {
+    // Start of the range for SQL queries: 00:00:00 on the "From" day (inclusive)
+    public java.sql.Timestamp getRangeStart() {
         Date date = startDateChooser.getDate();
         if (date == null) return null;
         
-        java.util.Calendar cal = java.util.Calendar.getInstance();
-        cal.setTime(date);
-        cal.set(java.util.Calendar.HOUR_OF_DAY, 0);
-        cal.set(java.util.Calendar.MINUTE, 0);
-        cal.set(java.util.Calendar.SECOND, 0);
-        cal.set(java.util.Calendar.MILLISECOND, 0);
-        
-        return new java.sql.Date(cal.getTimeInMillis());
+        return java.sql.Timestamp.valueOf(toLocalDate(date).atStartOfDay());
     }
     
-    // Get date for SQL queries (end of day: 23:59:59)
-    public java.sql.Date getSqlEndDate() {
+    // End of the range for SQL queries: 00:00:00 on the day after "To" (exclusive),
+    // so queries use col >= start AND col < end and keep the whole last day
+    public java.sql.Timestamp getRangeEndExclusive() {
         Date date = endDateChooser.getDate();
         if (date == null) return null;
         
-        java.util.Calendar cal = java.util.Calendar.getInstance();
-        cal.setTime(date);
-        cal.set(java.util.Calendar.HOUR_OF_DAY, 23);
-        cal.set(java.util.Calendar.MINUTE, 59);
-        cal.set(java.util.Calendar.SECOND, 59);
-        cal.set(java.util.Calendar.MILLISECOND, 999);
-        
-        return new java.sql.Date(cal.getTimeInMillis());
+        return java.sql.Timestamp.valueOf(toLocalDate(date).plusDays(1).atStartOfDay());
+    }
+    
+    private LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate();
     }
 }
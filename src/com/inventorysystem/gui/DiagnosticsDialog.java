@@ -0,0 +1,165 @@
+package com.inventorysystem.gui;
+
+import com.inventorysystem.util.Metrics;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+// Admin dialog showing timings of repository calls, SQL statements, connections and EDT tasks
+public class DiagnosticsDialog extends JDialog {
+
+    private static final int REFRESH_MS = 2000;
+
+    private final DefaultTableModel timingsModel;
+    private final DefaultTableModel countersModel;
+    private final Timer refreshTimer;
+
+    public DiagnosticsDialog(userFrame mainFrame) {
+        super(mainFrame, "Diagnostics", true);
+
+        setLayout(new BorderLayout(10, 10));
+        setSize(1000, 600);
+        setLocationRelativeTo(mainFrame);
+
+        timingsModel = new DefaultTableModel(
+            new String[]{"Metric", "Count", "Mean (ms)", "p50 (ms)", "p95 (ms)", "p99 (ms)", "Max (ms)"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+
+            @Override
+            public Class<?> getColumnClass(int column) { return column == 0 ? String.class : Number.class; }
+        };
+        countersModel = new DefaultTableModel(new String[]{"Counter", "Value"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+
+        JTable timingsTable = new JTable(timingsModel);
+        timingsTable.setAutoCreateRowSorter(true); // Sort by p99 to find the slow screens
+        timingsTable.getColumnModel().getColumn(0).setPreferredWidth(520);
+        JTable countersTable = new JTable(countersModel);
+
+        JPanel content = new JPanel(new BorderLayout(10, 10));
+        content.setBorder(new EmptyBorder(15, 15, 0, 15));
+        content.setBackground(Color.WHITE);
+
+        JLabel titleLabel = new JLabel("Timings since start (or last reset)");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        content.add(titleLabel, BorderLayout.NORTH);
+
+        JScrollPane countersScroll = new JScrollPane(countersTable);
+        countersScroll.setPreferredSize(new Dimension(0, 110));
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(timingsTable), countersScroll);
+        split.setResizeWeight(0.8);
+        content.add(split, BorderLayout.CENTER);
+
+        add(content, BorderLayout.CENTER);
+        add(createButtonPanel(), BorderLayout.SOUTH);
+
+        refreshTimer = new Timer(REFRESH_MS, e -> refresh());
+        refresh();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void dispose() {
+        refreshTimer.stop();
+        super.dispose();
+    }
+
+    // Reload both tables from the registry
+    private void refresh() {
+        timingsModel.setRowCount(0);
+        for (Metrics.Snapshot snapshot : Metrics.histograms()) {
+            timingsModel.addRow(new Object[]{
+                snapshot.name(), snapshot.count(), round(snapshot.meanMillis()),
+                round(snapshot.p50Millis()), round(snapshot.p95Millis()),
+                round(snapshot.p99Millis()), round(snapshot.maxMillis())
+            });
+        }
+        countersModel.setRowCount(0);
+        for (Map.Entry<String, Long> entry : Metrics.counters().entrySet()) {
+            countersModel.addRow(new Object[]{entry.getKey(), entry.getValue()});
+        }
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 100) / 100.0;
+    }
+
+    // Buttons at bottom
+    private JPanel createButtonPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
+        panel.setBackground(Color.WHITE);
+
+        JButton refreshBtn = createButton("Refresh", UIConstants.PRIMARY_COLOR, UIConstants.PRIMARY_DARK);
+        refreshBtn.addActionListener(e -> refresh());
+
+        JButton saveBtn = createButton("Save Snapshot", UIConstants.PRIMARY_COLOR, UIConstants.PRIMARY_DARK);
+        saveBtn.addActionListener(e -> saveSnapshot());
+
+        JButton resetBtn = createButton("Reset", UIConstants.DANGER_COLOR, UIConstants.DANGER_DARK);
+        resetBtn.addActionListener(e -> {
+            Metrics.reset();
+            refresh();
+        });
+
+        JButton closeBtn = createButton("Close", UIConstants.TEXT_SECONDARY, new Color(100, 110, 120));
+        closeBtn.addActionListener(e -> dispose());
+
+        panel.add(refreshBtn);
+        panel.add(saveBtn);
+        panel.add(resetBtn);
+        panel.add(closeBtn);
+
+        return panel;
+    }
+
+    // Write the current metrics to a JSON file the admin picks
+    private void saveSnapshot() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Save Diagnostics Snapshot");
+        fileChooser.setSelectedFile(new File("smartstock_diagnostics_" + System.currentTimeMillis() + ".json"));
+        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("JSON Files (*.json)", "json"));
+
+        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            File outputFile = fileChooser.getSelectedFile();
+            if (!outputFile.getName().toLowerCase().endsWith(".json")) {
+                outputFile = new File(outputFile.getParentFile(), outputFile.getName() + ".json");
+            }
+            try {
+                Metrics.dump(outputFile.toPath());
+                JOptionPane.showMessageDialog(this, "Snapshot saved to:\n" + outputFile.getAbsolutePath(),
+                    "Saved", JOptionPane.INFORMATION_MESSAGE);
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(this, "Failed to save snapshot: " + ex.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    private JButton createButton(String text, Color bgColor, Color hoverColor) {
+        JButton button = new JButton(text);
+        button.setFont(UIConstants.BUTTON_FONT);
+        button.setPreferredSize(new Dimension(140, 38));
+        button.setBackground(bgColor);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setBorderPainted(false);
+        button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+
+        button.addMouseListener(new MouseAdapter() {
+            public void mouseEntered(MouseEvent e) { button.setBackground(hoverColor); }
+            public void mouseExited(MouseEvent e) { button.setBackground(bgColor); }
+        });
+
+        return button;
+    }
+}
@@ -1,13 +1,14 @@
 package com.inventorysystem.gui;
 
+import com.inventorysystem.data.AsyncRepository;
 import com.inventorysystem.data.UserRepository;
+import com.inventorysystem.util.AppExecutors;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.sql.SQLException;
 
 // Dialog for managing employees (add/remove)
 public class EmployeeManagerDialog extends JDialog {
@@ -15,6 +16,7 @@ public class EmployeeManagerDialog extends JDialog {
     private final userFrame mainFrame;
     private final DefaultListModel<String> listModel;
     private final JList<String> employeeList;
+    private final AsyncRepository<UserRepository> users = AsyncRepository.of(new UserRepository());
 
     public EmployeeManagerDialog(userFrame mainFrame) {
         super(mainFrame, "Manage Employees", true);
@@ -46,14 +48,14 @@ public class EmployeeManagerDialog extends JDialog {
 
     // Load employees from database
     private void loadEmployees() {
-        try {
-            java.util.List<String> employees = new UserRepository().getEmployeesByAdmin(mainFrame.loggedInUserId);
-            for (String emp : employees) {
-                listModel.addElement(emp);
-            }
-        } catch (SQLException e) {
-            listModel.addElement("Error loading employees: " + e.getMessage());
-        }
+        AppExecutors.onEdt(
+            users.supply(repo -> repo.getEmployeesByAdmin(mainFrame.loggedInUserId)),
+            employees -> {
+                for (String emp : employees) {
+                    listModel.addElement(emp);
+                }
+            },
+            e -> listModel.addElement("Error loading employees: " + e.getMessage()));
     }
 
     // Buttons at bottom
@@ -117,19 +119,17 @@ public class EmployeeManagerDialog extends JDialog {
             String password = new String(passwordField.getPassword());
             
             if (!username.isEmpty() && !password.isEmpty()) {
-                try {
-                    boolean success = new UserRepository().addEmployeeUnderAdmin(
-                        mainFrame.loggedInUserId, username, password);
-                    if (success) {
-                        listModel.addElement(username);
-                        JOptionPane.showMessageDialog(this, 
-                            "Employee '" + username + "' added successfully!",
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
-                    }
-                } catch (SQLException ex) {
-                    JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(),
-                        "Database Error", JOptionPane.ERROR_MESSAGE);
-                }
+                AppExecutors.onEdt(
+                    users.supply(repo -> repo.addEmployeeUnderAdmin(mainFrame.loggedInUserId, username, password)),
+                    success -> {
+                        if (success) {
+                            listModel.addElement(username);
+                            JOptionPane.showMessageDialog(this, 
+                                "Employee '" + username + "' added successfully!",
+                                "Success", JOptionPane.INFORMATION_MESSAGE);
+                        }
+                    },
+                    this::showDatabaseError);
             } else {
                 JOptionPane.showMessageDialog(this, "Username and password cannot be empty.",
                     "Input Error", JOptionPane.WARNING_MESSAGE);
@@ -151,17 +151,21 @@ public class EmployeeManagerDialog extends JDialog {
             "Confirm Removal", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            try {
-                boolean success = new UserRepository().removeEmployee(selected);
-                if (success) {
-                    listModel.removeElement(selected);
-                    JOptionPane.showMessageDialog(this, "Employee removed successfully!",
-                        "Success", JOptionPane.INFORMATION_MESSAGE);
-                }
-            } catch (SQLException ex) {
-                JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(),
-                    "Database Error", JOptionPane.ERROR_MESSAGE);
-            }
+            AppExecutors.onEdt(
+                users.supply(repo -> repo.removeEmployee(selected)),
+                success -> {
+                    if (success) {
+                        listModel.removeElement(selected);
+                        JOptionPane.showMessageDialog(this, "Employee removed successfully!",
+                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                    }
+                },
+                this::showDatabaseError);
         }
     }
+
+    private void showDatabaseError(Throwable ex) {
+        JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(),
+            "Database Error", JOptionPane.ERROR_MESSAGE);
+    }
 }
@@ -1,7 +1,9 @@
 package com.inventorysystem.gui;
 
+import com.inventorysystem.data.AsyncRepository;
 import com.inventorysystem.data.UserRepository;
 import com.inventorysystem.model.User;
+import com.inventorysystem.util.AppExecutors;
 import com.inventorysystem.util.SoundUtil;
 
 import javax.imageio.ImageIO;
@@ -11,7 +13,6 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.sql.SQLException;
 
 // Login screen - username/password authentication, Enter key support, hover effects
 public class LoginPanel extends JPanel {
@@ -19,6 +20,7 @@ public class LoginPanel extends JPanel {
     private userFrame mainFrame;
     private UserRepository userRepository;
     private BufferedImage backgroundImage;
+    private boolean loginInProgress = false;
 
     public LoginPanel(userFrame mainFrame) {
         this.mainFrame = mainFrame;
@@ -194,20 +196,27 @@ public class LoginPanel extends JPanel {
             return;
         }
 
-        try {
-            // Check credentials
-            User user = userRepository.login(username, password);
-            if (user != null) {
-                // Success
-                mainFrame.handleLoginSuccess(user.id(), user.username(), user.role());
-                SwingUtilities.invokeLater(() -> showWelcomeDialog(user));
-            } else {
-                // Failed
-                showStyledMessage("Invalid username or password.", "Login Failed", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (SQLException ex) {
-            showStyledMessage("Database error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        if (loginInProgress) return; // Enter and the button can both fire
+        loginInProgress = true;
+
+        // Check credentials off the EDT
+        AppExecutors.onEdt(
+            AsyncRepository.of(userRepository).supply(users -> users.login(username, password)),
+            user -> {
+                loginInProgress = false;
+                if (user != null) {
+                    // Success
+                    mainFrame.handleLoginSuccess(user.id(), user.username(), user.role());
+                    SwingUtilities.invokeLater(() -> showWelcomeDialog(user));
+                } else {
+                    // Failed
+                    showStyledMessage("Invalid username or password.", "Login Failed", JOptionPane.ERROR_MESSAGE);
+                }
+            },
+            error -> {
+                loginInProgress = false;
+                showStyledMessage("Database error: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            });
     }
 
     private void showStyledMessage(String message, String title, int messageType) {
@@ -248,6 +248,12 @@ public class MainApplicationPanel extends JPanel {
             manageEmployeesBtn.addActionListener(e -> openEmployeeManager());
             panel.add(manageEmployeesBtn);
             panel.add(Box.createRigidArea(new Dimension(0, 8)));
+
+            JButton diagnosticsBtn = createActionButton("Diagnostics", 
+                UIConstants.PRIMARY_COLOR, UIConstants.PRIMARY_DARK);
+            diagnosticsBtn.addActionListener(e -> openDiagnostics());
+            panel.add(diagnosticsBtn);
+            panel.add(Box.createRigidArea(new Dimension(0, 8)));
         }
 
         // Everyone can logout
@@ -340,6 +346,12 @@ public class MainApplicationPanel extends JPanel {
         dialog.setVisible(true);
     }
 
+    // Open diagnostics dialog (query and UI timings)
+    private void openDiagnostics() {
+        DiagnosticsDialog dialog = new DiagnosticsDialog(mainFrame);
+        dialog.setVisible(true);
+    }
+
     // Logout confirmation
     private void logout() {
         int choice = JOptionPane.showConfirmDialog(mainFrame,
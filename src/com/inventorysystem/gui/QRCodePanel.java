@@ -4,8 +4,6 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
-import org.json.JSONObject;
-import org.json.JSONException;
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.*;
@@ -17,12 +15,14 @@ import java.awt.geom.Rectangle2D;
 import java.text.AttributedString;
 import java.io.File;
 import java.io.IOException;
-import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import com.inventorysystem.data.AsyncRepository;
 import com.inventorysystem.data.ProductRepository;
 import com.inventorysystem.model.Category;
+import com.inventorysystem.util.AppExecutors;
+import com.inventorysystem.util.QRPayload;
 
 // Panel for creating QR codes with product info (Admin only)
 public class QRCodePanel extends JPanel {
@@ -370,8 +370,7 @@ public class QRCodePanel extends JPanel {
     private void handleAddNewCategory() {
         String newCategory = JOptionPane.showInputDialog(this, "Enter new category name:", "Add Category", JOptionPane.PLAIN_MESSAGE);
         if (newCategory != null && !newCategory.trim().isEmpty()) {
-            addNewCategoryToDB(newCategory);
-            loadCategories();
+            addNewCategoryToDB(newCategory); // Reloads the dropdown when done
             categoryComboBox.setSelectedItem(newCategory);
         }
     }
@@ -400,36 +399,38 @@ public class QRCodePanel extends JPanel {
         setUIForAddUpdateMode();
     }
 
-    // Get categories from database and fill dropdown
+    // Get categories from database (off the EDT) and fill dropdown
     private void loadCategories() {
         String currentSelection = (String) categoryComboBox.getSelectedItem();
-        categoryComboBox.removeAllItems();
-        categoryIdMap.clear();
-
-        try {
-            List<Category> categories = productRepository.getCategories();
-            if (categories.isEmpty()) {
-                categoryComboBox.addItem("<No categories added>");
-                categoryComboBox.setEnabled(false);
-            } else {
-                categoryComboBox.setEnabled(true);
-                for (Category category : categories) {
-                    categoryIdMap.put(category.name(), category.id());
-                    categoryComboBox.addItem(category.name());
-                }
-                if (currentSelection != null && categoryIdMap.containsKey(currentSelection)) {
-                    categoryComboBox.setSelectedItem(currentSelection);
+        categoryComboBox.setEnabled(false);
+
+        AppExecutors.onEdt(
+            AsyncRepository.of(productRepository).supply(ProductRepository::getCategories),
+            categories -> {
+                categoryComboBox.removeAllItems();
+                categoryIdMap.clear();
+                if (categories.isEmpty()) {
+                    categoryComboBox.addItem("<No categories added>");
                 } else {
-                     categoryComboBox.setSelectedIndex(0);
+                    for (Category category : categories) {
+                        categoryIdMap.put(category.name(), category.id());
+                        categoryComboBox.addItem(category.name());
+                    }
+                    if (currentSelection != null && categoryIdMap.containsKey(currentSelection)) {
+                        categoryComboBox.setSelectedItem(currentSelection);
+                    } else {
+                         categoryComboBox.setSelectedIndex(0);
+                    }
                 }
-            }
-        } catch (SQLException e) {
-            showError("Could not load categories: " + e.getMessage());
-            categoryComboBox.addItem("<Error loading>");
-            categoryComboBox.setEnabled(false);
-        } finally {
-             categoryComboBox.setEnabled(!categoryIdMap.isEmpty());
-        }
+                categoryComboBox.setEnabled(!categoryIdMap.isEmpty());
+            },
+            e -> {
+                categoryComboBox.removeAllItems();
+                categoryIdMap.clear();
+                showError("Could not load categories: " + e.getMessage());
+                categoryComboBox.addItem("<Error loading>");
+                categoryComboBox.setEnabled(false);
+            });
     }
 
     // Create QR code image from form data
@@ -438,7 +439,7 @@ public class QRCodePanel extends JPanel {
         Map<String, String> detailsMap = new HashMap<>();
 
         try {
-            qrText = generateProductJsonForQR(detailsMap);
+            qrText = generateProductPayloadForQR(detailsMap);
             if (qrText == null) {
                 resetQrDisplay();
                 return;
@@ -447,7 +448,7 @@ public class QRCodePanel extends JPanel {
             // Generate QR code image (280x280 pixels)
             QRCodeWriter qrCodeWriter = new QRCodeWriter();
             final int qrCodeSize = 280;
-            BitMatrix bitMatrix = qrCodeWriter.encode(qrText, BarcodeFormat.QR_CODE, qrCodeSize, qrCodeSize);
+            BitMatrix bitMatrix = qrCodeWriter.encode(qrText, BarcodeFormat.QR_CODE, qrCodeSize, qrCodeSize, QRLabelRenderer.ENCODE_HINTS);
             BufferedImage qrImage = toBufferedImage(bitMatrix);
 
             // Add product details below QR code
@@ -492,9 +493,6 @@ public class QRCodePanel extends JPanel {
         } catch (WriterException ex) {
             showError("Could not generate QR code image: " + ex.getMessage()); 
             resetQrDisplay();
-        } catch (JSONException e) {
-            showError("Could not build JSON data for QR code: " + e.getMessage()); 
-            resetQrDisplay();
         } catch (Exception ex) {
             showError("An unexpected error occurred during QR generation: " + ex.getMessage()); 
             resetQrDisplay();
@@ -513,8 +511,8 @@ public class QRCodePanel extends JPanel {
         g2d.drawString(value, x + (int)labelBounds.getWidth() + 5, y);
     }
 
-    // Convert form fields to JSON string for QR code
-    private String generateProductJsonForQR(Map<String, String> detailsMap) throws NumberFormatException, JSONException {
+    // Convert form fields to QR label text
+    private String generateProductPayloadForQR(Map<String, String> detailsMap) throws NumberFormatException {
         detailsMap.clear();
 
         String name = productNameField.getText().trim();
@@ -547,18 +545,8 @@ public class QRCodePanel extends JPanel {
         detailsMap.put("Category", selectedCategory);
         detailsMap.put("Cost Price", String.format("₱%,.2f", costPrice));
 
-        // Build JSON for QR code (without product ID - will be auto-assigned on scan)
-        JSONObject dataObject = new JSONObject();
-        dataObject.put("name", name);
-        dataObject.put("category_id", categoryId);
-        dataObject.put("cost_price", costPrice);
-        dataObject.put("stock", stock);
-
-        JSONObject mainObject = new JSONObject();
-        mainObject.put("action", "create_product");
-        mainObject.put("data", dataObject);
-
-        return mainObject.toString();
+        // Compact label text (without product ID - will be auto-assigned on scan)
+        return QRPayload.encodeProduct(0, name, categoryId, costPrice, stock);
     }
 
     // Save QR code image to file
@@ -616,12 +604,16 @@ public class QRCodePanel extends JPanel {
 
     // Save category to database
     private void addNewCategoryToDB(String categoryName) {
-        try {
-            productRepository.addNewCategory(categoryName);
-            showSuccess("Category '" + categoryName + "' added successfully.");
-        } catch (SQLException e) {
-            showError("Error adding category: " + e.getMessage());
-        }
+        AppExecutors.onEdt(
+            AsyncRepository.of(productRepository).run(repo -> repo.addNewCategory(categoryName)),
+            done -> {
+                showSuccess("Category '" + categoryName + "' added successfully.");
+                loadCategories();
+            },
+            e -> {
+                showError("Error adding category: " + e.getMessage());
+                loadCategories();
+            });
     }
 
     // Convert QR matrix to image
@@ -0,0 +1,260 @@
+package com.inventorysystem.gui;
+
+import com.google.zxing.WriterException;
+import com.inventorysystem.data.AsyncRepository;
+import com.inventorysystem.data.ProductRepository;
+import com.inventorysystem.model.Category;
+import com.inventorysystem.model.ProductLabel;
+import com.inventorysystem.util.AppExecutors;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Dialog for printing QR labels of many products at once as paged PNG sheets
+public class QRLabelBatchDialog extends JDialog {
+
+    private final AsyncRepository<ProductRepository> products;
+    private final List<Integer> selectedProductIds;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    private final JRadioButton selectionRadio;
+    private final JRadioButton categoryRadio;
+    private final JComboBox<String> categoryCombo = new JComboBox<>();
+    private List<Category> categories = List.of();
+    private final JTextField folderField;
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JLabel statusLabel = new JLabel(" ");
+    private JButton generateBtn;
+    private boolean running = false;
+
+    public QRLabelBatchDialog(userFrame mainFrame, AsyncRepository<ProductRepository> products, List<Integer> selectedProductIds) {
+        super(mainFrame, "Batch QR Labels", true);
+        this.products = products;
+        this.selectedProductIds = selectedProductIds;
+
+        setLayout(new BorderLayout(10, 10));
+        setSize(560, 380);
+        setLocationRelativeTo(mainFrame);
+
+        JPanel form = new JPanel(new GridBagLayout());
+        form.setBorder(new EmptyBorder(15, 15, 15, 15));
+        form.setBackground(Color.WHITE);
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.anchor = GridBagConstraints.WEST;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        JLabel titleLabel = new JLabel("Print labels for");
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        gbc.gridx = 0; gbc.gridy = 0; gbc.gridwidth = 3;
+        form.add(titleLabel, gbc);
+
+        selectionRadio = new JRadioButton("Selected products (" + selectedProductIds.size() + ")");
+        categoryRadio = new JRadioButton("All products in category:");
+        ButtonGroup group = new ButtonGroup();
+        group.add(selectionRadio);
+        group.add(categoryRadio);
+        for (JRadioButton radio : new JRadioButton[]{selectionRadio, categoryRadio}) {
+            radio.setFont(UIConstants.LABEL_FONT);
+            radio.setBackground(Color.WHITE);
+        }
+        selectionRadio.setEnabled(!selectedProductIds.isEmpty());
+        (selectedProductIds.isEmpty() ? categoryRadio : selectionRadio).setSelected(true);
+
+        gbc.gridy = 1;
+        form.add(selectionRadio, gbc);
+        gbc.gridy = 2; gbc.gridwidth = 1;
+        form.add(categoryRadio, gbc);
+        gbc.gridx = 1; gbc.gridwidth = 2; gbc.weightx = 1;
+        categoryCombo.setFont(UIConstants.LABEL_FONT);
+        categoryCombo.addActionListener(e -> categoryRadio.setSelected(true));
+        form.add(categoryCombo, gbc);
+
+        JLabel folderLabel = new JLabel("Save sheets to:");
+        folderLabel.setFont(UIConstants.LABEL_FONT);
+        gbc.gridx = 0; gbc.gridy = 3; gbc.gridwidth = 1; gbc.weightx = 0;
+        form.add(folderLabel, gbc);
+        folderField = new JTextField(System.getProperty("user.home"));
+        folderField.setFont(UIConstants.LABEL_FONT);
+        gbc.gridx = 1; gbc.weightx = 1;
+        form.add(folderField, gbc);
+        JButton browseBtn = new JButton("Browse...");
+        browseBtn.addActionListener(e -> chooseFolder());
+        gbc.gridx = 2; gbc.weightx = 0;
+        form.add(browseBtn, gbc);
+
+        JLabel layoutLabel = new JLabel(String.format("%d labels per A4 page, one PNG file per page",
+            QRLabelSheets.LABELS_PER_PAGE));
+        layoutLabel.setFont(UIConstants.LABEL_FONT);
+        layoutLabel.setForeground(UIConstants.TEXT_SECONDARY);
+        gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 3;
+        form.add(layoutLabel, gbc);
+
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        gbc.gridy = 5;
+        form.add(progressBar, gbc);
+        statusLabel.setFont(UIConstants.LABEL_FONT);
+        gbc.gridy = 6;
+        form.add(statusLabel, gbc);
+
+        add(form, BorderLayout.CENTER);
+        add(createButtonPanel(), BorderLayout.SOUTH);
+
+        loadCategories();
+    }
+
+    @Override
+    public void dispose() {
+        cancelled.set(true); // A running job stops after its current page
+        super.dispose();
+    }
+
+    private void loadCategories() {
+        AppExecutors.onEdt(
+            products.supply(ProductRepository::getCategories),
+            loaded -> {
+                categories = loaded;
+                boolean keepSelection = selectionRadio.isSelected();
+                for (Category category : loaded) categoryCombo.addItem(category.name());
+                if (keepSelection) selectionRadio.setSelected(true);
+            },
+            e -> statusLabel.setText("Error loading categories: " + e.getMessage()));
+    }
+
+    private void chooseFolder() {
+        JFileChooser fileChooser = new JFileChooser(folderField.getText());
+        fileChooser.setDialogTitle("Choose Folder for Label Sheets");
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            folderField.setText(fileChooser.getSelectedFile().getAbsolutePath());
+        }
+    }
+
+    // Buttons at bottom
+    private JPanel createButtonPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
+        panel.setBackground(Color.WHITE);
+
+        generateBtn = createButton("Generate", UIConstants.PRIMARY_COLOR, UIConstants.PRIMARY_DARK);
+        generateBtn.addActionListener(e -> generate());
+
+        JButton closeBtn = createButton("Close", UIConstants.TEXT_SECONDARY, new Color(100, 110, 120));
+        closeBtn.addActionListener(e -> {
+            if (running && JOptionPane.showConfirmDialog(this, "Stop generating labels?", "Confirm",
+                    JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+                return;
+            }
+            dispose();
+        });
+
+        panel.add(generateBtn);
+        panel.add(closeBtn);
+
+        return panel;
+    }
+
+    // Fetch the labels off the EDT, then render and write the sheets in the background
+    private void generate() {
+        File folder = new File(folderField.getText().trim());
+        if (!folder.isDirectory()) {
+            showError("Please choose an existing folder for the label sheets.");
+            return;
+        }
+
+        CompletableFuture<List<ProductLabel>> labels;
+        if (selectionRadio.isSelected()) {
+            labels = products.supply(repo -> repo.getProductLabels(selectedProductIds));
+        } else {
+            int index = categoryCombo.getSelectedIndex();
+            if (index < 0 || index >= categories.size()) {
+                showError("Please choose a category.");
+                return;
+            }
+            int categoryId = categories.get(index).id();
+            labels = products.supply(repo -> repo.getCategoryLabels(categoryId));
+        }
+
+        setRunning(true);
+        statusLabel.setText("Loading products...");
+        String baseName = "qr_labels_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        AppExecutors.onEdt(
+            labels.thenApplyAsync(list -> writeSheets(list, folder.toPath(), baseName), AppExecutors.background()),
+            files -> {
+                setRunning(false);
+                if (files.isEmpty()) {
+                    statusLabel.setText("No products to print.");
+                    return;
+                }
+                statusLabel.setText("Saved " + files.size() + " page(s) to " + folder.getAbsolutePath());
+                JOptionPane.showMessageDialog(this,
+                    "Saved " + files.size() + " label sheet(s) to:\n" + folder.getAbsolutePath(),
+                    "Success", JOptionPane.INFORMATION_MESSAGE);
+            },
+            ex -> {
+                setRunning(false);
+                statusLabel.setText(" ");
+                showError("Failed to generate labels: " + ex.getMessage());
+            });
+    }
+
+    // Runs on a background thread; progress is handed to the EDT page by page
+    private List<Path> writeSheets(List<ProductLabel> labels, Path folder, String baseName) {
+        int pages = QRLabelSheets.pageCount(labels.size());
+        SwingUtilities.invokeLater(() -> {
+            progressBar.setMaximum(Math.max(1, pages));
+            progressBar.setValue(0);
+            progressBar.setString("0 / " + pages + " pages");
+            statusLabel.setText("Rendering " + labels.size() + " label(s)...");
+        });
+        try {
+            return QRLabelSheets.write(labels, folder, baseName,
+                (done, total) -> SwingUtilities.invokeLater(() -> {
+                    progressBar.setValue(done);
+                    progressBar.setString(done + " / " + total + " pages");
+                }),
+                cancelled::get);
+        } catch (IOException | WriterException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void setRunning(boolean running) {
+        this.running = running;
+        generateBtn.setEnabled(!running);
+    }
+
+    private void showError(String message) {
+        JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private JButton createButton(String text, Color bgColor, Color hoverColor) {
+        JButton button = new JButton(text);
+        button.setFont(UIConstants.BUTTON_FONT);
+        button.setPreferredSize(new Dimension(140, 38));
+        button.setBackground(bgColor);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setBorderPainted(false);
+        button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+
+        button.addMouseListener(new MouseAdapter() {
+            public void mouseEntered(MouseEvent e) { button.setBackground(hoverColor); }
+            public void mouseExited(MouseEvent e) { button.setBackground(bgColor); }
+        });
+
+        return button;
+    }
+}
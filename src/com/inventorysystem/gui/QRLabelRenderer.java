@@ -0,0 +1,99 @@
+package com.inventorysystem.gui;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.inventorysystem.model.ProductLabel;
+import com.inventorysystem.util.QRPayload;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+
+/**
+ * Draws product QR labels: the code with name, category and cost below it.
+ * Safe to call from several threads at once; each thread keeps its own encoder.
+ */
+final class QRLabelRenderer {
+
+    static final int QR_SIZE = 280;
+    static final int TEXT_HEIGHT = 80;
+    static final int LABEL_WIDTH = QR_SIZE;
+    static final int LABEL_HEIGHT = QR_SIZE + TEXT_HEIGHT;
+
+    private static final Font VALUE_FONT = new Font("Monospaced", Font.PLAIN, 12);
+    private static final Font CAPTION_FONT = VALUE_FONT.deriveFont(Font.BOLD);
+    private static final int PADDING_X = 10;
+
+    // ZXing writes ISO-8859-1 unless told otherwise, which mangles names outside Latin-1
+    // and breaks the label checksum; with UTF-8 it adds an ECI marker that readers follow
+    static final Map<EncodeHintType, Object> ENCODE_HINTS = Map.of(EncodeHintType.CHARACTER_SET, "UTF-8");
+
+    private static final ThreadLocal<QRCodeWriter> WRITERS = ThreadLocal.withInitial(QRCodeWriter::new);
+
+    private QRLabelRenderer() {}
+
+    // What the label's code says; scanning it in Add/Update mode creates or restocks the product
+    static String payload(ProductLabel label) {
+        return QRPayload.encodeProduct(label.productId(), label.name(), label.categoryId(),
+                                       label.costPrice(), label.stock());
+    }
+
+    static BufferedImage render(ProductLabel label) throws WriterException {
+        BufferedImage image = new BufferedImage(LABEL_WIDTH, LABEL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            draw(g2d, label);
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
+    // Draws the label with its top-left corner at the graphics origin
+    static void draw(Graphics2D g2d, ProductLabel label) throws WriterException {
+        BitMatrix matrix = WRITERS.get().encode(payload(label), BarcodeFormat.QR_CODE, QR_SIZE, QR_SIZE, ENCODE_HINTS);
+
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, LABEL_WIDTH, LABEL_HEIGHT);
+
+        // One rectangle per run of dark modules instead of one call per pixel
+        g2d.setColor(Color.BLACK);
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            int x = 0;
+            while (x < matrix.getWidth()) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < matrix.getWidth() && matrix.get(x, y)) x++;
+                g2d.fillRect(start, y, x - start, 1);
+            }
+        }
+
+        g2d.setFont(VALUE_FONT);
+        int lineHeight = g2d.getFontMetrics().getHeight();
+        int currentY = QR_SIZE + 20;
+        drawDetailLine(g2d, "Name:", label.name(), currentY);
+        currentY += lineHeight;
+        drawDetailLine(g2d, "Category:", label.categoryName(), currentY);
+        currentY += lineHeight;
+        drawDetailLine(g2d, "Cost:", "₱" + String.format("%,.2f", label.costPrice()), currentY);
+    }
+
+    // Bold caption padded to ten columns, then the value
+    private static void drawDetailLine(Graphics2D g2d, String caption, String value, int y) {
+        String padded = String.format("%-10s", caption);
+        g2d.setFont(CAPTION_FONT);
+        g2d.drawString(caption, PADDING_X, y);
+        g2d.setFont(VALUE_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+        g2d.drawString(value, PADDING_X + fm.stringWidth(padded) + 5, y);
+    }
+}
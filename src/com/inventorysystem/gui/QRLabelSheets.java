@@ -0,0 +1,163 @@
+package com.inventorysystem.gui;
+
+import com.google.zxing.WriterException;
+import com.inventorysystem.model.ProductLabel;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+import java.util.function.BiConsumer;
+
+/**
+ * Writes product QR labels as printable sheets, one PNG per page.
+ * Labels of a page are rendered in parallel on a fork-join pool while the
+ * previous page is being encoded and written, so only two pages of labels
+ * are ever in memory, however many products are printed.
+ */
+final class QRLabelSheets {
+
+    // A4 at 150 dpi
+    static final int PAGE_WIDTH = 1240;
+    static final int PAGE_HEIGHT = 1754;
+    static final int COLUMNS = 4;
+    static final int ROWS = 4;
+    static final int LABELS_PER_PAGE = COLUMNS * ROWS;
+
+    // Gaps between labels and around the edge, spread evenly
+    private static final int GAP_X = (PAGE_WIDTH - COLUMNS * QRLabelRenderer.LABEL_WIDTH) / (COLUMNS + 1);
+    private static final int GAP_Y = (PAGE_HEIGHT - ROWS * QRLabelRenderer.LABEL_HEIGHT) / (ROWS + 1);
+    private static final Color CUT_LINE = new Color(200, 200, 200);
+
+    // Labels rendered per fork-join leaf; one label is already a few milliseconds of work
+    private static final int LEAF_SIZE = 1;
+
+    private QRLabelSheets() {}
+
+    static int pageCount(int labelCount) {
+        return (labelCount + LABELS_PER_PAGE - 1) / LABELS_PER_PAGE;
+    }
+
+    /**
+     * Writes baseName_001.png, baseName_002.png, ... into directory and returns the files.
+     * progress receives (pages written, total pages) on the calling thread.
+     * Stops with CancellationException between pages once cancelled returns true.
+     */
+    static List<Path> write(List<ProductLabel> labels, Path directory, String baseName,
+                            BiConsumer<Integer, Integer> progress, BooleanSupplier cancelled)
+            throws IOException, WriterException {
+        int pages = pageCount(labels.size());
+        Path[] files = new Path[pages];
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        try {
+            ForkJoinTask<BufferedImage[]> next = pages > 0 ? pool.submit(renderPage(labels, 0)) : null;
+            for (int page = 0; page < pages; page++) {
+                BufferedImage[] rendered = join(next);
+                // Start on the following page before spending time on PNG compression
+                next = page + 1 < pages ? pool.submit(renderPage(labels, page + 1)) : null;
+
+                if (cancelled.getAsBoolean()) throw new CancellationException("Label generation cancelled.");
+                files[page] = directory.resolve(String.format("%s_%03d.png", baseName, page + 1));
+                writePage(compose(rendered), files[page]);
+                progress.accept(page + 1, pages);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return List.of(files);
+    }
+
+    private static ForkJoinTask<BufferedImage[]> renderPage(List<ProductLabel> labels, int page) {
+        int from = page * LABELS_PER_PAGE;
+        List<ProductLabel> pageLabels = labels.subList(from, Math.min(labels.size(), from + LABELS_PER_PAGE));
+        BufferedImage[] images = new BufferedImage[pageLabels.size()];
+        return ForkJoinTask.adapt(() -> {
+            new RenderTask(pageLabels, images, 0, images.length).invoke();
+            return images;
+        });
+    }
+
+    // Unwraps the encoder's checked exception from the fork-join wrapper
+    private static BufferedImage[] join(ForkJoinTask<BufferedImage[]> task) throws WriterException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof WriterException writerException) throw writerException;
+            }
+            throw e;
+        }
+    }
+
+    // Lays the page's labels out on a white sheet with light cut lines
+    private static BufferedImage compose(BufferedImage[] labels) {
+        BufferedImage sheet = new BufferedImage(PAGE_WIDTH, PAGE_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g2d = sheet.createGraphics();
+        try {
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, PAGE_WIDTH, PAGE_HEIGHT);
+            g2d.setColor(CUT_LINE);
+            g2d.setStroke(new BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f, new float[]{6f, 6f}, 0f));
+            for (int i = 0; i < labels.length; i++) {
+                int x = GAP_X + (i % COLUMNS) * (QRLabelRenderer.LABEL_WIDTH + GAP_X);
+                int y = GAP_Y + (i / COLUMNS) * (QRLabelRenderer.LABEL_HEIGHT + GAP_Y);
+                g2d.drawImage(labels[i], x, y, null);
+                g2d.drawRect(x - 4, y - 4, QRLabelRenderer.LABEL_WIDTH + 7, QRLabelRenderer.LABEL_HEIGHT + 7);
+            }
+        } finally {
+            g2d.dispose();
+        }
+        return sheet;
+    }
+
+    // Written under a temporary name first so a half-written page never looks finished
+    private static void writePage(BufferedImage sheet, Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        if (!ImageIO.write(sheet, "PNG", temp.toFile())) {
+            throw new IOException("No PNG writer available.");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Splits a page's labels in halves until each piece is small enough to render directly
+    private static final class RenderTask extends RecursiveAction {
+        private final List<ProductLabel> labels;
+        private final BufferedImage[] images;
+        private final int from;
+        private final int to;
+
+        RenderTask(List<ProductLabel> labels, BufferedImage[] images, int from, int to) {
+            this.labels = labels;
+            this.images = images;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        images[i] = QRLabelRenderer.render(labels.get(i));
+                    } catch (WriterException e) {
+                        throw new IllegalStateException("Could not encode label for product " + labels.get(i).productId(), e);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RenderTask(labels, images, from, middle), new RenderTask(labels, images, middle, to));
+        }
+    }
+}
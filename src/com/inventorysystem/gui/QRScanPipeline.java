@@ -0,0 +1,257 @@
+package com.inventorysystem.gui;
+
+import com.github.sarxos.webcam.Webcam;
+import com.github.sarxos.webcam.WebcamEvent;
+import com.github.sarxos.webcam.WebcamListener;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.ChecksumException;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.FormatException;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.inventorysystem.util.DebugLogger;
+import com.inventorysystem.util.Metrics;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Webcam QR decoder. Frames come from the webcam's own updater thread, the
+ * same frames the preview panel paints, so the camera is read only once.
+ * Only the newest frame is kept; frames that arrive while a decode is running
+ * are dropped. Each frame is decoded in a centred, downscaled region of
+ * interest first and only occasionally in full. The pause between decodes
+ * follows the measured decode time so a slow PC is never kept fully busy.
+ */
+final class QRScanPipeline implements WebcamListener {
+
+    // Centre square covering this share of the shorter frame side
+    private static final double ROI_FRACTION = 0.6;
+    // Larger regions are downscaled to this side before decoding
+    private static final int ROI_MAX_SIDE = 360;
+    // Misses in the region of interest before the whole frame is tried once
+    private static final int FULL_FRAME_EVERY = 3;
+    // Decoding may use at most about 1 / DUTY_FACTOR of one core
+    private static final int DUTY_FACTOR = 3;
+    private static final long MIN_INTERVAL_MS = 40;
+    private static final long MAX_INTERVAL_MS = 500;
+    // Weight of the newest sample in the decode time average
+    private static final double AVERAGE_WEIGHT = 0.2;
+    // How long the decoder waits for a frame before re-checking whether to stop
+    private static final long FRAME_WAIT_MS = 200;
+
+    // QR only and no TRY_HARDER: the label is held up to the camera, not hidden in a scene
+    private static final Map<DecodeHintType, Object> LIVE_HINTS =
+        Map.of(DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE));
+    // Still images are decoded once, so they can afford the thorough search
+    private static final Map<DecodeHintType, Object> STILL_HINTS = Map.of(
+        DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE),
+        DecodeHintType.TRY_HARDER, Boolean.TRUE);
+
+    /** Snapshot of the decoder's counters, in milliseconds where timed. */
+    record Stats(long framesDecoded, long framesDropped, long detections,
+                 double averageDecodeMillis, double lastDecodeMillis, double lastDetectLatencyMillis) {}
+
+    private record Frame(BufferedImage image, long arrivedNanos) {}
+
+    private final Webcam webcam;
+    private final Consumer<String> onDetected;
+    private final QRCodeReader reader = new QRCodeReader(); // Only ever used by the decoder thread
+    private final AtomicReference<Frame> latestFrame = new AtomicReference<>();
+    private volatile Thread decoderThread;
+
+    private BufferedImage roiBuffer; // Reused grayscale target for the downscaled region
+    private int missesSinceFullFrame = 0;
+
+    // Written by the decoder thread, read by stats()
+    private volatile long framesDecoded = 0;
+    private volatile long framesDropped = 0;
+    private volatile long detections = 0;
+    private volatile double averageDecodeMillis = 0;
+    private volatile double lastDecodeMillis = 0;
+    private volatile double lastDetectLatencyMillis = 0;
+
+    QRScanPipeline(Webcam webcam, Consumer<String> onDetected) {
+        this.webcam = webcam;
+        this.onDetected = onDetected;
+    }
+
+    /**
+     * Decodes frames on the calling thread until keepRunning turns false or the
+     * webcam closes. onDetected is called on this thread with every QR payload
+     * read, including repeats of a label that is still in view.
+     */
+    void run(BooleanSupplier keepRunning) {
+        decoderThread = Thread.currentThread();
+        webcam.addWebcamListener(this);
+        try {
+            while (keepRunning.getAsBoolean() && webcam.isOpen()) {
+                Frame frame = latestFrame.getAndSet(null);
+                if (frame == null) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(FRAME_WAIT_MS));
+                    if (Thread.interrupted()) break;
+                    continue;
+                }
+
+                long started = System.nanoTime();
+                String text = decodeFrame(frame.image());
+                long finished = System.nanoTime();
+                recordDecode(finished - started);
+
+                if (text != null && keepRunning.getAsBoolean()) {
+                    detections++;
+                    lastDetectLatencyMillis = (finished - frame.arrivedNanos()) / 1_000_000.0;
+                    Metrics.record("scanner.detect.latency", finished - frame.arrivedNanos());
+                    onDetected.accept(text);
+                }
+                if (!pause(nextIntervalMillis() - (finished - started) / 1_000_000)) break;
+            }
+        } finally {
+            webcam.removeWebcamListener(this);
+            decoderThread = null;
+            Stats stats = stats();
+            DebugLogger.info(() -> String.format(
+                "QR scanner stopped: %d frames decoded, %d dropped, %d codes, avg decode %.1f ms, last detect latency %.1f ms",
+                stats.framesDecoded(), stats.framesDropped(), stats.detections(),
+                stats.averageDecodeMillis(), stats.lastDetectLatencyMillis()));
+        }
+    }
+
+    Stats stats() {
+        return new Stats(framesDecoded, framesDropped, detections,
+                         averageDecodeMillis, lastDecodeMillis, lastDetectLatencyMillis);
+    }
+
+    /**
+     * Decodes a QR code from a still image, such as an uploaded photo.
+     */
+    static String decodeStill(BufferedImage image) throws NotFoundException {
+        LuminanceSource source = new BufferedImageLuminanceSource(image);
+        try {
+            return new QRCodeReader().decode(new BinaryBitmap(new HybridBinarizer(source)), STILL_HINTS).getText();
+        } catch (ChecksumException | FormatException e) {
+            throw NotFoundException.getNotFoundInstance();
+        }
+    }
+
+    // --- WebcamListener: called on the webcam updater thread, so keep it short ---
+
+    @Override
+    public void webcamImageObtained(WebcamEvent event) {
+        BufferedImage image = event.getImage();
+        if (image == null) return;
+        if (latestFrame.getAndSet(new Frame(image, System.nanoTime())) != null) {
+            framesDropped++; // Only the updater thread writes this counter
+        }
+        Thread decoder = decoderThread;
+        if (decoder != null) LockSupport.unpark(decoder);
+    }
+
+    @Override
+    public void webcamOpen(WebcamEvent event) {}
+
+    @Override
+    public void webcamClosed(WebcamEvent event) {
+        Thread decoder = decoderThread;
+        if (decoder != null) LockSupport.unpark(decoder);
+    }
+
+    @Override
+    public void webcamDisposed(WebcamEvent event) {
+        webcamClosed(event);
+    }
+
+    // --- Decoding ---
+
+    private String decodeFrame(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int side = (int) (Math.min(width, height) * ROI_FRACTION);
+        String text = decode(regionOfInterest(image, (width - side) / 2, (height - side) / 2, side));
+        if (text != null) {
+            missesSinceFullFrame = 0;
+            return text;
+        }
+        // A label held off-centre is still found, just less often
+        if (++missesSinceFullFrame >= FULL_FRAME_EVERY) {
+            missesSinceFullFrame = 0;
+            return decode(new BufferedImageLuminanceSource(image));
+        }
+        return null;
+    }
+
+    // Crop of the centre square, drawn into a small grayscale buffer when it is larger than needed
+    private LuminanceSource regionOfInterest(BufferedImage image, int left, int top, int side) {
+        if (side <= ROI_MAX_SIDE) {
+            return new BufferedImageLuminanceSource(image, left, top, side, side);
+        }
+        if (roiBuffer == null) {
+            roiBuffer = new BufferedImage(ROI_MAX_SIDE, ROI_MAX_SIDE, BufferedImage.TYPE_BYTE_GRAY);
+        }
+        Graphics2D g = roiBuffer.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, ROI_MAX_SIDE, ROI_MAX_SIDE, left, top, left + side, top + side, null);
+        } finally {
+            g.dispose();
+        }
+        return new BufferedImageLuminanceSource(roiBuffer);
+    }
+
+    private String decode(LuminanceSource source) {
+        try {
+            Result result = reader.decode(new BinaryBitmap(new HybridBinarizer(source)), LIVE_HINTS);
+            return result.getText();
+        } catch (NotFoundException | ChecksumException | FormatException e) {
+            return null; // No readable code in this frame
+        } catch (RuntimeException e) {
+            System.err.println("QR decode error: " + e.getMessage());
+            return null;
+        } finally {
+            reader.reset();
+        }
+    }
+
+    // --- Throttling ---
+
+    private void recordDecode(long elapsedNanos) {
+        Metrics.record("scanner.decode", elapsedNanos);
+        double millis = elapsedNanos / 1_000_000.0;
+        lastDecodeMillis = millis;
+        averageDecodeMillis = framesDecoded == 0
+            ? millis
+            : averageDecodeMillis + AVERAGE_WEIGHT * (millis - averageDecodeMillis);
+        framesDecoded++;
+    }
+
+    // Idle long enough that decoding takes about 1 / DUTY_FACTOR of the time
+    private long nextIntervalMillis() {
+        long interval = Math.round(averageDecodeMillis * DUTY_FACTOR);
+        return Math.max(MIN_INTERVAL_MS, Math.min(MAX_INTERVAL_MS, interval));
+    }
+
+    // Sleeps unless the wait is already over; false if the thread was interrupted
+    private boolean pause(long millis) {
+        if (millis <= 0) return true;
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
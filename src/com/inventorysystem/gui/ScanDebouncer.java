@@ -0,0 +1,48 @@
+package com.inventorysystem.gui;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drops repeat reads of the same QR code. A code is accepted unless it was
+ * last seen less than the repeat window ago; every sighting restarts the
+ * window, so a label left in front of the camera counts once. Different codes
+ * never wait on each other. Only the most recently seen codes are remembered.
+ */
+final class ScanDebouncer {
+
+    private static final int MAX_CODES = 64;
+
+    private final long windowNanos;
+    // Payload -> last time it was seen, least recently seen first
+    private final Map<String, Long> lastSeen = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_CODES;
+        }
+    };
+
+    ScanDebouncer(long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Scan repeat window cannot be negative.");
+        }
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    /**
+     * Records a read of the code and returns true if it should be processed.
+     */
+    synchronized boolean accept(String code) {
+        long now = System.nanoTime();
+        Long previous = lastSeen.put(code, now);
+        return previous == null || now - previous >= windowNanos;
+    }
+
+    /**
+     * Forgets every recent code, so the next read of any code counts again.
+     */
+    synchronized void reset() {
+        lastSeen.clear();
+    }
+}
@@ -1,6 +1,8 @@
 package com.inventorysystem.gui;
 
+import com.inventorysystem.data.AsyncRepository;
 import com.inventorysystem.data.UserRepository;
+import com.inventorysystem.util.AppExecutors;
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.*;
@@ -16,6 +18,7 @@ public class SignupPanel extends JPanel {
     private userFrame mainFrame;
     private UserRepository userRepository;
     private BufferedImage backgroundImage;
+    private boolean signupInProgress = false;
 
     public SignupPanel(userFrame mainFrame) {
         this.mainFrame = mainFrame;
@@ -172,24 +175,31 @@ public class SignupPanel extends JPanel {
             return;
         }
 
-        try {
-            // Create as Admin (not Employee)
-            boolean success = userRepository.signup(username, password, "Admin");
-            if (success) {
-                showStyledMessage("Admin account created successfully!\nYou can now log in and add employees.", 
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-                userField.setText("");
-                passField.setText("");
-                mainFrame.showLoginPanel();
-            }
-        } catch (SQLException ex) {
-            if (ex.getErrorCode() == 1062) {
-                showStyledMessage("Username '" + username + "' already exists.", 
-                    "Registration Error", JOptionPane.ERROR_MESSAGE);
-            } else {
-                showStyledMessage("Database error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        }
+        if (signupInProgress) return;
+        signupInProgress = true;
+
+        // Create as Admin (not Employee)
+        AppExecutors.onEdt(
+            AsyncRepository.of(userRepository).supply(users -> users.signup(username, password, "Admin")),
+            success -> {
+                signupInProgress = false;
+                if (success) {
+                    showStyledMessage("Admin account created successfully!\nYou can now log in and add employees.", 
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                    userField.setText("");
+                    passField.setText("");
+                    mainFrame.showLoginPanel();
+                }
+            },
+            error -> {
+                signupInProgress = false;
+                if (error instanceof SQLException ex && ex.getErrorCode() == 1062) {
+                    showStyledMessage("Username '" + username + "' already exists.", 
+                        "Registration Error", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    showStyledMessage("Database error: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
     }
 
     private void showStyledMessage(String message, String title, int messageType) {
@@ -1,15 +1,16 @@
 package com.inventorysystem.gui;
 
+import com.inventorysystem.data.AsyncRepository;
 import com.inventorysystem.data.StoreRepository;
 import com.inventorysystem.data.UserRepository;
 import com.inventorysystem.model.Store;
+import com.inventorysystem.util.AppExecutors;
 
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.sql.SQLException;
 
 // Dialog window for editing store details and default markup
 public class StoreSettingsDialog extends JDialog {
@@ -57,34 +58,41 @@ public class StoreSettingsDialog extends JDialog {
         add(createButtonPanel(), BorderLayout.SOUTH);
     }
 
-    // Get store data from database and fill the fields
+    // Get store data from database (off the EDT) and fill the fields
     private void loadStoreData() {
-        try {
-            Store currentStore = storeRepo.getStoreByUserId(mainFrame.loggedInUserId);
-            if (currentStore == null) {
-                JOptionPane.showMessageDialog(this, "Could not find store profile.", 
-                    "Error", JOptionPane.ERROR_MESSAGE);
+        int userId = mainFrame.loggedInUserId;
+        AppExecutors.onEdt(
+            AsyncRepository.of(storeRepo).supply(stores -> {
+                Store store = stores.getStoreByUserId(userId);
+                double markup = store == null ? 0.0 : new UserRepository().getDefaultMarkup(userId);
+                return new StoreSettings(store, markup);
+            }),
+            settings -> {
+                Store currentStore = settings.store();
+                if (currentStore == null) {
+                    JOptionPane.showMessageDialog(this, "Could not find store profile.", 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    dispose();
+                    return;
+                }
+
+                // Fill in store info
+                nameField.setText(currentStore.name());
+                locationField.setText(currentStore.location());
+                contactField.setText(currentStore.contact());
+
+                // Fill in markup
+                markupField.setText(String.valueOf(settings.defaultMarkup()));
+            },
+            e -> {
+                JOptionPane.showMessageDialog(this, "Error loading data: " + e.getMessage(),
+                    "Database Error", JOptionPane.ERROR_MESSAGE);
                 dispose();
-                return;
-            }
-
-            // Fill in store info
-            nameField.setText(currentStore.name());
-            locationField.setText(currentStore.location());
-            contactField.setText(currentStore.contact());
-
-            // Fill in markup
-            UserRepository userRepo = new UserRepository();
-            double markup = userRepo.getDefaultMarkup(mainFrame.loggedInUserId);
-            markupField.setText(String.valueOf(markup));
-
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading data: " + e.getMessage(),
-                "Database Error", JOptionPane.ERROR_MESSAGE);
-            dispose();
-        }
+            });
     }
 
+    private record StoreSettings(Store store, double defaultMarkup) {}
+
     // Tab 1: Store profile fields (name, location, contact)
     private JPanel createStoreProfilePanel() {
         JPanel panel = new JPanel(new GridBagLayout());
@@ -225,36 +233,39 @@ public class StoreSettingsDialog extends JDialog {
             return;
         }
 
+        // Check markup before saving anything
+        double newMarkup;
         try {
-            // Save store details
-            storeRepo.updateStore(mainFrame.loggedInUserId, newName, newLocation, newContact);
-            
-            // Update the labels in navigation sidebar
-            storeNameLabel.setText(newName);
-            storeLocationLabel.setText(newLocation.isEmpty() ? "No location" : newLocation);
-            storeContactLabel.setText(newContact.isEmpty() ? "No contact" : newContact);
-
-            // Save markup percentage
-            double newMarkup = Double.parseDouble(markupField.getText().trim());
-            if (newMarkup < 0) {
-                JOptionPane.showMessageDialog(this, "Markup cannot be negative.",
-                    "Input Error", JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
-            UserRepository userRepo = new UserRepository();
-            userRepo.updateDefaultMarkup(mainFrame.loggedInUserId, newMarkup);
-
-            JOptionPane.showMessageDialog(this, "Settings saved successfully!",
-                "Success", JOptionPane.INFORMATION_MESSAGE);
-            dispose();
-
+            newMarkup = Double.parseDouble(markupField.getText().trim());
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Invalid markup percentage.",
                 "Input Error", JOptionPane.WARNING_MESSAGE);
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this, "Error saving: " + ex.getMessage(),
-                "Database Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (newMarkup < 0) {
+            JOptionPane.showMessageDialog(this, "Markup cannot be negative.",
+                "Input Error", JOptionPane.WARNING_MESSAGE);
+            return;
         }
+
+        // Save store details and markup percentage off the EDT
+        int userId = mainFrame.loggedInUserId;
+        AppExecutors.onEdt(
+            AsyncRepository.of(storeRepo).run(stores -> {
+                stores.updateStore(userId, newName, newLocation, newContact);
+                new UserRepository().updateDefaultMarkup(userId, newMarkup);
+            }),
+            done -> {
+                // Update the labels in navigation sidebar
+                storeNameLabel.setText(newName);
+                storeLocationLabel.setText(newLocation.isEmpty() ? "No location" : newLocation);
+                storeContactLabel.setText(newContact.isEmpty() ? "No contact" : newContact);
+
+                JOptionPane.showMessageDialog(this, "Settings saved successfully!",
+                    "Success", JOptionPane.INFORMATION_MESSAGE);
+                dispose();
+            },
+            ex -> JOptionPane.showMessageDialog(this, "Error saving: " + ex.getMessage(),
+                "Database Error", JOptionPane.ERROR_MESSAGE));
     }
 }
@@ -0,0 +1,252 @@
+package com.inventorysystem.gui;
+
+import com.inventorysystem.data.AsyncRepository;
+import com.inventorysystem.data.RecordsRepository;
+import com.inventorysystem.model.TransactionPage;
+import com.inventorysystem.model.TransactionRecord;
+import com.inventorysystem.util.AppExecutors;
+
+import javax.swing.table.AbstractTableModel;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+// Table model for the transaction history that loads rows page by page as they are shown.
+// Only a few pages are kept in memory; the row count comes from a separate count query.
+// A page whose key is not known yet (a far jump down the scrollbar) is reached by one
+// seek query from the nearest known key; only one such seek runs at a time.
+public class TransactionHistoryTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"#", "Date", "Product", "Type", "Qty", "Retail", "Cost/Unit", "Total"};
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 10;
+
+    private final AsyncRepository<RecordsRepository> recordsRepository;
+    private final int userId;
+
+    // Everything below is only touched on the EDT
+    private Timestamp startDate;
+    private Timestamp endDate;
+    private String search;
+    private int rowCount = 0;
+    private int generation = 0;
+    // Queries of the current generation; cancelled when the range or search changes
+    private final Set<CompletableFuture<?>> inFlight = new HashSet<>();
+    // Key to fetch each page whose start is known (page 0 -> null, the first page); keys are tiny, so all are kept
+    private final TreeMap<Integer, TransactionPage.Key> pageKeys = new TreeMap<>();
+    private int lastPage = Integer.MAX_VALUE; // Index of the final page once it has been read
+    private final Set<Integer> requestedPages = new HashSet<>();
+    // The page the running seek is heading for, and the newest far page asked for meanwhile
+    private int seekTarget = -1;
+    private int nextSeekTarget = -1;
+    private final LinkedHashMap<Integer, List<TransactionRecord>> pages =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<TransactionRecord>> eldest) {
+                if (size() > MAX_CACHED_PAGES) {
+                    requestedPages.remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+    public TransactionHistoryTableModel(RecordsRepository recordsRepository, int userId) {
+        this.recordsRepository = AsyncRepository.of(recordsRepository);
+        this.userId = userId;
+    }
+
+    /** Starts over for a new date range or search; reloads the count and the first page. */
+    public void reload(Timestamp startDate, Timestamp endDate, String search, java.util.function.Consumer<Throwable> onError) {
+        final int gen = ++generation;
+        for (CompletableFuture<?> load : inFlight) {
+            load.cancel(true);
+        }
+        inFlight.clear();
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.search = search;
+        pages.clear();
+        requestedPages.clear();
+        pageKeys.clear();
+        pageKeys.put(0, null);
+        lastPage = Integer.MAX_VALUE;
+        seekTarget = -1;
+        nextSeekTarget = -1;
+        requestedPages.add(0);
+
+        // Count and first page in one background task
+        CompletableFuture<FirstLoad> load = recordsRepository.supply(repo -> new FirstLoad(
+            repo.countTransactions(userId, startDate, endDate, search),
+            repo.getTransactionPage(userId, startDate, endDate, search, null, PAGE_SIZE)));
+        inFlight.add(load);
+        AppExecutors.onEdt(
+            load,
+            first -> {
+                inFlight.remove(load);
+                if (gen != generation) return;
+                rowCount = first.count();
+                storePage(0, first.page());
+                fireTableDataChanged();
+            },
+            error -> {
+                inFlight.remove(load);
+                System.err.println("Error loading transaction history: " + error.getMessage());
+                if (gen != generation) return;
+                rowCount = 0;
+                fireTableDataChanged();
+                onError.accept(error);
+            });
+    }
+
+    private record FirstLoad(int count, TransactionPage page) {}
+
+    // Load the page holding this row: directly when its key is known, otherwise through a seek
+    private void requestPage(int page) {
+        if (requestedPages.contains(page) || page > lastPage) return;
+        if (!pageKeys.containsKey(page)) {
+            requestSeek(page);
+            return;
+        }
+        requestedPages.add(page);
+
+        final int gen = generation;
+        final TransactionPage.Key key = pageKeys.get(page);
+        final Timestamp start = startDate, end = endDate;
+        final String text = search;
+
+        CompletableFuture<TransactionPage> load = recordsRepository.supply(
+            repo -> repo.getTransactionPage(userId, start, end, text, key, PAGE_SIZE));
+        inFlight.add(load);
+        AppExecutors.onEdt(
+            load,
+            result -> {
+                inFlight.remove(load);
+                if (gen != generation) return;
+                requestedPages.remove(page);
+                storePage(page, result);
+                firePageUpdated(page);
+            },
+            error -> {
+                inFlight.remove(load);
+                System.err.println("Error loading transaction page: " + error.getMessage());
+                if (gen == generation) requestedPages.remove(page);
+            });
+    }
+
+    // Seek from the nearest known key to the page's key, then read the page. While a seek runs,
+    // newer far targets replace each other and the latest one starts when it finishes, so
+    // dragging the scrollbar costs at most one seek in flight and one waiting.
+    private void requestSeek(int page) {
+        if (seekTarget == page) return;
+        if (seekTarget >= 0) {
+            nextSeekTarget = page;
+            return;
+        }
+        seekTarget = page;
+
+        final int gen = generation;
+        final Map.Entry<Integer, TransactionPage.Key> from = pageKeys.floorEntry(page);
+        final int rowsToSkip = (page - from.getKey()) * PAGE_SIZE;
+        final Timestamp start = startDate, end = endDate;
+        final String text = search;
+
+        CompletableFuture<SeekResult> load = recordsRepository.supply(repo -> {
+            TransactionPage.Key key = repo.skipTransactions(userId, start, end, text, from.getValue(), rowsToSkip);
+            return new SeekResult(key, key == null ? null : repo.getTransactionPage(userId, start, end, text, key, PAGE_SIZE));
+        });
+        inFlight.add(load);
+        AppExecutors.onEdt(
+            load,
+            result -> {
+                inFlight.remove(load);
+                if (gen != generation) return;
+                if (result.key() == null) {
+                    // History shrank since the count was taken; nothing lives this far down
+                    lastPage = Math.min(lastPage, page - 1);
+                } else {
+                    pageKeys.put(page, result.key());
+                    storePage(page, result.page());
+                    firePageUpdated(page);
+                }
+                finishSeek();
+            },
+            error -> {
+                inFlight.remove(load);
+                System.err.println("Error seeking transaction history: " + error.getMessage());
+                if (gen == generation) finishSeek();
+            });
+    }
+
+    private record SeekResult(TransactionPage.Key key, TransactionPage page) {}
+
+    // Start the seek that was waiting, unless that page has been loaded meanwhile
+    private void finishSeek() {
+        seekTarget = -1;
+        int next = nextSeekTarget;
+        nextSeekTarget = -1;
+        if (next >= 0 && !pages.containsKey(next)) requestPage(next);
+    }
+
+    private void firePageUpdated(int page) {
+        int first = page * PAGE_SIZE;
+        int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+        if (last >= first) fireTableRowsUpdated(first, last);
+    }
+
+    private void storePage(int page, TransactionPage result) {
+        pages.put(page, result.rows());
+        if (result.nextKey() == null) {
+            lastPage = page;
+        } else {
+            pageKeys.put(page + 1, result.nextKey());
+        }
+        requestedPages.add(page); // Stays "requested" until evicted from the cache
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column == 0) return row + 1;
+
+        int page = row / PAGE_SIZE;
+        List<TransactionRecord> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return column == 1 ? "Loading..." : "";
+        }
+        int index = row % PAGE_SIZE;
+        if (index >= rows.size()) return ""; // History changed since the count was taken
+
+        TransactionRecord record = rows.get(index);
+        switch (column) {
+            case 1: return record.transactionDate();
+            case 2: return record.productName();
+            case 3: return record.transactionType();
+            case 4: return record.quantity();
+            case 5: return record.retailPrice() == 0.0 ? "" : String.format("₱%,.2f", record.retailPrice());
+            case 6: return String.format("₱%,.2f", record.unitPrice());
+            case 7: return String.format("₱%,.2f", record.total());
+            default: return "";
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.inventorysystem.gui;
 
+import com.inventorysystem.data.AsyncRepository;
 import com.inventorysystem.data.DashboardRepository;
-import com.inventorysystem.data.UserRepository;
+import com.inventorysystem.model.DashboardSnapshot;
+import com.inventorysystem.util.AppExecutors;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 // Dashboard with compact stats and detailed sections
 public class dashboardPanel extends JPanel {
@@ -27,30 +29,18 @@ public class dashboardPanel extends JPanel {
     private DefaultTableModel stockAlertModel;
 
     private final int userId;
-    private final DashboardRepository dashboardRepository;
-    private final UserRepository userRepository;
+    private final AsyncRepository<DashboardRepository> dashboardRepository;
     private DateRangePanel dateRangePanel;
 
+    // Only the newest load may update the UI; a new one cancels the query still running
+    private int loadGeneration = 0; // Only touched on the EDT
+    private CompletableFuture<DashboardSnapshot> pendingLoad;
+
     public dashboardPanel(userFrame mainFrame) {
-        int originalUserId = mainFrame.loggedInUserId;
-        String userRole = mainFrame.loggedInUserRole;
-        this.userRepository = new UserRepository();
-        
-        // For employees, use their admin's user_id to see admin's data
-        int effectiveUserId = originalUserId;
-        if (userRole.equalsIgnoreCase("Employee")) {
-            try {
-                int adminId = userRepository.getAdminIdForEmployee(originalUserId);
-                if (adminId > 0) {
-                    effectiveUserId = adminId;
-                }
-            } catch (Exception e) {
-                System.err.println("Error getting admin ID for employee: " + e.getMessage());
-            }
-        }
-        this.userId = effectiveUserId;
+        // Employees see their admin's data; resolved once at login
+        this.userId = mainFrame.effectiveUserId;
         
-        this.dashboardRepository = new DashboardRepository();
+        this.dashboardRepository = AsyncRepository.of(new DashboardRepository());
 
         setLayout(new BorderLayout(15, 15));
         setBackground(UIConstants.BACKGROUND_COLOR);
@@ -461,140 +451,77 @@ public class dashboardPanel extends JPanel {
         return section;
     }
 
-    
-    private void refreshData() {
-        updateTotalProducts();
-        updateTotalStock();
-        updateOutOfStock();
-        updateTotalCost();
-        updateTotalIncomeWithDateRange();
-        updateTotalProfitWithDateRange();
-        updateInventoryOverview();
-        updateBestSellers();
-        updateStockAlerts();
-    }
 
-    private void updateTotalProducts() {
-        try {
-            int count = dashboardRepository.getTotalProducts(userId);
-            totalProductsValue.setText(String.valueOf(count));
-        } catch (SQLException e) {
-            System.err.println("Error updating total products: " + e.getMessage());
-            totalProductsValue.setText("Error");
+    // Load the whole dashboard off the EDT; a newer refresh cancels the one in flight
+    private void refreshData() {
+        final int generation = ++loadGeneration;
+        if (pendingLoad != null) {
+            pendingLoad.cancel(true);
         }
-    }
 
-    private void updateTotalStock() {
-        try {
-            int totalStock = dashboardRepository.getTotalStock(userId);
-            totalStockValue.setText(String.valueOf(totalStock));
-        } catch (SQLException e) {
-             System.err.println("Error updating total stock: " + e.getMessage());
-            totalStockValue.setText("Error");
-        }
-    }
+        final java.sql.Timestamp startDate = dateRangePanel.getRangeStart();
+        final java.sql.Timestamp endDate = dateRangePanel.getRangeEndExclusive();
 
-    private void updateOutOfStock() {
-        try {
-            int outOfStock = dashboardRepository.getOutOfStockCount(userId);
-            outOfStockValue.setText(String.valueOf(outOfStock));
-        } catch (SQLException e) {
-             System.err.println("Error updating out of stock count: " + e.getMessage());
-            outOfStockValue.setText("Error");
-        }
+        pendingLoad = dashboardRepository.supply(repo -> repo.getSnapshot(userId, startDate, endDate, 5));
+        AppExecutors.onEdt(
+            pendingLoad,
+            snapshot -> {
+                if (generation == loadGeneration) applySnapshot(snapshot);
+            },
+            error -> {
+                System.err.println("Error loading dashboard: " + error.getMessage());
+                if (generation == loadGeneration) showLoadError();
+            });
     }
 
-    private void updateTotalCost() {
-        try {
-            double totalCost = dashboardRepository.getTotalInventoryCost(userId);
-            totalCostValue.setText("₱" + String.format("%,.0f", totalCost));
-        } catch (SQLException e) {
-            System.err.println("Error updating total inventory cost: " + e.getMessage());
-            totalCostValue.setText("Error");
-        }
-    }
+    // Publish a loaded snapshot to every card and table in one EDT update
+    private void applySnapshot(DashboardSnapshot snapshot) {
+        totalProductsValue.setText(String.valueOf(snapshot.totalProducts()));
+        totalStockValue.setText(String.valueOf(snapshot.totalStock()));
+        outOfStockValue.setText(String.valueOf(snapshot.outOfStockCount()));
+        totalCostValue.setText("₱" + String.format("%,.0f", snapshot.totalInventoryCost()));
+        totalIncomeValue.setText("₱" + String.format("%,.0f", snapshot.totalIncome()));
+        totalProfitValue.setText("₱" + String.format("%,.0f", snapshot.totalProfit()));
 
-    private void updateTotalIncomeWithDateRange() {
-        try {
-            java.sql.Date startDate = dateRangePanel.getSqlStartDate();
-            java.sql.Date endDate = dateRangePanel.getSqlEndDate();
-            double totalIncome = dashboardRepository.getTotalIncome(userId, startDate, endDate);
-            totalIncomeValue.setText("₱" + String.format("%,.0f", totalIncome));
-        } catch (SQLException e) {
-            System.err.println("Error updating total income: " + e.getMessage());
-            totalIncomeValue.setText("Error");
-        }
-    }
+        // Inventory overview reuses the card totals instead of querying again
+        totalItemsLabel.setText(String.valueOf(snapshot.totalProducts()));
+        currentValueLabel.setText("₱" + String.format("%,.0f", snapshot.totalInventoryCost()));
 
-    private void updateTotalProfitWithDateRange() {
-        try {
-            java.sql.Date startDate = dateRangePanel.getSqlStartDate();
-            java.sql.Date endDate = dateRangePanel.getSqlEndDate();
-            double totalProfit = dashboardRepository.getTotalProfit(userId, startDate, endDate);
-            totalProfitValue.setText("₱" + String.format("%,.0f", totalProfit));
-        } catch (SQLException e) {
-            System.err.println("Error updating total profit: " + e.getMessage());
-            totalProfitValue.setText("Error");
-        }
-    }
-    
-    private void updateInventoryOverview() {
-        try {
-            int totalItems = dashboardRepository.getTotalProducts(userId);
-            double currentValue = dashboardRepository.getTotalInventoryCost(userId);
-            totalItemsLabel.setText(String.valueOf(totalItems));
-            currentValueLabel.setText("₱" + String.format("%,.0f", currentValue));
-        } catch (SQLException e) {
-            System.err.println("Error updating inventory overview: " + e.getMessage());
-        }
-    }
-    
-    private void updateBestSellers() {
-        try {
-            bestSellersModel.setRowCount(0);
-            
-            // Get dates from the panel
-            java.sql.Date startDate = dateRangePanel.getSqlStartDate();
-            java.sql.Date endDate = dateRangePanel.getSqlEndDate();
-            
-            // Call the date-aware repository method
-            java.util.List<Object[]> bestSellers = dashboardRepository.getBestSellers(userId, startDate, endDate, 5);
-            
-            if (bestSellers.isEmpty()) {
-                // Updated placeholder message
-                bestSellersModel.addRow(new Object[]{"", "No sales in this period", "", "", "", ""});
-            } else {
-                int rowNum = 1;
-                for (Object[] row : bestSellers) {
-                    Object[] rowWithNumber = new Object[row.length + 1];
-                    rowWithNumber[0] = rowNum++;
-                    System.arraycopy(row, 0, rowWithNumber, 1, row.length);
-                    bestSellersModel.addRow(rowWithNumber);
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error updating best sellers: " + e.getMessage());
-            bestSellersModel.setRowCount(0);
-            bestSellersModel.addRow(new Object[]{"", "Error loading data", "", "", "", ""});
-        }
-    }
-    
-    private void updateStockAlerts() {
-        try {
-            stockAlertModel.setRowCount(0);
-            java.util.List<Object[]> alerts = dashboardRepository.getStockAlerts(userId);
+        bestSellersModel.setRowCount(0);
+        if (snapshot.bestSellers().isEmpty()) {
+            bestSellersModel.addRow(new Object[]{"", "No sales in this period", "", "", "", ""});
+        } else {
             int rowNum = 1;
-            for (Object[] row : alerts) {
+            for (Object[] row : snapshot.bestSellers()) {
                 Object[] rowWithNumber = new Object[row.length + 1];
                 rowWithNumber[0] = rowNum++;
                 System.arraycopy(row, 0, rowWithNumber, 1, row.length);
-                stockAlertModel.addRow(rowWithNumber);
+                bestSellersModel.addRow(rowWithNumber);
             }
-        } catch (SQLException e) {
-            System.err.println("Error updating stock alerts: " + e.getMessage());
-            stockAlertModel.setRowCount(0);
-            stockAlertModel.addRow(new Object[]{"", "Error loading data", "", ""});
         }
+
+        stockAlertModel.setRowCount(0);
+        int rowNum = 1;
+        for (Object[] row : snapshot.stockAlerts()) {
+            Object[] rowWithNumber = new Object[row.length + 1];
+            rowWithNumber[0] = rowNum++;
+            System.arraycopy(row, 0, rowWithNumber, 1, row.length);
+            stockAlertModel.addRow(rowWithNumber);
+        }
+    }
+
+    private void showLoadError() {
+        totalProductsValue.setText("Error");
+        totalStockValue.setText("Error");
+        outOfStockValue.setText("Error");
+        totalCostValue.setText("Error");
+        totalIncomeValue.setText("Error");
+        totalProfitValue.setText("Error");
+
+        bestSellersModel.setRowCount(0);
+        bestSellersModel.addRow(new Object[]{"", "Error loading data", "", "", "", ""});
+        stockAlertModel.setRowCount(0);
+        stockAlertModel.addRow(new Object[]{"", "Error loading data", "", ""});
     }
 
     // Test method
@@ -605,6 +532,7 @@ public class dashboardPanel extends JPanel {
             frame.setSize(1400, 900);
             userFrame mockFrame = new userFrame();
             mockFrame.loggedInUserId = 1;
+            mockFrame.effectiveUserId = 1;
             mockFrame.loggedInUserRole = "Admin";
             frame.add(new dashboardPanel(mockFrame));
             frame.setLocationRelativeTo(null);
@@ -6,21 +6,15 @@ import com.github.sarxos.webcam.Webcam;
 import com.github.sarxos.webcam.WebcamException;
 import com.github.sarxos.webcam.WebcamPanel;
 import com.github.sarxos.webcam.WebcamResolution;
-import com.google.zxing.BinaryBitmap;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.LuminanceSource;
-import com.google.zxing.MultiFormatReader;
 import com.google.zxing.NotFoundException;
-import com.google.zxing.Result;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.common.HybridBinarizer;
-import com.google.zxing.qrcode.QRCodeWriter;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import com.inventorysystem.model.*;
+import com.inventorysystem.util.AppConfig;
+import com.inventorysystem.util.AppExecutors;
+import com.inventorysystem.util.QRPayload;
 import com.inventorysystem.util.SoundUtil;
 
 import javax.imageio.ImageIO;
@@ -28,20 +22,17 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.*;
 import java.awt.*;
-import java.awt.font.TextAttribute;
-import java.awt.geom.Rectangle2D;
-import java.text.AttributedString;
 import javax.swing.border.LineBorder;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 public class productsPanel extends JPanel {
@@ -59,12 +50,41 @@ public class productsPanel extends JPanel {
     // --- Webcam & Scanner ---
     private WebcamPanel webcamPanel;
     private Webcam webcam;
-    private final Executor executor = Executors.newSingleThreadExecutor();
     private final AtomicBoolean isScanning = new AtomicBoolean(false);
+    private static final double PREVIEW_FPS = 15;
+    // Repeat reads of one label inside the window count once; other labels are never held back
+    private final ScanDebouncer scanDebouncer = new ScanDebouncer(AppConfig.getLong("scan.repeatWindowMs", 2000L));
+    private JButton countAgainButton;
+
+    // --- Scan journal ---
+    // Scan writes go to the local journal first; null if it could not be opened
+    private ScanReplayer scanReplayer;
+    private JLabel pendingScansLabel;
+    // Coalesces table reloads while a backlog of scans is being replayed
+    private final Timer replayRefreshTimer = new Timer(300, e -> loadProductsFromDB());
+    private final ScanReplayer.Listener replayListener = new ScanReplayer.Listener() {
+        @Override
+        public void applied(ScanJournal.Entry entry, long result) {
+            SwingUtilities.invokeLater(replayRefreshTimer::restart);
+        }
+
+        @Override
+        public void failed(ScanJournal.Entry entry, String message) {
+            SwingUtilities.invokeLater(() -> showReplayFailure(entry, message));
+        }
+
+        @Override
+        public void pendingChanged(int pendingCount) {
+            SwingUtilities.invokeLater(() -> updatePendingScansLabel(pendingCount));
+        }
+    };
 
     // --- Data & State ---
     private final int userId;
     private final ProductRepository productRepository;
+    // Same repository, called off the EDT
+    private final AsyncRepository<ProductRepository> asyncProductRepository;
+    private int productLoadGeneration = 0; // Only the newest table load is shown
     private final UserRepository userRepository;
     private final String userRole;
     private final userFrame mainFrame;
@@ -82,20 +102,15 @@ public class productsPanel extends JPanel {
         this.userRole = mainFrame.loggedInUserRole;
         this.userRepository = new UserRepository();
         
-        // For employees, use their admin's user_id to access admin's products
-        int effectiveUserId = this.userId;
-        if (userRole.equalsIgnoreCase("Employee")) {
-            try {
-                int adminId = userRepository.getAdminIdForEmployee(this.userId);
-                if (adminId > 0) {
-                    effectiveUserId = adminId;
-                }
-            } catch (SQLException e) {
-                System.err.println("Error getting admin ID for employee: " + e.getMessage());
-            }
+        // For employees, use their admin's user_id (resolved at login) to access admin's products
+        this.productRepository = new ProductRepository(mainFrame.effectiveUserId);
+        this.asyncProductRepository = AsyncRepository.of(productRepository);
+        replayRefreshTimer.setRepeats(false);
+        try {
+            this.scanReplayer = ScanReplayer.forUser(mainFrame.effectiveUserId);
+        } catch (IOException e) {
+            System.err.println("Scan journal unavailable: " + e.getMessage());
         }
-        
-        this.productRepository = new ProductRepository(effectiveUserId);
 
         setLayout(new BorderLayout(10, 10));
         setBackground(Color.WHITE);
@@ -127,6 +142,23 @@ public class productsPanel extends JPanel {
         loadProductsFromDB();
     }
 
+    // Follow the replayer only while this panel is on screen, so a logged-out panel stops listening
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (scanReplayer != null) {
+            scanReplayer.addListener(replayListener);
+            updatePendingScansLabel(scanReplayer.getPendingCount());
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (scanReplayer != null) scanReplayer.removeListener(replayListener);
+        replayRefreshTimer.stop();
+        super.removeNotify();
+    }
+
     private JPanel createTopPanel() {
         JPanel topPanel = new JPanel(new BorderLayout(15, 0));
         topPanel.setBackground(Color.WHITE);
@@ -340,14 +372,14 @@ public class productsPanel extends JPanel {
                         generateQRButton.setEnabled(true);
                         sellProductButton.setEnabled(true);
                     } else {
-                        // Multiple selection - disable edit, QR, and sell
+                        // Multiple selection - disable edit; QR prints label sheets, sell opens a basket with all selected
                         addProductButton.setText("Add / Edit Product");
                         addProductButton.setEnabled(false);
                         setMarkupButton.setText("Set Markup (" + selectedCount + " selected)");
                         setMarkupButton.setEnabled(true);
-                        generateQRButton.setText("Generate QR Code");
-                        generateQRButton.setEnabled(false);
-                        sellProductButton.setEnabled(false);
+                        generateQRButton.setText("QR Labels (" + selectedCount + " selected)");
+                        generateQRButton.setEnabled(true);
+                        sellProductButton.setEnabled(true);
                     }
                 }
             });
@@ -421,6 +453,12 @@ public class productsPanel extends JPanel {
         toggleScanButton.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
         
         // Changed from WARNING_COLOR to ACCENT_COLOR for better alignment
+        // Lets the same label be counted again without waiting out the repeat window
+        countAgainButton = createSideButton("Count Again", UIConstants.PRIMARY_COLOR);
+        countAgainButton.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
+        countAgainButton.setToolTipText("Accept the next read of the label just scanned");
+        countAgainButton.setEnabled(false);
+
         JButton scanImageButton = createSideButton("Scan QR from Image", UIConstants.ACCENT_COLOR);
         scanImageButton.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
         
@@ -429,9 +467,35 @@ public class productsPanel extends JPanel {
 
         scannerButtonsPanel.add(toggleScanButton);
         scannerButtonsPanel.add(Box.createRigidArea(new Dimension(0, 6)));
+        scannerButtonsPanel.add(countAgainButton);
+        scannerButtonsPanel.add(Box.createRigidArea(new Dimension(0, 6)));
         scannerButtonsPanel.add(scanImageButton);
         scannerButtonsPanel.add(Box.createRigidArea(new Dimension(0, 6)));
         scannerButtonsPanel.add(generateQRDialogButton);
+        scannerButtonsPanel.add(Box.createRigidArea(new Dimension(0, 6)));
+
+        // Label sheets for a selection or a whole category
+        JButton batchLabelsButton = createSideButton("Print QR Labels", UIConstants.SUCCESS_COLOR);
+        batchLabelsButton.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
+        if (userRole.equalsIgnoreCase("Employee")) {
+            batchLabelsButton.setEnabled(false);
+            batchLabelsButton.setBackground(Color.GRAY);
+        }
+        batchLabelsButton.addActionListener(e -> showBatchLabelDialog());
+        scannerButtonsPanel.add(batchLabelsButton);
+        scannerButtonsPanel.add(Box.createRigidArea(new Dimension(0, 6)));
+
+        // Scans saved locally but not yet in the database
+        pendingScansLabel = new JLabel();
+        pendingScansLabel.setFont(UIConstants.LABEL_FONT);
+        pendingScansLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        scannerButtonsPanel.add(pendingScansLabel);
+        if (scanReplayer != null) {
+            updatePendingScansLabel(scanReplayer.getPendingCount());
+        } else {
+            pendingScansLabel.setForeground(UIConstants.DANGER_COLOR);
+            pendingScansLabel.setText("Scan journal unavailable");
+        }
 
         controlsContainer.add(Box.createRigidArea(new Dimension(0, 8)));
         controlsContainer.add(scannerButtonsPanel);
@@ -460,6 +524,7 @@ public class productsPanel extends JPanel {
         removeStockButton.addActionListener(e -> handleRemoveStock());
         deleteProductButton.addActionListener(e -> handleDeleteProduct());
         toggleScanButton.addActionListener(e -> toggleScanner());
+        countAgainButton.addActionListener(e -> scanDebouncer.reset());
         scanImageButton.addActionListener(e -> handleScanQRFromImage());
 
         return mainSidePanel;
@@ -495,77 +560,68 @@ public class productsPanel extends JPanel {
 
     // --- Data Loading & Table Methods ---
 
-    /** Loads product data from the repository and populates the JTable. */
+    /** Loads product data from the repository off the EDT and populates the JTable. */
     private void loadProductsFromDB() {
-        tableModel.setRowCount(0);
-        
-        new Thread(() -> {
-            try {
-                List<Product> products = productRepository.getAllProducts();
-                double defaultMarkup = userRepository.getDefaultMarkup(userId);
-                
-                SwingUtilities.invokeLater(() -> {
-                    for (Product product : products) {
-                        // Get the stored retail price from database
-                        double storedRetailPrice = product.retailPrice();
-                        double displayRetailPrice;
-                        
-                        // Get product-specific markup from database
-                        String markupDisplay = "";
-                        Double productMarkup = null;
-                        
-                        try {
-                            productMarkup = productRepository.getProductMarkup(product.id());
-                        } catch (SQLException e) {
-                            markupDisplay = "N/A";
-                        }
-
-                        // Calculate display retail price based on priority:
-                        // 1. Use stored retail price if exists (> 0)
-                        // 2. Otherwise calculate from markup (product-specific or default)
-                        if (storedRetailPrice > 0.0) {
-                            displayRetailPrice = storedRetailPrice;
-                        } else {
-                            // Calculate from markup
-                            double costPrice = product.costPrice();
-                            double markupToUse = (productMarkup != null) ? productMarkup : defaultMarkup;
-                            displayRetailPrice = costPrice * (1 + markupToUse / 100.0);
-                            displayRetailPrice = Math.round(displayRetailPrice * 100.0) / 100.0;
-                        }
+        final int generation = ++productLoadGeneration;
+        // Markup and retail price come resolved from the same query; no per-row lookups
+        AppExecutors.onEdt(
+            asyncProductRepository.supply(ProductRepository::getAllProducts),
+            products -> {
+                if (generation != productLoadGeneration) return;
+                tableModel.setRowCount(0);
+                for (Product product : products) {
+                    double displayRetailPrice = product.effectiveRetailPrice();
+                    String markupDisplay = String.format("%.1f%%", product.effectiveMarkupPercent());
+
+                    // Calculate total retail price
+                    double totalRetailPrice = displayRetailPrice * product.stock();
+                    
+                    tableModel.addRow(new Object[]{
+                        tableModel.getRowCount() + 1, // Row number
+                        product.id(),
+                        product.name(),
+                        product.categoryName(),
+                        String.format("₱%,.2f", product.costPrice()),
+                        String.format("₱%,.2f", product.totalCost()),
+                        markupDisplay,
+                        String.format("₱%,.2f", displayRetailPrice),
+                        String.format("₱%,.2f", totalRetailPrice),
+                        product.stock()
+                    });
+                }
+            },
+            error -> {
+                showError("Error loading products: " + error.getMessage());
+                error.printStackTrace();
+            });
+    }
 
-                        // Set markup display text
-                        if (!markupDisplay.equals("N/A")) {
-                            if (productMarkup != null) {
-                                markupDisplay = String.format("%.1f%%", productMarkup);
-                            } else {
-                                markupDisplay = String.format("%.1f%%", defaultMarkup);
-                            }
-                        }
+    /**
+     * Runs a product change off the EDT. On success onSuccess runs on the EDT; on failure the
+     * error is shown. Either way the table is reloaded. The trigger button is disabled meanwhile.
+     */
+    private <T> void runProductUpdate(AsyncRepository.SqlCall<ProductRepository, T> call, Consumer<T> onSuccess,
+                                      String errorPrefix, int selectProductId, JButton trigger) {
+        if (trigger != null) trigger.setEnabled(false);
+        AppExecutors.onEdt(
+            asyncProductRepository.supply(call),
+            result -> {
+                if (trigger != null) trigger.setEnabled(true);
+                onSuccess.accept(result);
+                refreshAfterUpdate(selectProductId);
+            },
+            error -> {
+                if (trigger != null) trigger.setEnabled(true);
+                showError(errorPrefix + error.getMessage());
+                refreshAfterUpdate(selectProductId);
+            });
+    }
 
-                        // Calculate total retail price
-                        double totalRetailPrice = displayRetailPrice * product.stock();
-                        
-                        tableModel.addRow(new Object[]{
-                            tableModel.getRowCount() + 1, // Row number
-                            product.id(),
-                            product.name(),
-                            product.categoryName(),
-                            String.format("₱%,.2f", product.costPrice()),
-                            String.format("₱%,.2f", product.totalCost()),
-                            markupDisplay,
-                            String.format("₱%,.2f", displayRetailPrice),
-                            String.format("₱%,.2f", totalRetailPrice),
-                            product.stock()
-                        });
-                    }
-                });
-            } catch (SQLException e) {
-                SwingUtilities.invokeLater(() -> {
-                    showError("Error loading products: " + e.getMessage());
-                });
-                e.printStackTrace();
-            }
-        }).start();
+    private void refreshAfterUpdate(int selectProductId) {
+        loadProductsFromDB();
+        if (selectProductId > 0) {
+            findAndSelectProduct(String.valueOf(selectProductId));
+        }
     }
 
     /** Finds a product by ID in the table, selects it, and scrolls to it. */
@@ -589,25 +645,40 @@ public class productsPanel extends JPanel {
 
     /** Loads categories into a JComboBox and populates a Map to link names to IDs. */
     public void loadCategoriesIntoComboBox(JComboBox<String> comboBox, Map<String, Integer> categoryIdMap) {
+        loadCategoriesIntoComboBox(comboBox, categoryIdMap, null);
+    }
+
+    /** Loads categories off the EDT, then selects selectName if it is given. */
+    public void loadCategoriesIntoComboBox(JComboBox<String> comboBox, Map<String, Integer> categoryIdMap, String selectName) {
         comboBox.removeAllItems();
         categoryIdMap.clear();
-        try {
-            List<Category> categories = productRepository.getCategories();
-            if (categories.isEmpty()) {
-                comboBox.addItem("<No categories available>");
-                comboBox.setEnabled(false);
-            } else {
-                comboBox.setEnabled(true);
-                for (Category category : categories) {
-                    categoryIdMap.put(category.name(), category.id());
-                    comboBox.addItem(category.name());
+        comboBox.addItem("<Loading categories...>");
+        comboBox.setEnabled(false);
+
+        AppExecutors.onEdt(
+            asyncProductRepository.supply(ProductRepository::getCategories),
+            categories -> {
+                comboBox.removeAllItems();
+                if (categories.isEmpty()) {
+                    comboBox.addItem("<No categories available>");
+                    comboBox.setEnabled(false);
+                } else {
+                    comboBox.setEnabled(true);
+                    for (Category category : categories) {
+                        categoryIdMap.put(category.name(), category.id());
+                        comboBox.addItem(category.name());
+                    }
+                    if (selectName != null) {
+                        comboBox.setSelectedItem(selectName);
+                    }
                 }
-            }
-        } catch (SQLException e) {
-            showError("Could not load categories: " + e.getMessage());
-            comboBox.addItem("<Error loading categories>");
-            comboBox.setEnabled(false);
-        }
+            },
+            error -> {
+                comboBox.removeAllItems();
+                showError("Could not load categories: " + error.getMessage());
+                comboBox.addItem("<Error loading categories>");
+                comboBox.setEnabled(false);
+            });
     }
 
     // --- Manual Action Handlers ---
@@ -659,8 +730,9 @@ public class productsPanel extends JPanel {
         JComboBox<String> categoryComboBox = new JComboBox<>();
         Map<String, Integer> categoryIdMap = new HashMap<>();
 
-        // Load categories
-        loadCategoriesIntoComboBox(categoryComboBox, categoryIdMap);
+        // Load categories (in edit mode the product's category is selected once they arrive)
+        loadCategoriesIntoComboBox(categoryComboBox, categoryIdMap,
+            isEditMode ? String.valueOf(tableModel.getValueAt(selectedRow, 3)) : null);
 
         if (isEditMode) {
             try {
@@ -674,9 +746,6 @@ public class productsPanel extends JPanel {
                 
                 stockField.setText(tableModel.getValueAt(selectedRow, 9).toString());
                 
-                String categoryName = tableModel.getValueAt(selectedRow, 3).toString();
-                categoryComboBox.setSelectedItem(categoryName);
-                
                 idField.setEditable(false);
                 idField.setBackground(new Color(240, 240, 240));
             } catch (Exception e) {
@@ -824,24 +893,31 @@ public class productsPanel extends JPanel {
                 }
 
                 // No retail price or markup in this dialog - pass nulls
-                int newProductId = productRepository.manualUpsertProduct(id, name, categoryId, costPrice, null, null, stock);
-                if (newProductId > 0) {
-                    showSuccess(isEditMode ? "Product updated successfully!\nUse 'Set Markup' to adjust pricing." : 
-                        "Product added successfully! (ID: " + newProductId + ")\nUse 'Set Markup' to set pricing.");
-                    loadProductsFromDB();
-                    findAndSelectProduct(String.valueOf(newProductId));
-                    productDialog.dispose();
-                } else {
-                    showError("Error: Failed to save product.");
-                }
+                saveButton.setEnabled(false);
+                AppExecutors.onEdt(
+                    asyncProductRepository.supply(repo -> repo.manualUpsertProduct(id, name, categoryId, costPrice, null, null, stock)),
+                    newProductId -> {
+                        saveButton.setEnabled(true);
+                        if (newProductId > 0) {
+                            showSuccess(isEditMode ? "Product updated successfully!\nUse 'Set Markup' to adjust pricing." : 
+                                "Product added successfully! (ID: " + newProductId + ")\nUse 'Set Markup' to set pricing.");
+                            loadProductsFromDB();
+                            findAndSelectProduct(String.valueOf(newProductId));
+                            productDialog.dispose();
+                        } else {
+                            showError("Error: Failed to save product.");
+                        }
+                    },
+                    ex -> {
+                        saveButton.setEnabled(true);
+                        if (ex.getMessage() != null && ex.getMessage().contains("Duplicate entry")) {
+                            showError("Error adding product: Product ID " + idField.getText() + " already exists.");
+                        } else {
+                            showError("Error saving product: " + (ex.getMessage() != null ? ex.getMessage() : "Unknown SQL error"));
+                        }
+                    });
             } catch (NumberFormatException ex) {
                 showError("Cost Price and Stock must be valid numbers.");
-            } catch (SQLException ex) {
-                if (ex.getMessage() != null && ex.getMessage().contains("Duplicate entry")) {
-                    showError("Error adding product: Product ID " + idField.getText() + " already exists.");
-                } else {
-                    showError("Error saving product: " + (ex.getMessage() != null ? ex.getMessage() : "Unknown SQL error"));
-                }
             }
         });
         
@@ -856,115 +932,159 @@ public class productsPanel extends JPanel {
     private void handleAddNewCategoryDialog(JComboBox<String> categoryComboBox, Map<String, Integer> categoryIdMap) {
         String newCategory = JOptionPane.showInputDialog(this, "Enter new category name:", "Add Category", JOptionPane.PLAIN_MESSAGE);
         if (newCategory != null && !newCategory.trim().isEmpty()) {
-            try {
-                productRepository.addNewCategory(newCategory);
-                showSuccess("Category '" + newCategory + "' added.");
-                loadCategoriesIntoComboBox(categoryComboBox, categoryIdMap);
-                categoryComboBox.setSelectedItem(newCategory);
-            } catch (SQLException ex) {
-                showError("Error adding category: " + ex.getMessage());
-            }
+            AppExecutors.onEdt(
+                asyncProductRepository.run(repo -> repo.addNewCategory(newCategory)),
+                done -> {
+                    showSuccess("Category '" + newCategory + "' added.");
+                    loadCategoriesIntoComboBox(categoryComboBox, categoryIdMap, newCategory);
+                },
+                ex -> showError("Error adding category: " + ex.getMessage()));
         }
     }
 
 
-    /** Handles the "Sell Selected Product (Manual)" button click. */
+    /** Handles the "Sell Product" button click; selected rows start out in the basket. */
     private void handleSellProductManual() {
-        int selectedRow = productsTable.getSelectedRow();
-        if (selectedRow == -1) {
-            showError("Please select a product from the table first.");
+        int[] selectedRows = productsTable.getSelectedRows();
+        if (tableModel.getRowCount() == 0) {
+            showError("There are no products to sell.");
             return;
         }
 
-        // Get product details from the selected table row
-        String productId = tableModel.getValueAt(selectedRow, 1).toString();
-        String productName = tableModel.getValueAt(selectedRow, 2).toString();
-        int currentStock = (int) tableModel.getValueAt(selectedRow, 9);
-        
-        // Get selling price - remove formatting
-        String sellingPriceStr = tableModel.getValueAt(selectedRow, 5).toString();
-        double sellingPrice = Double.parseDouble(sellingPriceStr.replace("₱", "").replace(",", "").trim());
-
         // Create sell dialog
-        JDialog sellDialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "Sell Product", true);
+        JDialog sellDialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "Sell Products", true);
         sellDialog.setLayout(new BorderLayout());
-        sellDialog.setSize(450, 350);
+        sellDialog.setSize(650, 500);
         sellDialog.setLocationRelativeTo(this);
-        sellDialog.setResizable(false);
 
         // Header panel
         JPanel headerPanel = new JPanel(new BorderLayout());
         headerPanel.setBackground(UIConstants.SUCCESS_COLOR);
         headerPanel.setBorder(new EmptyBorder(15, 20, 15, 20));
 
-        JLabel headerLabel = new JLabel("Sell Product: " + productName, SwingConstants.CENTER);
+        JLabel headerLabel = new JLabel("Sell Products", SwingConstants.CENTER);
         headerLabel.setFont(UIConstants.SUBTITLE_FONT);
         headerLabel.setForeground(Color.WHITE);
         headerPanel.add(headerLabel);
         sellDialog.add(headerPanel, BorderLayout.NORTH);
 
         // Main content panel
-        JPanel mainPanel = new JPanel(new GridBagLayout());
-        mainPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
+        JPanel mainPanel = new JPanel(new BorderLayout(0, 10));
+        mainPanel.setBorder(new EmptyBorder(15, 20, 10, 20));
         mainPanel.setBackground(UIConstants.BACKGROUND_COLOR);
-        
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.fill = GridBagConstraints.HORIZONTAL;
-        gbc.insets = new Insets(8, 5, 8, 5);
-        gbc.weightx = 1.0;
-        
-        // Product Info
-        gbc.gridx = 0;
-        gbc.gridy = 0;
-        JLabel productLabel = new JLabel("Product:");
-        productLabel.setFont(UIConstants.LABEL_BOLD_FONT);
-        mainPanel.add(productLabel, gbc);
-        
-        gbc.gridx = 1;
-        JLabel productValueLabel = new JLabel(productName);
-        productValueLabel.setFont(UIConstants.LABEL_FONT);
-        productValueLabel.setForeground(UIConstants.PRIMARY_COLOR);
-        mainPanel.add(productValueLabel, gbc);
 
-        // Current Stock
-        gbc.gridx = 0;
-        gbc.gridy = 1;
-        JLabel stockLabel = new JLabel("Available Stock:");
-        stockLabel.setFont(UIConstants.LABEL_BOLD_FONT);
-        mainPanel.add(stockLabel, gbc);
-        
-        gbc.gridx = 1;
-        JLabel stockValueLabel = new JLabel(String.valueOf(currentStock));
-        stockValueLabel.setFont(UIConstants.LABEL_FONT);
-        mainPanel.add(stockValueLabel, gbc);
+        // Product picker: every product currently in the table
+        JPanel pickerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        pickerPanel.setBackground(UIConstants.BACKGROUND_COLOR);
 
-        // Selling Price
-        gbc.gridx = 0;
-        gbc.gridy = 2;
-        JLabel priceLabel = new JLabel("Unit Price:");
-        priceLabel.setFont(UIConstants.LABEL_BOLD_FONT);
-        mainPanel.add(priceLabel, gbc);
-        
-        gbc.gridx = 1;
-        JLabel priceValueLabel = new JLabel(String.format("₱%,.2f", sellingPrice));
-        priceValueLabel.setFont(UIConstants.LABEL_FONT);
-        mainPanel.add(priceValueLabel, gbc);
+        JLabel productLabel = new JLabel("Product:");
+        productLabel.setFont(UIConstants.LABEL_BOLD_FONT);
+        JComboBox<String> productCombo = new JComboBox<>();
+        productCombo.setFont(UIConstants.INPUT_FONT);
+        productCombo.setPreferredSize(new Dimension(260, UIConstants.INPUT_HEIGHT));
+        Map<String, Integer> comboRowMap = new HashMap<>();
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            String label = tableModel.getValueAt(i, 2) + " (ID: " + tableModel.getValueAt(i, 1) + ")";
+            comboRowMap.put(label, i);
+            productCombo.addItem(label);
+        }
 
-        // Quantity to Sell
-        gbc.gridx = 0;
-        gbc.gridy = 3;
-        JLabel qtyLabel = new JLabel("Quantity to Sell:");
+        JLabel qtyLabel = new JLabel("Qty:");
         qtyLabel.setFont(UIConstants.LABEL_BOLD_FONT);
-        mainPanel.add(qtyLabel, gbc);
-        
-        gbc.gridx = 1;
-        JTextField quantityField = new JTextField("1");
+        JTextField quantityField = new JTextField("1", 4);
         quantityField.setFont(UIConstants.INPUT_FONT);
-        quantityField.setPreferredSize(new Dimension(0, UIConstants.INPUT_HEIGHT));
-        mainPanel.add(quantityField, gbc);
+        quantityField.setPreferredSize(new Dimension(60, UIConstants.INPUT_HEIGHT));
+
+        JButton addLineButton = new JButton("Add to Basket");
+        addLineButton.setFont(UIConstants.BUTTON_FONT);
+        addLineButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+
+        pickerPanel.add(productLabel);
+        pickerPanel.add(productCombo);
+        pickerPanel.add(qtyLabel);
+        pickerPanel.add(quantityField);
+        pickerPanel.add(addLineButton);
+        mainPanel.add(pickerPanel, BorderLayout.NORTH);
+
+        // Basket table: ID, Product, Unit Price, Available, Qty, Subtotal
+        DefaultTableModel basketModel = new DefaultTableModel(
+            new String[]{"ID", "Product", "Unit Price", "Available", "Qty", "Subtotal"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return column == 4; // Only quantity can be edited
+            }
+        };
+        JTable basketTable = new JTable(basketModel);
+        basketTable.setFont(UIConstants.TABLE_FONT);
+        basketTable.setRowHeight(UIConstants.TABLE_ROW_HEIGHT);
+        basketTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        basketTable.getTableHeader().setFont(UIConstants.LABEL_BOLD_FONT);
+        basketTable.getColumnModel().getColumn(0).setPreferredWidth(50);
+        basketTable.getColumnModel().getColumn(1).setPreferredWidth(220);
+        JScrollPane basketScroll = new JScrollPane(basketTable);
+        basketScroll.setBorder(new LineBorder(UIConstants.BORDER_COLOR, 1));
+        mainPanel.add(basketScroll, BorderLayout.CENTER);
+
+        // Remove line + running total
+        JPanel totalPanel = new JPanel(new BorderLayout());
+        totalPanel.setBackground(UIConstants.BACKGROUND_COLOR);
+        JButton removeLineButton = new JButton("Remove Line");
+        removeLineButton.setFont(UIConstants.BUTTON_FONT);
+        removeLineButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        JLabel totalLabel = new JLabel("Total: ₱0.00");
+        totalLabel.setFont(UIConstants.SUBTITLE_FONT);
+        totalLabel.setForeground(UIConstants.PRIMARY_COLOR);
+        totalPanel.add(removeLineButton, BorderLayout.WEST);
+        totalPanel.add(totalLabel, BorderLayout.EAST);
+        mainPanel.add(totalPanel, BorderLayout.SOUTH);
 
         sellDialog.add(mainPanel, BorderLayout.CENTER);
 
+        // Recalculate subtotals and the basket total whenever a line is added, removed or edited
+        basketModel.addTableModelListener(e -> {
+            if (e.getColumn() == 5) return; // Our own subtotal writes
+            double total = 0.0;
+            for (int i = 0; i < basketModel.getRowCount(); i++) {
+                double unitPrice = parsePeso(basketModel.getValueAt(i, 2).toString());
+                int qty = Math.max(parseBasketQuantity(basketModel.getValueAt(i, 4)), 0);
+                String subtotal = String.format("₱%,.2f", unitPrice * qty);
+                if (!subtotal.equals(basketModel.getValueAt(i, 5))) {
+                    basketModel.setValueAt(subtotal, i, 5);
+                }
+                total += unitPrice * qty;
+            }
+            totalLabel.setText(String.format("Total: ₱%,.2f", total));
+        });
+
+        // Pre-fill with the products selected in the main table
+        for (int row : selectedRows) {
+            addBasketLine(basketModel, row, 1);
+        }
+
+        addLineButton.addActionListener(e -> {
+            Integer row = comboRowMap.get((String) productCombo.getSelectedItem());
+            if (row == null) return;
+            try {
+                int quantity = Integer.parseInt(quantityField.getText().trim());
+                if (quantity <= 0) {
+                    showError("Quantity must be positive.");
+                    return;
+                }
+                addBasketLine(basketModel, row, quantity);
+                quantityField.setText("1");
+            } catch (NumberFormatException ex) {
+                showError("Invalid quantity entered.");
+            }
+        });
+
+        removeLineButton.addActionListener(e -> {
+            int row = basketTable.getSelectedRow();
+            if (row != -1) {
+                if (basketTable.isEditing()) basketTable.getCellEditor().cancelCellEditing();
+                basketModel.removeRow(row);
+            }
+        });
+
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
         buttonPanel.setBackground(UIConstants.BACKGROUND_COLOR);
@@ -974,32 +1094,40 @@ public class productsPanel extends JPanel {
         cancelButton.setPreferredSize(new Dimension(100, 35));
         cancelButton.addActionListener(e -> sellDialog.dispose());
         
-        JButton sellButton = new JButton("Sell");
+        JButton sellButton = new JButton("Checkout");
         sellButton.setFont(UIConstants.BUTTON_FONT);
         sellButton.setBackground(UIConstants.SUCCESS_COLOR);
         sellButton.setForeground(Color.WHITE);
-        sellButton.setPreferredSize(new Dimension(100, 35));
+        sellButton.setPreferredSize(new Dimension(110, 35));
         sellButton.setFocusPainted(false);
         sellButton.setBorderPainted(false);
         sellButton.setContentAreaFilled(false);
         sellButton.setOpaque(true);
         sellButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
         sellButton.addActionListener(e -> {
-            try {
-                // Parse quantity input
-                int quantity = Integer.parseInt(quantityField.getText());
+            if (basketTable.isEditing()) basketTable.getCellEditor().stopCellEditing();
+            if (basketModel.getRowCount() == 0) {
+                showError("The basket is empty.");
+                return;
+            }
 
-                // Validate quantity
-                if (quantity > 0) {
-                    processSale(productId, quantity, true);
-                    sellDialog.dispose();
-                } else {
-                    showError("Quantity must be positive.");
+            // Validate quantities against the stock shown in the table
+            List<CartLine> lines = new java.util.ArrayList<>();
+            for (int i = 0; i < basketModel.getRowCount(); i++) {
+                int qty = parseBasketQuantity(basketModel.getValueAt(i, 4));
+                int available = (int) basketModel.getValueAt(i, 3);
+                if (qty <= 0) {
+                    showError("Invalid quantity for " + basketModel.getValueAt(i, 1) + ".");
+                    return;
                 }
-            } catch (NumberFormatException ex) {
-                showError("Invalid quantity entered.");
+                if (qty > available) {
+                    showError("Not enough stock for " + basketModel.getValueAt(i, 1) + " (available: " + available + ").");
+                    return;
+                }
+                lines.add(new CartLine((int) basketModel.getValueAt(i, 0), qty));
             }
-            // processSale handles its own SQLException and table refresh
+
+            processCartSale(lines, true, sellButton, sellDialog::dispose);
         });
         
         buttonPanel.add(cancelButton);
@@ -1009,6 +1137,44 @@ public class productsPanel extends JPanel {
         sellDialog.setVisible(true);
     }
 
+    /** Adds a product row to the basket, or increases its quantity if already present. */
+    private void addBasketLine(DefaultTableModel basketModel, int tableRow, int quantity) {
+        int productId = (int) tableModel.getValueAt(tableRow, 1);
+        for (int i = 0; i < basketModel.getRowCount(); i++) {
+            if ((int) basketModel.getValueAt(i, 0) == productId) {
+                int current = parseBasketQuantity(basketModel.getValueAt(i, 4));
+                basketModel.setValueAt(String.valueOf(Math.max(current, 0) + quantity), i, 4);
+                return;
+            }
+        }
+        basketModel.addRow(new Object[]{
+            productId,
+            tableModel.getValueAt(tableRow, 2),             // Product Name
+            tableModel.getValueAt(tableRow, 7).toString(),  // Retail Price
+            (int) tableModel.getValueAt(tableRow, 9),       // Stock
+            String.valueOf(quantity),
+            ""
+        });
+    }
+
+    /** Parses a basket quantity cell; returns -1 when it is not a number. */
+    private int parseBasketQuantity(Object value) {
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Parses a formatted peso amount such as "₱1,234.50". */
+    private double parsePeso(String value) {
+        try {
+            return Double.parseDouble(value.replace("₱", "").replace(",", "").trim());
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
     /** Handles the "Return Product" button click for returning/rejecting merchandise. */
     private void handleReturnProduct() {
         if (userRole.equalsIgnoreCase("Employee")) {
@@ -1188,29 +1354,32 @@ public class productsPanel extends JPanel {
                 }
 
                 // Process the return based on type
-                if (returnType.equals("Customer Return")) {
-                    productRepository.customerReturn(productId, quantity, reason);
-                    showSuccess("Successfully processed customer return!\n" + 
-                               quantity + " unit(s) of '" + productName + "' added back to stock.");
-                } else if (returnType.equals("Reject/Damaged")) {
-                    productRepository.rejectProduct(productId, quantity, reason);
-                    showSuccess("Successfully processed rejection!\n" + 
-                               quantity + " unit(s) of '" + productName + "' marked as DAMAGED.");
-                } else {
-                    productRepository.refundProduct(productId, quantity, reason);
-                    showSuccess("Successfully processed refund!\n" + 
-                               quantity + " unit(s) of '" + productName + "' returned to supplier.\n" +
-                               "Refund amount: " + String.format("₱%,.2f", costPrice * quantity));
-                }
-                
-                returnDialog.dispose();
+                final String notes = reason;
+                runProductUpdate(repo -> {
+                    if (returnType.equals("Customer Return")) {
+                        repo.customerReturn(productId, quantity, notes);
+                    } else if (returnType.equals("Reject/Damaged")) {
+                        repo.rejectProduct(productId, quantity, notes);
+                    } else {
+                        repo.refundProduct(productId, quantity, notes);
+                    }
+                    return null;
+                }, done -> {
+                    if (returnType.equals("Customer Return")) {
+                        showSuccess("Successfully processed customer return!\n" + 
+                                   quantity + " unit(s) of '" + productName + "' added back to stock.");
+                    } else if (returnType.equals("Reject/Damaged")) {
+                        showSuccess("Successfully processed rejection!\n" + 
+                                   quantity + " unit(s) of '" + productName + "' marked as DAMAGED.");
+                    } else {
+                        showSuccess("Successfully processed refund!\n" + 
+                                   quantity + " unit(s) of '" + productName + "' returned to supplier.\n" +
+                                   "Refund amount: " + String.format("₱%,.2f", costPrice * quantity));
+                    }
+                    returnDialog.dispose();
+                }, "Error processing return: ", productId, confirmButton);
             } catch (NumberFormatException ex) {
                 showError("Invalid quantity entered.");
-            } catch (SQLException ex) {
-                showError("Error processing return: " + ex.getMessage());
-            } finally {
-                loadProductsFromDB();
-                findAndSelectProduct(String.valueOf(productId));
             }
         });
         
@@ -1340,17 +1509,15 @@ public class productsPanel extends JPanel {
                 }
 
                 // Process the stock removal
-                productRepository.removeStock(productId, quantity, reason);
-                showSuccess("Successfully removed " + quantity + " unit(s) from '" + productName + "'");
-                
-                removeDialog.dispose();
+                runProductUpdate(repo -> {
+                    repo.removeStock(productId, quantity, reason);
+                    return null;
+                }, done -> {
+                    showSuccess("Successfully removed " + quantity + " unit(s) from '" + productName + "'");
+                    removeDialog.dispose();
+                }, "Error removing stock: ", productId, confirmButton);
             } catch (NumberFormatException ex) {
                 showError("Invalid quantity entered.");
-            } catch (SQLException ex) {
-                showError("Error removing stock: " + ex.getMessage());
-            } finally {
-                loadProductsFromDB();
-                findAndSelectProduct(String.valueOf(productId));
             }
         });
         
@@ -1456,20 +1623,14 @@ public class productsPanel extends JPanel {
         deleteButton.setContentAreaFilled(false);
         deleteButton.setOpaque(true);
         deleteButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
-        deleteButton.addActionListener(e -> {
-            try {
-                if (productRepository.deleteProduct(productId)) {
-                    showSuccess("Product '" + productName + "' deleted successfully!");
-                    deleteDialog.dispose();
-                } else {
-                    showError("Failed to delete product. It may not exist.");
-                }
-            } catch (Exception ex) {
-                showError("Error deleting product: " + ex.getMessage());
-            } finally {
-                loadProductsFromDB();
+        deleteButton.addActionListener(e -> runProductUpdate(repo -> repo.deleteProduct(productId), deleted -> {
+            if (deleted) {
+                showSuccess("Product '" + productName + "' deleted successfully!");
+                deleteDialog.dispose();
+            } else {
+                showError("Failed to delete product. It may not exist.");
             }
-        });
+        }, "Error deleting product: ", 0, deleteButton));
         
         buttonPanel.add(cancelButton);
         buttonPanel.add(deleteButton);
@@ -1480,19 +1641,15 @@ public class productsPanel extends JPanel {
 
     // --- QR Code & Sale Processing ---
 
-    /** Processes a sale transaction, updating stock via the repository. */
-    private void processSale(String productId, int quantityToSell, boolean showSuccessPopup) {
-        try {
-            productRepository.sellProduct(productId, quantityToSell);
+    /** Sells a whole basket as one sale off the EDT; onRecorded runs once it is committed. */
+    private void processCartSale(List<CartLine> lines, boolean showSuccessPopup, JButton trigger, Runnable onRecorded) {
+        int selectId = lines.size() == 1 ? lines.get(0).productId() : 0;
+        runProductUpdate(repo -> repo.sellCart(lines), saleId -> {
             if (showSuccessPopup) {
-                showSuccess("Sale recorded successfully!");
+                showSuccess("Sale recorded successfully! (Sale ID: " + saleId + ", " + lines.size() + " item(s))");
             }
-        } catch (SQLException e) {
-            showError("Transaction Error: " + e.getMessage());
-        } finally {
-            loadProductsFromDB();
-            findAndSelectProduct(productId);
-        }
+            onRecorded.run();
+        }, "Transaction Error: ", selectId, trigger);
     }
 
     /**
@@ -1500,54 +1657,40 @@ public class productsPanel extends JPanel {
      */
     private void processQRCodeCommand(String qrText) {
         try {
-            JSONObject mainObject = new JSONObject(qrText);
-            String action = mainObject.getString("action");
-            JSONObject data = mainObject.getJSONObject("data");
+            // Compact labels and older JSON labels decode to the same command
+            QRPayload.Command command = QRPayload.decode(qrText);
+            String action = command.action();
+            JSONObject data = command.data();
 
-            if ("create_product".equals(action)) {
+            if (QRPayload.CREATE_PRODUCT.equals(action)) {
                 String qrProductName = data.optString("name", "Unknown Product");
                 double qrCostPrice = data.optDouble("cost_price", 0.0);
                 
                 int originalQrId = data.has("id") ? data.getInt("id") : 0;
                 boolean isNewProduct = (originalQrId == 0);
-                int targetProductId = originalQrId;
-                
-                String resolvedCategoryName = "Processing...";
 
                 if (addUpdateModeRadio.isSelected()) {
                     if (currentDetailsDialog != null && currentDetailsDialog.isVisible()) {
                         currentDetailsDialog.dispose();
                     }
 
-                    // 1. Save to DB
-                    int savedId = productRepository.upsertProductFromQR(data);
-                    
-                    if (savedId > 0) {
-                        loadProductsFromDB();
-                        findAndSelectProduct(String.valueOf(savedId));
-                        targetProductId = savedId;
-                        
-                        // 2. Fetch the ACTUAL category name from DB
-                        try {
-                            String dbCat = productRepository.getProductCategoryName(savedId);
-                            if (dbCat != null && !dbCat.equals("Unknown")) {
-                                resolvedCategoryName = dbCat;
-                            }
-                        } catch (Exception ex) {
-                            resolvedCategoryName = "Unknown";
-                        }
-                    }
-
-                    if (originalQrId == 0) isNewProduct = true;
-                    String dialogTitle = isNewProduct ? "Product Added" : "Product Updated";
-
-                    showProductDetailsDialog(
-                        dialogTitle, targetProductId, qrProductName, resolvedCategoryName, qrCostPrice, null, UIConstants.SUCCESS_COLOR
-                    );
+                    // Journal the stock-in; the database catches up in the background
+                    ScanJournal.Entry entry = ScanJournal.Entry.stockIn(data);
+                    String cachedCategory = productRepository.getCachedCategoryName(data.getInt("category_id"));
+                    AppExecutors.onEdt(
+                        submitScan(entry),
+                        saved -> {
+                            String dialogTitle = isNewProduct ? "Product Added" : "Product Updated";
+                            showProductDetailsDialog(
+                                dialogTitle, originalQrId, qrProductName,
+                                cachedCategory != null ? cachedCategory : "Processing...", qrCostPrice, null, UIConstants.SUCCESS_COLOR
+                            );
+                        },
+                        this::showScanError);
                     
                 } else {
                     // SELL / DELETE MODE
-                    Object[] tableProduct = getProductFromTable(targetProductId, qrProductName);
+                    Object[] tableProduct = getProductFromTable(originalQrId, qrProductName);
 
                     if (tableProduct != null) {
                         int confirmedId = (int) tableProduct[0];
@@ -1558,28 +1701,32 @@ public class productsPanel extends JPanel {
                         if (sellModeRadio.isSelected()) {
                             if (currentDetailsDialog != null && currentDetailsDialog.isVisible()) currentDetailsDialog.dispose();
                             
-                            String retailPriceStr = "N/A";
-                            try {
-                                double rp = productRepository.getProductRetailPrice(String.valueOf(confirmedId));
-                                if (rp <= 0) {
-                                    Double m = productRepository.getProductMarkup(confirmedId);
-                                    double mv = (m != null) ? m : userRepository.getDefaultMarkup(userId);
-                                    rp = confirmedCost * (1 + mv / 100.0);
-                                }
-                                retailPriceStr = String.format("₱%,.2f", rp);
-                            } catch (Exception ex) {}
-
-                            productRepository.sellProduct(String.valueOf(confirmedId), 1);
-                            loadProductsFromDB();
-                            findAndSelectProduct(String.valueOf(confirmedId));
+                            int confirmedStock = (int) tableProduct[4];
+                            String retailPriceStr = (String) tableProduct[5];
+                            if (confirmedStock < 1) {
+                                showError("Insufficient stock for " + confirmedName + ".");
+                                return;
+                            }
 
-                            showProductDetailsDialog("Product Sold", confirmedId, confirmedName, confirmedCategory, confirmedCost, retailPriceStr, UIConstants.SUCCESS_COLOR);
+                            // Journal the sale; the table shows it at once and is corrected when it is replayed
+                            AppExecutors.onEdt(
+                                submitScan(ScanJournal.Entry.sale(confirmedId, 1)),
+                                saved -> {
+                                    adjustTableStock(confirmedId, -1);
+                                    findAndSelectProduct(String.valueOf(confirmedId));
+                                    showProductDetailsDialog("Product Sold", confirmedId, confirmedName, confirmedCategory, confirmedCost, retailPriceStr, UIConstants.SUCCESS_COLOR);
+                                },
+                                this::showScanError);
                         } else if (deleteModeRadio.isSelected()) {
                             boolean confirmed = showQRDeleteDialog(confirmedId, confirmedName, confirmedCategory, confirmedCost);
                             if (confirmed) {
-                                productRepository.deleteProduct(confirmedId);
-                                showSuccess("Product deleted.");
-                                loadProductsFromDB();
+                                AppExecutors.onEdt(
+                                    asyncProductRepository.supply(repo -> repo.deleteProduct(confirmedId)),
+                                    deleted -> {
+                                        showSuccess("Product deleted.");
+                                        loadProductsFromDB();
+                                    },
+                                    this::showScanError);
                             }
                         }
                     } else {
@@ -1591,14 +1738,55 @@ public class productsPanel extends JPanel {
             }
         } catch (Throwable e) {
             // Catches all errors (including NoSuchMethodError) to prevent silent crashes
-            showError("Scanning Error: " + e.getMessage());
-            e.printStackTrace();
+            showScanError(e);
+        }
+    }
+
+    // Durable once this completes; fails if the journal could not be opened or written
+    private CompletableFuture<Void> submitScan(ScanJournal.Entry entry) {
+        if (scanReplayer == null) {
+            return CompletableFuture.failedFuture(new IOException("Scan journal is unavailable; the scan was not recorded."));
+        }
+        return scanReplayer.submit(entry);
+    }
+
+    // Reflect a journaled sale before the database has it
+    private void adjustTableStock(int productId, int delta) {
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            if ((int) tableModel.getValueAt(i, 1) == productId) {
+                tableModel.setValueAt((int) tableModel.getValueAt(i, 9) + delta, i, 9);
+                return;
+            }
         }
     }
 
+    private void updatePendingScansLabel(int pendingCount) {
+        if (pendingCount == 0) {
+            pendingScansLabel.setForeground(UIConstants.TEXT_SECONDARY);
+            pendingScansLabel.setText("All scans saved");
+        } else {
+            pendingScansLabel.setForeground(UIConstants.WARNING_DARK);
+            pendingScansLabel.setText(pendingCount + (pendingCount == 1 ? " scan" : " scans") + " waiting for database");
+        }
+    }
+
+    // A journaled scan the database refused; it will not be retried
+    private void showReplayFailure(ScanJournal.Entry entry, String message) {
+        loadProductsFromDB();
+        String what = entry.operation() == ScanJournal.Operation.SALE
+            ? "A scanned sale of product ID " + entry.productId()
+            : "A scanned stock-in of " + entry.data().optString("name", "a product");
+        showError(what + " could not be recorded:\n" + message);
+    }
+
+    private void showScanError(Throwable e) {
+        showError("Scanning Error: " + e.getMessage());
+        e.printStackTrace();
+    }
+
     /**
      * Helper to find a product in the JTable model by ID or Name.
-     * Returns Object array: {ID (int), Name (String), Category (String), Cost (double), Stock (int)}
+     * Returns Object array: {ID (int), Name (String), Category (String), Cost (double), Stock (int), Retail Price (String)}
      * Returns null if not found.
      */
     private Object[] getProductFromTable(int searchId, String searchName) {
@@ -1639,8 +1827,9 @@ public class productsPanel extends JPanel {
         try { cost = Double.parseDouble(costStr); } catch (NumberFormatException e) {}
 
         int stock = (int) tableModel.getValueAt(row, 9);
+        String retail = tableModel.getValueAt(row, 7).toString();
 
-        return new Object[]{id, name, category, cost, stock};
+        return new Object[]{id, name, category, cost, stock, retail};
     }
 
     /**
@@ -1682,7 +1871,7 @@ public class productsPanel extends JPanel {
 
         addStyledDetailRow(contentPanel, gbc, row++, "Product Name", safeName);
         addStyledDetailRow(contentPanel, gbc, row++, "Category", safeCategory);
-        addStyledDetailRow(contentPanel, gbc, row++, "Product ID", String.valueOf(productId));
+        addStyledDetailRow(contentPanel, gbc, row++, "Product ID", productId > 0 ? String.valueOf(productId) : "Assigned when saved");
         
         JSeparator sep = new JSeparator();
         sep.setForeground(new Color(230, 230, 230));
@@ -1847,7 +2036,7 @@ public class productsPanel extends JPanel {
         sellModeRadio.setEnabled(false);
         deleteModeRadio.setEnabled(false);
 
-        executor.execute(() -> {
+        AppExecutors.scanner().execute(() -> {
             Webcam discoveredWebcam = null;
             WebcamPanel createdWebcamPanel = null;
             boolean initSuccess = false;
@@ -1863,6 +2052,9 @@ public class productsPanel extends JPanel {
                 createdWebcamPanel = new WebcamPanel(discoveredWebcam);
                 createdWebcamPanel.setPreferredSize(size);
                 createdWebcamPanel.setMirrored(false);
+                // The preview paints the updater's latest frame; a counter display needs no more than this
+                createdWebcamPanel.setFPSLimited(true);
+                createdWebcamPanel.setFPSLimit(PREVIEW_FPS);
                 initSuccess = true;
             } catch (Exception ex) {
                 final String errorMessage = (ex instanceof WebcamException) ?
@@ -1883,7 +2075,9 @@ public class productsPanel extends JPanel {
                         scannerDisplayPanel.add(webcamPanel, BorderLayout.CENTER);
                         scannerDisplayPanel.revalidate(); scannerDisplayPanel.repaint();
                         toggleScanButton.setText("Stop Scan"); toggleScanButton.setEnabled(true);
-                        executor.execute(this::scanLoop);
+                        countAgainButton.setEnabled(true);
+                        scanDebouncer.reset();
+                        AppExecutors.scanner().execute(this::scanLoop);
                     } else {
                         isScanning.set(false);
                         toggleScanButton.setEnabled(true); toggleScanButton.setText("Start Scan");
@@ -1903,8 +2097,9 @@ public class productsPanel extends JPanel {
     private void stopScanner() {
         if (!isScanning.compareAndSet(true, false)) { return; }
         toggleScanButton.setEnabled(false); toggleScanButton.setText("Stopping...");
+        countAgainButton.setEnabled(false);
 
-        executor.execute(() -> {
+        AppExecutors.scanner().execute(() -> {
             WebcamPanel panelToStop = this.webcamPanel; Webcam camToClose = this.webcam;
             if (panelToStop != null) try { panelToStop.stop(); } catch (Exception e) { e.printStackTrace(); }
             if (camToClose != null && camToClose.isOpen()) try { camToClose.close(); } catch (Exception e) { e.printStackTrace(); }
@@ -1944,26 +2139,17 @@ public class productsPanel extends JPanel {
     }
 
     /**
-     * Main scanning loop that captures images and decodes QR codes.
+     * Runs the QR decode pipeline on the current webcam until scanning stops.
      */
     private void scanLoop() {
-        do {
-            try { Thread.sleep(100); } catch (InterruptedException e) { Thread.currentThread().interrupt(); break; }
-            Result result = null; BufferedImage image = null; Webcam currentWebcam = this.webcam;
-            if (currentWebcam == null || !currentWebcam.isOpen()) { break; }
-            try { image = currentWebcam.getImage(); } catch (Exception e) { System.err.println("scanLoop: Img Err: " + e.getMessage()); continue; }
-            if (image != null) {
-                LuminanceSource source = new BufferedImageLuminanceSource(image);
-                BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-                try { result = new MultiFormatReader().decode(bitmap); } catch (NotFoundException e) { } catch (Exception e) { System.err.println("scanLoop: Decode Err: " + e.getMessage()); }
-            }
-            if (result != null && isScanning.get()) {
-                SoundUtil.play("beep.wav"); 
-                final String qrText = result.getText();
+        Webcam currentWebcam = this.webcam;
+        if (currentWebcam != null) {
+            new QRScanPipeline(currentWebcam, qrText -> {
+                if (!scanDebouncer.accept(qrText)) return;
+                SoundUtil.play("beep.wav");
                 SwingUtilities.invokeLater(() -> { if (isScanning.get()) { processQRCodeCommand(qrText); } });
-                try { Thread.sleep(2000); } catch (InterruptedException e) { Thread.currentThread().interrupt(); break; }
-            }
-        } while (isScanning.get());
+            }).run(isScanning::get);
+        }
         if (isScanning.get()) { SwingUtilities.invokeLater(this::stopScanner); }
     }
 
@@ -1996,210 +2182,218 @@ public class productsPanel extends JPanel {
                 // Get cost price - remove formatting
                 String costPriceStr = tableModel.getValueAt(selectedRows[0], 4).toString(); // Cost Price column
                 double costPrice = Double.parseDouble(costPriceStr.replace("₱", "").replace(",", "").trim());
-                // Get current markup if exists
-                Double currentMarkup = productRepository.getProductMarkup(productId);
-                double defaultMarkup = userRepository.getDefaultMarkup(userId);
-                // Create markup dialog
-                JDialog markupDialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "Set Product Markup", true);
-                markupDialog.setLayout(new BorderLayout());
-                markupDialog.setSize(500, 450);
-                markupDialog.setLocationRelativeTo(this);
-                markupDialog.setResizable(false);
-
-                // Header panel
-                JPanel headerPanel = new JPanel(new BorderLayout());
-                headerPanel.setBackground(UIConstants.PRIMARY_COLOR);
-                headerPanel.setBorder(new EmptyBorder(15, 20, 15, 20));
-
-                JLabel headerLabel = new JLabel("Set Markup: " + productName, SwingConstants.CENTER);
-                headerLabel.setFont(UIConstants.SUBTITLE_FONT);
-                headerLabel.setForeground(Color.WHITE);
-                headerPanel.add(headerLabel);
-                markupDialog.add(headerPanel, BorderLayout.NORTH);
-
-                // Main content panel
-                JPanel mainPanel = new JPanel(new GridBagLayout());
-                mainPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
-                mainPanel.setBackground(UIConstants.BACKGROUND_COLOR);
-                
-                GridBagConstraints gbc = new GridBagConstraints();
-                gbc.fill = GridBagConstraints.HORIZONTAL;
-                gbc.insets = new Insets(8, 5, 8, 5);
-                gbc.weightx = 1.0;
-                
-                // Product Name
-                gbc.gridx = 0;
-                gbc.gridy = 0;
-                JLabel productLabel = new JLabel("Product:");
-                productLabel.setFont(UIConstants.LABEL_BOLD_FONT);
-                mainPanel.add(productLabel, gbc);
-                
-                gbc.gridx = 1;
-                JLabel productValueLabel = new JLabel(productName);
-                productValueLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
-                productValueLabel.setForeground(UIConstants.PRIMARY_COLOR);
-                mainPanel.add(productValueLabel, gbc);
-
-                // Cost Price
-                gbc.gridx = 0;
-                gbc.gridy = 1;
-                JLabel costLabel = new JLabel("Cost Price:");
-                costLabel.setFont(UIConstants.LABEL_BOLD_FONT);
-                mainPanel.add(costLabel, gbc);
-                
-                gbc.gridx = 1;
-                JLabel costValueLabel = new JLabel(String.format("₱%,.2f", costPrice));
-                costValueLabel.setFont(UIConstants.LABEL_FONT);
-                mainPanel.add(costValueLabel, gbc);
-
-                // Current Markup
-                gbc.gridx = 0;
-                gbc.gridy = 2;
-                JLabel currentLabel = new JLabel("Current Markup:");
-                currentLabel.setFont(UIConstants.LABEL_BOLD_FONT);
-                mainPanel.add(currentLabel, gbc);
-                
-                gbc.gridx = 1;
-                String currentMarkupText = currentMarkup != null ? 
-                    String.format("%.1f%% (Product-specific)", currentMarkup) :
-                    String.format("%.1f%% (Using default)", defaultMarkup);
-                JLabel currentValueLabel = new JLabel(currentMarkupText);
-                currentValueLabel.setFont(UIConstants.LABEL_FONT);
-                currentValueLabel.setForeground(UIConstants.TEXT_SECONDARY);
-                mainPanel.add(currentValueLabel, gbc);
-
-                // New Markup
-                gbc.gridx = 0;
-                gbc.gridy = 3;
-                JLabel newMarkupLabel = new JLabel("New Markup %:");
-                newMarkupLabel.setFont(UIConstants.LABEL_BOLD_FONT);
-                mainPanel.add(newMarkupLabel, gbc);
-                
-                gbc.gridx = 1;
-                JTextField markupField = new JTextField(currentMarkup != null ? String.valueOf(currentMarkup) : "");
-                markupField.setFont(UIConstants.INPUT_FONT);
-                markupField.setPreferredSize(new Dimension(0, UIConstants.INPUT_HEIGHT));
-                mainPanel.add(markupField, gbc);
-
-                // Helper text
-                gbc.gridx = 0;
-                gbc.gridy = 4;
-                gbc.gridwidth = 2;
-                JLabel helperLabel = new JLabel(
-                    "<html><i><font color='#7f8c8d' size='3'>Leave blank to use default markup</font></i></html>"
-                );
-                mainPanel.add(helperLabel, gbc);
-
-                // Preview
-                gbc.gridx = 0;
-                gbc.gridy = 5;
-                gbc.gridwidth = 1;
-                JLabel previewTitleLabel = new JLabel("Selling Price Preview:");
-                previewTitleLabel.setFont(UIConstants.LABEL_BOLD_FONT);
-                mainPanel.add(previewTitleLabel, gbc);
-                
-                gbc.gridx = 1;
-                JLabel previewLabel = new JLabel("");
-                previewLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-                previewLabel.setForeground(new Color(46, 204, 113));
-                
-                // Initial preview
-                if (currentMarkup != null) {
-                    double sellingPrice = costPrice * (1 + currentMarkup / 100.0);
+                // Get current and default markup off the EDT, then show the dialog
+                AppExecutors.onEdt(
+                    asyncProductRepository.supply(repo -> new MarkupInfo(
+                        repo.getProductMarkup(productId), userRepository.getDefaultMarkup(userId))),
+                    markups -> showProductMarkupDialog(productId, productName, costPrice,
+                        markups.currentMarkup(), markups.defaultMarkup()),
+                    ex -> showError("Error loading markup data: " + ex.getMessage()));
+            } catch (NumberFormatException ex) {
+                showError("Invalid product data.");
+            }
+        } else {
+            // Multiple products markup setting
+            showBulkOperationDialog("SET_MARKUP", selectedRows);
+        }
+    }
+
+    // Product's own markup (null = uses default) and the store default
+    private record MarkupInfo(Double currentMarkup, double defaultMarkup) {}
+
+    /** Shows the single-product markup dialog once the current markup is known. */
+    private void showProductMarkupDialog(int productId, String productName, double costPrice,
+                                         Double currentMarkup, double defaultMarkup) {
+        // Create markup dialog
+        JDialog markupDialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "Set Product Markup", true);
+        markupDialog.setLayout(new BorderLayout());
+        markupDialog.setSize(500, 450);
+        markupDialog.setLocationRelativeTo(this);
+        markupDialog.setResizable(false);
+
+        // Header panel
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(UIConstants.PRIMARY_COLOR);
+        headerPanel.setBorder(new EmptyBorder(15, 20, 15, 20));
+
+        JLabel headerLabel = new JLabel("Set Markup: " + productName, SwingConstants.CENTER);
+        headerLabel.setFont(UIConstants.SUBTITLE_FONT);
+        headerLabel.setForeground(Color.WHITE);
+        headerPanel.add(headerLabel);
+        markupDialog.add(headerPanel, BorderLayout.NORTH);
+
+        // Main content panel
+        JPanel mainPanel = new JPanel(new GridBagLayout());
+        mainPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
+        mainPanel.setBackground(UIConstants.BACKGROUND_COLOR);
+        
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.insets = new Insets(8, 5, 8, 5);
+        gbc.weightx = 1.0;
+        
+        // Product Name
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        JLabel productLabel = new JLabel("Product:");
+        productLabel.setFont(UIConstants.LABEL_BOLD_FONT);
+        mainPanel.add(productLabel, gbc);
+        
+        gbc.gridx = 1;
+        JLabel productValueLabel = new JLabel(productName);
+        productValueLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        productValueLabel.setForeground(UIConstants.PRIMARY_COLOR);
+        mainPanel.add(productValueLabel, gbc);
+
+        // Cost Price
+        gbc.gridx = 0;
+        gbc.gridy = 1;
+        JLabel costLabel = new JLabel("Cost Price:");
+        costLabel.setFont(UIConstants.LABEL_BOLD_FONT);
+        mainPanel.add(costLabel, gbc);
+        
+        gbc.gridx = 1;
+        JLabel costValueLabel = new JLabel(String.format("₱%,.2f", costPrice));
+        costValueLabel.setFont(UIConstants.LABEL_FONT);
+        mainPanel.add(costValueLabel, gbc);
+
+        // Current Markup
+        gbc.gridx = 0;
+        gbc.gridy = 2;
+        JLabel currentLabel = new JLabel("Current Markup:");
+        currentLabel.setFont(UIConstants.LABEL_BOLD_FONT);
+        mainPanel.add(currentLabel, gbc);
+        
+        gbc.gridx = 1;
+        String currentMarkupText = currentMarkup != null ? 
+            String.format("%.1f%% (Product-specific)", currentMarkup) :
+            String.format("%.1f%% (Using default)", defaultMarkup);
+        JLabel currentValueLabel = new JLabel(currentMarkupText);
+        currentValueLabel.setFont(UIConstants.LABEL_FONT);
+        currentValueLabel.setForeground(UIConstants.TEXT_SECONDARY);
+        mainPanel.add(currentValueLabel, gbc);
+
+        // New Markup
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        JLabel newMarkupLabel = new JLabel("New Markup %:");
+        newMarkupLabel.setFont(UIConstants.LABEL_BOLD_FONT);
+        mainPanel.add(newMarkupLabel, gbc);
+        
+        gbc.gridx = 1;
+        JTextField markupField = new JTextField(currentMarkup != null ? String.valueOf(currentMarkup) : "");
+        markupField.setFont(UIConstants.INPUT_FONT);
+        markupField.setPreferredSize(new Dimension(0, UIConstants.INPUT_HEIGHT));
+        mainPanel.add(markupField, gbc);
+
+        // Helper text
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        gbc.gridwidth = 2;
+        JLabel helperLabel = new JLabel(
+            "<html><i><font color='#7f8c8d' size='3'>Leave blank to use default markup</font></i></html>"
+        );
+        mainPanel.add(helperLabel, gbc);
+
+        // Preview
+        gbc.gridx = 0;
+        gbc.gridy = 5;
+        gbc.gridwidth = 1;
+        JLabel previewTitleLabel = new JLabel("Selling Price Preview:");
+        previewTitleLabel.setFont(UIConstants.LABEL_BOLD_FONT);
+        mainPanel.add(previewTitleLabel, gbc);
+        
+        gbc.gridx = 1;
+        JLabel previewLabel = new JLabel("");
+        previewLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        previewLabel.setForeground(new Color(46, 204, 113));
+        
+        // Initial preview
+        if (currentMarkup != null) {
+            double sellingPrice = costPrice * (1 + currentMarkup / 100.0);
+            previewLabel.setText(String.format("₱%,.2f", sellingPrice));
+        } else {
+            double sellingPrice = costPrice * (1 + defaultMarkup / 100.0);
+            previewLabel.setText(String.format("₱%,.2f (default)", sellingPrice));
+        }
+        mainPanel.add(previewLabel, gbc);
+        
+        // Update preview on text change
+        markupField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
+            
+            public void updatePreview() {
+                try {
+                    String text = markupField.getText().trim();
+                    double markup = text.isEmpty() ? defaultMarkup : Double.parseDouble(text);
+                    double sellingPrice = costPrice * (1 + markup / 100.0);
                     previewLabel.setText(String.format("₱%,.2f", sellingPrice));
-                } else {
-                    double sellingPrice = costPrice * (1 + defaultMarkup / 100.0);
-                    previewLabel.setText(String.format("₱%,.2f (default)", sellingPrice));
+                    previewLabel.setForeground(new Color(46, 204, 113));
+                } catch (NumberFormatException ex) {
+                    previewLabel.setText("Invalid input");
+                    previewLabel.setForeground(Color.RED);
                 }
-                mainPanel.add(previewLabel, gbc);
-                
-                // Update preview on text change
-                markupField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-                    public void changedUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
-                    public void removeUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
-                    public void insertUpdate(javax.swing.event.DocumentEvent e) { updatePreview(); }
-                    
-                    public void updatePreview() {
-                        try {
-                            String text = markupField.getText().trim();
-                            double markup = text.isEmpty() ? defaultMarkup : Double.parseDouble(text);
-                            double sellingPrice = costPrice * (1 + markup / 100.0);
-                            previewLabel.setText(String.format("₱%,.2f", sellingPrice));
-                            previewLabel.setForeground(new Color(46, 204, 113));
-                        } catch (NumberFormatException ex) {
-                            previewLabel.setText("Invalid input");
-                            previewLabel.setForeground(Color.RED);
-                        }
-                    }
-                });
+            }
+        });
 
-                markupDialog.add(mainPanel, BorderLayout.CENTER);
+        markupDialog.add(mainPanel, BorderLayout.CENTER);
 
-                // Button panel
-                JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
-                buttonPanel.setBackground(UIConstants.BACKGROUND_COLOR);
+        // Button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
+        buttonPanel.setBackground(UIConstants.BACKGROUND_COLOR);
+        
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.setFont(UIConstants.BUTTON_FONT);
+        cancelButton.setPreferredSize(new Dimension(100, 35));
+        cancelButton.addActionListener(e -> markupDialog.dispose());
+        
+        JButton applyButton = new JButton("Apply");
+        applyButton.setFont(UIConstants.BUTTON_FONT);
+        applyButton.setBackground(UIConstants.PRIMARY_COLOR);
+        applyButton.setForeground(Color.WHITE);
+        applyButton.setPreferredSize(new Dimension(100, 35));
+        applyButton.setFocusPainted(false);
+        applyButton.setBorderPainted(false);
+        applyButton.setContentAreaFilled(false);
+        applyButton.setOpaque(true);
+        applyButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        applyButton.addActionListener(e -> {
+            try {
+                String markupText = markupField.getText().trim();
+                Double newMarkup = markupText.isEmpty() ? null : Double.parseDouble(markupText);
                 
-                JButton cancelButton = new JButton("Cancel");
-                cancelButton.setFont(UIConstants.BUTTON_FONT);
-                cancelButton.setPreferredSize(new Dimension(100, 35));
-                cancelButton.addActionListener(e -> markupDialog.dispose());
+                if (newMarkup != null && newMarkup < 0) {
+                    showError("Markup percentage cannot be negative.");
+                    return;
+                }
                 
-                JButton applyButton = new JButton("Apply");
-                applyButton.setFont(UIConstants.BUTTON_FONT);
-                applyButton.setBackground(UIConstants.PRIMARY_COLOR);
-                applyButton.setForeground(Color.WHITE);
-                applyButton.setPreferredSize(new Dimension(100, 35));
-                applyButton.setFocusPainted(false);
-                applyButton.setBorderPainted(false);
-                applyButton.setContentAreaFilled(false);
-                applyButton.setOpaque(true);
-                applyButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
-                applyButton.addActionListener(e -> {
-                    try {
-                        String markupText = markupField.getText().trim();
-                        Double newMarkup = markupText.isEmpty() ? null : Double.parseDouble(markupText);
-                        
-                        if (newMarkup != null && newMarkup < 0) {
-                            showError("Markup percentage cannot be negative.");
-                            return;
-                        }
-                        
-                        // Clear retail price when setting markup to ensure markup is used
-                        productRepository.updateProductMarkup(productId, newMarkup);
-                        
-                        // Also clear any stored retail price to ensure markup calculation is used
-                        productRepository.clearRetailPrice(productId);
+                runProductUpdate(repo -> {
+                    // Clear retail price when setting markup to ensure markup is used
+                    repo.updateProductMarkup(productId, newMarkup);
+                    
+                    // Also clear any stored retail price to ensure markup calculation is used
+                    repo.clearRetailPrice(productId);
+                    return null;
+                }, done -> {
+                    String message = newMarkup != null ? 
+                        String.format("Markup set to %.1f%% for %s!", newMarkup, productName) :
+                        String.format("Markup cleared for %s! Using default (%.1f%%).", productName, defaultMarkup);
                         
-                        String message = newMarkup != null ? 
-                            String.format("Markup set to %.1f%% for %s!", newMarkup, productName) :
-                            String.format("Markup cleared for %s! Using default (%.1f%%).", productName, defaultMarkup);
-                            
-                        showSuccess(message);
-                        loadProductsFromDB();
-                        findAndSelectProduct(String.valueOf(productId));
-                        markupDialog.dispose();
-                    } catch (NumberFormatException ex) {
-                        showError("Invalid markup percentage entered.");
-                    } catch (SQLException ex) {
-                        showError("Error setting markup: " + ex.getMessage());
-                    }
-                });
-                
-                buttonPanel.add(cancelButton);
-                buttonPanel.add(applyButton);
-                markupDialog.add(buttonPanel, BorderLayout.SOUTH);
-                
-                markupDialog.setVisible(true);
-                
+                    showSuccess(message);
+                    markupDialog.dispose();
+                }, "Error setting markup: ", productId, applyButton);
             } catch (NumberFormatException ex) {
-                showError("Invalid product data.");
-            } catch (SQLException ex) {
-                showError("Error loading markup data: " + ex.getMessage());
+                showError("Invalid markup percentage entered.");
             }
-        } else {
-            // Multiple products markup setting
-            showBulkOperationDialog("SET_MARKUP", selectedRows);
-        }
+        });
+        
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(applyButton);
+        markupDialog.add(buttonPanel, BorderLayout.SOUTH);
+        
+        markupDialog.setVisible(true);
     }
 
     /**
@@ -2216,6 +2410,10 @@ public class productsPanel extends JPanel {
             showError("Please select a product from the table first.");
             return;
         }
+        if (productsTable.getSelectedRowCount() > 1) {
+            showBatchLabelDialog();
+            return;
+        }
 
         try {
             // Get product data from table (corrected indices)
@@ -2226,104 +2424,53 @@ public class productsPanel extends JPanel {
             double costPrice = Double.parseDouble(costPriceStr.replace("₱", "").replace(",", "").trim());
             int stock = (int) tableModel.getValueAt(selectedRow, 9); // Stock column
 
-            // Get category_id from database
-            List<Category> categories = productRepository.getCategories();
-            int categoryId = 1; // Default
-            for (Category cat : categories) {
-                if (cat.name().equals(categoryName)) {
-                    categoryId = cat.id();
-                    break;
-                }
-            }
+            // Get category_id from database (off the EDT), then draw the label
+            AppExecutors.onEdt(
+                asyncProductRepository.supply(ProductRepository::getCategories),
+                categories -> {
+                    int categoryId = 1; // Default
+                    for (Category cat : categories) {
+                        if (cat.name().equals(categoryName)) {
+                            categoryId = cat.id();
+                            break;
+                        }
+                    }
+                    showProductQRCode(productId, productName, categoryName, categoryId, costPrice, stock);
+                },
+                ex -> showError("Error loading categories: " + ex.getMessage()));
+        } catch (NumberFormatException ex) {
+            showError("Error parsing product data: " + ex.getMessage());
+        }
+    }
 
-            // Build JSON for QR code (matching QRCodePanel format)
-            JSONObject qrData = new JSONObject();
-            qrData.put("action", "create_product");
-
-            JSONObject productData = new JSONObject();
-            productData.put("id", productId);
-            productData.put("name", productName);
-            productData.put("category_id", categoryId);
-            productData.put("cost_price", costPrice);
-            productData.put("stock", stock);
-
-            qrData.put("data", productData);
-            String qrText = qrData.toString();
-
-            // Generate QR code image
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            final int qrCodeSize = 280; // Match QRCodePanel size
-            BitMatrix bitMatrix = qrCodeWriter.encode(qrText, BarcodeFormat.QR_CODE, qrCodeSize, qrCodeSize);
-            BufferedImage qrImage = toBufferedImage(bitMatrix);
-
-            // Add product details below QR code
-            int textHeight = 80;
-            int combinedHeight = qrCodeSize + textHeight;
-            BufferedImage combinedImage = new BufferedImage(qrCodeSize, combinedHeight, BufferedImage.TYPE_INT_RGB);
-            Graphics2D g2d = combinedImage.createGraphics();
-
-            // Background
-            g2d.setColor(Color.WHITE);
-            g2d.fillRect(0, 0, qrCodeSize, combinedHeight);
-
-            // Draw QR code
-            g2d.drawImage(qrImage, 0, 0, null);
-
-            // Draw product info text - MATCH QRCodePanel EXACTLY
-            g2d.setColor(Color.BLACK);
-            g2d.setFont(new Font("Monospaced", Font.PLAIN, 12)); // Changed from BOLD to PLAIN
-            FontMetrics fm = g2d.getFontMetrics();
-            int lineHeight = fm.getHeight();
-            int startY = qrCodeSize + 20; // Match QRCodePanel padding
-            int currentY = startY;
-            int paddingX = 10;
-
-            // Use same format as QRCodePanel with label:value pairs
-            drawDetailLine(g2d, "Name:", productName, paddingX, currentY);
-            currentY += lineHeight;
-            drawDetailLine(g2d, "Category:", categoryName, paddingX, currentY);
-            currentY += lineHeight;
-            drawDetailLine(g2d, "Cost:", "₱" + String.format("%,.2f", costPrice), paddingX, currentY);
-
-            g2d.dispose();
+    /** Builds the product QR label image and shows it with a save option. */
+    private void showProductQRCode(int productId, String productName, String categoryName, int categoryId,
+                                   double costPrice, int stock) {
+        try {
+            BufferedImage combinedImage = QRLabelRenderer.render(
+                new ProductLabel(productId, productName, categoryId, categoryName, costPrice, stock));
             
             // Display in dialog with save option
             displayQRCodeDialog(combinedImage, productName, productId);
             
-        } catch (NumberFormatException ex) {
-            showError("Error parsing product data: " + ex.getMessage());
         } catch (WriterException ex) {
             showError("Could not generate QR code: " + ex.getMessage());
-        } catch (SQLException ex) {
-            showError("Error loading categories: " + ex.getMessage());
         } catch (JSONException ex) {
             showError("Error building QR data: " + ex.getMessage());
         }
     }
-    
-    /** Helper method to convert BitMatrix to BufferedImage */
-    private BufferedImage toBufferedImage(BitMatrix matrix) {
-        int width = matrix.getWidth();
-        int height = matrix.getHeight();
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                image.setRGB(x, y, matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF);
-            }
+
+    /** Opens the label sheet generator for the selected products, or for a category when none are selected. */
+    private void showBatchLabelDialog() {
+        if (userRole.equalsIgnoreCase("Employee")) {
+            showError("Access Denied: Only Admins can generate QR codes.");
+            return;
         }
-        return image;
-    }
-    
-    /** Helper method to draw one line of product info with bold label (matches QRCodePanel) */
-    private void drawDetailLine(Graphics2D g2d, String label, String value, int x, int y) {
-        AttributedString asLabel = new AttributedString(String.format("%-10s", label));
-        asLabel.addAttribute(TextAttribute.WEIGHT, TextAttribute.WEIGHT_BOLD, 0, label.length());
-        g2d.drawString(asLabel.getIterator(), x, y);
-
-        FontMetrics fm = g2d.getFontMetrics();
-        Rectangle2D labelBounds = fm.getStringBounds(String.format("%-10s", label), g2d);
-        g2d.drawString(value, x + (int)labelBounds.getWidth() + 5, y);
+        List<Integer> productIds = new ArrayList<>();
+        for (int viewRow : productsTable.getSelectedRows()) {
+            productIds.add((int) tableModel.getValueAt(productsTable.convertRowIndexToModel(viewRow), 1)); // ID column
+        }
+        new QRLabelBatchDialog(mainFrame, asyncProductRepository, productIds).setVisible(true);
     }
     
     /** Display generated QR code in a dialog with save option */
@@ -2435,11 +2582,7 @@ public class productsPanel extends JPanel {
                 }
 
                 // Decode QR code from image
-                LuminanceSource source = new BufferedImageLuminanceSource(bufferedImage);
-                BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-                com.google.zxing.Result qrResult = new MultiFormatReader().decode(bitmap);
-
-                String qrText = qrResult.getText();
+                String qrText = QRScanPipeline.decodeStill(bufferedImage);
                 
                 // Display scanned image in scanner panel
                 ImageIcon scaledIcon = new ImageIcon(bufferedImage.getScaledInstance(
@@ -2787,11 +2930,21 @@ public class productsPanel extends JPanel {
         }
     }
 
-    // Process bulk operation
+    // Process bulk operation: rows are validated here, the database work runs off the EDT
     private void processBulkOperation(String operationType, DefaultTableModel dialogModel, JDialog dialog) {
-        int successCount = 0;
         int skipCount = 0;
         StringBuilder errors = new StringBuilder();
+        // Valid rows, gathered into one request for the whole selection
+        Map<Integer, String> names = new HashMap<>();
+        Map<Integer, Double> markups = new java.util.LinkedHashMap<>();
+        List<StockAdjustment> adjustments = new java.util.ArrayList<>();
+        List<Integer> deletions = new java.util.ArrayList<>();
+
+        // Product ID -> row of the main table, built once instead of searched per row
+        Map<Integer, Integer> mainRowById = new HashMap<>();
+        for (int j = 0; j < tableModel.getRowCount(); j++) {
+            mainRowById.put((int) tableModel.getValueAt(j, 1), j); // ID is now column 1
+        }
 
         for (int i = 0; i < dialogModel.getRowCount(); i++) {
             boolean selected = (Boolean) dialogModel.getValueAt(i, 1); // Checkbox is now column 1
@@ -2814,9 +2967,8 @@ public class productsPanel extends JPanel {
                                 skipCount++;
                                 continue;
                             }
-                            productRepository.updateProductMarkup(productId, markup);
-                            productRepository.clearRetailPrice(productId);
-                            successCount++;
+                            names.put(productId, productName);
+                            markups.put(productId, markup);
                         } else {
                             skipCount++;
                         }
@@ -2831,14 +2983,8 @@ public class productsPanel extends JPanel {
                         int removeQty = Integer.parseInt(removeQtyStr);
                         String removeReason = dialogModel.getValueAt(i, 5).toString().trim(); // Column 5
                         // Get current stock from main table
-                        int mainTableRow = -1;
-                        for (int j = 0; j < tableModel.getRowCount(); j++) {
-                            if ((int)tableModel.getValueAt(j, 1) == productId) { // ID is now column 1
-                                mainTableRow = j;
-                                break;
-                            }
-                        }
-                        if (mainTableRow == -1) {
+                        Integer mainTableRow = mainRowById.get(productId);
+                        if (mainTableRow == null) {
                             errors.append("- ").append(productName).append(": Product not found\n");
                             skipCount++;
                             continue;
@@ -2854,17 +3000,13 @@ public class productsPanel extends JPanel {
                             skipCount++;
                             continue;
                         }
-                        productRepository.removeStock(productId, removeQty, removeReason);
-                        successCount++;
+                        names.put(productId, productName);
+                        adjustments.add(new StockAdjustment(productId, removeQty, null, removeReason));
                         break;
 
                     case "DELETE":
-                        if (productRepository.deleteProduct(productId)) {
-                            successCount++;
-                        } else {
-                            errors.append("- ").append(productName).append(": Not found\n");
-                            skipCount++;
-                        }
+                        names.put(productId, productName);
+                        deletions.add(productId);
                         break;
 
                     case "RETURN":
@@ -2897,32 +3039,60 @@ public class productsPanel extends JPanel {
                             processReturnType = "CUSTOMER-RETURN"; // default
                         }
                         
-                        productRepository.processReturn(productId, returnQty, processReturnType, notes);
-                        successCount++;
+                        names.put(productId, productName);
+                        adjustments.add(new StockAdjustment(productId, returnQty, processReturnType, notes));
                         break;
                 }
             } catch (NumberFormatException ex) {
                 errors.append("- ").append(productName).append(": Invalid number format\n");
                 skipCount++;
-            } catch (SQLException ex) {
-                errors.append("- ").append(productName).append(": ").append(ex.getMessage()).append("\n");
-                skipCount++;
             }
         }
 
-        dialog.dispose();
+        final int validationSkips = skipCount;
+        final String validationErrors = errors.toString();
+        dialog.setEnabled(false); // No second submit while this one runs
+
+        AppExecutors.onEdt(
+            asyncProductRepository.supply(repo -> switch (operationType) {
+                case "SET_MARKUP" -> repo.bulkSetMarkup(markups);
+                case "REMOVE_STOCK" -> repo.bulkRemoveStock(adjustments);
+                case "DELETE" -> repo.bulkDelete(deletions);
+                case "RETURN" -> repo.bulkReturn(adjustments);
+                default -> List.<BulkResult>of();
+            }),
+            results -> {
+                dialog.dispose();
+
+                int done = 0;
+                int skipped = validationSkips;
+                StringBuilder failures = new StringBuilder(validationErrors);
+                for (BulkResult result : results) {
+                    if (result.succeeded()) {
+                        done++;
+                    } else {
+                        failures.append("- ").append(names.get(result.productId())).append(": ").append(result.error()).append("\n");
+                        skipped++;
+                    }
+                }
 
-        String message = getResultMessage(operationType, successCount, skipCount);
-        if (skipCount > 0 && errors.length() > 0) {
-            message += "\n\nErrors:\n" + errors.toString();
-            JOptionPane.showMessageDialog(this, message, "Operation Results", JOptionPane.WARNING_MESSAGE);
-        } else if (successCount > 0) {
-            showSuccess(message);
-        } else {
-            showError("No products were processed.");
-        }
+                String message = getResultMessage(operationType, done, skipped);
+                if (skipped > 0 && failures.length() > 0) {
+                    message += "\n\nErrors:\n" + failures;
+                    JOptionPane.showMessageDialog(this, message, "Operation Results", JOptionPane.WARNING_MESSAGE);
+                } else if (done > 0) {
+                    showSuccess(message);
+                } else {
+                    showError("No products were processed.");
+                }
 
-        loadProductsFromDB();
+                loadProductsFromDB();
+            },
+            ex -> {
+                dialog.dispose();
+                showError("Bulk operation failed: " + ex.getMessage());
+                loadProductsFromDB();
+            });
     }
 
     // Get result message
@@ -2995,6 +3165,7 @@ public class productsPanel extends JPanel {
             frame.setSize(1400, 800);
             userFrame mockFrame = new userFrame();
             mockFrame.loggedInUserId = 1;
+            mockFrame.effectiveUserId = 1;
             mockFrame.loggedInUserRole = "Admin";
             frame.add(new productsPanel(mockFrame));
             frame.setLocationRelativeTo(null);
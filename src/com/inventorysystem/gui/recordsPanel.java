@@ -1,45 +1,24 @@
 package com.inventorysystem.gui;
 
 import com.inventorysystem.data.RecordsRepository;
-import com.inventorysystem.data.UserRepository;
-import com.inventorysystem.model.TransactionRecord;
 
 import javax.swing.*;
 import javax.swing.border.*;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.sql.SQLException;
-import java.util.List;
 
 // Transaction history with date filtering and search
 public class recordsPanel extends JPanel {
 
-    private final DefaultTableModel tableModel;
-    private JTable recordsTable; // Class-level reference for the search bar
+    private final TransactionHistoryTableModel tableModel;
+    private JTable recordsTable;
+    private JTextField searchField;
     private final RecordsRepository recordsRepository;
-    private final UserRepository userRepository;
     private final int userId;
     private DateRangePanel dateRangePanel;
 
     public recordsPanel(userFrame mainFrame) {
-        int originalUserId = mainFrame.loggedInUserId;
-        String userRole = mainFrame.loggedInUserRole;
-        this.userRepository = new UserRepository();
-        
-        // For employees, use their admin's user_id
-        int effectiveUserId = originalUserId;
-        if (userRole.equalsIgnoreCase("Employee")) {
-            try {
-                int adminId = userRepository.getAdminIdForEmployee(originalUserId);
-                if (adminId > 0) {
-                    effectiveUserId = adminId;
-                }
-            } catch (Exception e) {
-                System.err.println("Error getting admin ID for employee: " + e.getMessage());
-            }
-        }
-        this.userId = effectiveUserId;
+        // Employees see their admin's data; resolved once at login
+        this.userId = mainFrame.effectiveUserId;
         
         this.recordsRepository = new RecordsRepository();
         
@@ -49,14 +28,8 @@ public class recordsPanel extends JPanel {
             new LineBorder(UIConstants.BORDER_COLOR, 1),
             new EmptyBorder(20, 20, 20, 20)));
 
-        // --- 1. Initialize Model FIRST ---
-        tableModel = new DefaultTableModel(new String[]{
-            "#", "Date", "Product", "Type", "Qty", "Retail", "Cost/Unit", "Total"
-        }, 0) {
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // --- 1. Initialize Model FIRST (rows are fetched page by page as they scroll into view) ---
+        tableModel = new TransactionHistoryTableModel(recordsRepository, userId);
         
         // --- 2. Initialize Table Panel SECOND (This creates recordsTable) ---
         JScrollPane tableScrollPane = createTablePanel();
@@ -96,27 +69,19 @@ public class recordsPanel extends JPanel {
         dateRangePanel.addDateRangeChangeListener(() -> loadData());
         rightPanel.add(dateRangePanel);
 
-        // Search Field
-        JTextField searchField = new JTextField(15);
+        // Search Field (filters by product name or type in the database, not in the table)
+        searchField = new JTextField(15);
         searchField.setFont(UIConstants.INPUT_FONT);
         searchField.setPreferredSize(new Dimension(180, 35));
         
-        // Filter Logic - recordsTable MUST be initialized before this
-        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(tableModel);
-        recordsTable.setRowSorter(sorter);
+        // Wait for a pause in typing before querying again
+        Timer searchTimer = new Timer(300, e -> loadData());
+        searchTimer.setRepeats(false);
         
         searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { filter(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { filter(); }
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { filter(); }
-            private void filter() {
-                String text = searchField.getText();
-                if (text.trim().length() == 0) {
-                    sorter.setRowFilter(null);
-                } else {
-                    sorter.setRowFilter(RowFilter.regexFilter("(?i)" + text));
-                }
-            }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
         });
         
         rightPanel.add(new JLabel("Search:"));
@@ -131,7 +96,6 @@ public class recordsPanel extends JPanel {
         // Assign to class variable 'recordsTable' (NOT a local variable)
         recordsTable = new JTable(tableModel);
         
-        recordsTable.setAutoCreateRowSorter(true);
         recordsTable.setFont(UIConstants.TABLE_FONT);
         recordsTable.setRowHeight(35);
         recordsTable.setShowVerticalLines(false);
@@ -177,39 +141,16 @@ public class recordsPanel extends JPanel {
         return scrollPane;
     }
     
-    // Load transactions from database
+    // Load transactions from database (count + first page; the rest loads on scroll)
     public void loadData() {
-        tableModel.setRowCount(0);
+        java.sql.Timestamp startDate = dateRangePanel.getRangeStart();
+        java.sql.Timestamp endDate = dateRangePanel.getRangeEndExclusive();
+        String search = searchField != null ? searchField.getText().trim() : "";
         
-        new Thread(() -> {
-            try {
-                java.sql.Date startDate = dateRangePanel.getSqlStartDate();
-                java.sql.Date endDate = dateRangePanel.getSqlEndDate();
-                List<TransactionRecord> history = recordsRepository.getTransactionHistoryWithDateRange(
-                    userId, startDate, endDate);
-                
-                SwingUtilities.invokeLater(() -> {
-                    int rowNum = 1;
-                    for (TransactionRecord record : history) {
-                        tableModel.addRow(new Object[]{
-                            rowNum++,
-                            record.transactionDate(),
-                            record.productName(),
-                            record.transactionType(),
-                            record.quantity(),
-                            record.retailPrice() == 0.0 ? "" : String.format("₱%,.2f", record.retailPrice()),
-                            String.format("₱%,.2f", record.unitPrice()),
-                            String.format("₱%,.2f", record.total())
-                        });
-                    }
-                });
-            } catch (SQLException e) {
-                SwingUtilities.invokeLater(() -> 
-                    JOptionPane.showMessageDialog(this, 
-                        "Error loading transaction history: " + e.getMessage(),
-                        "Error", JOptionPane.ERROR_MESSAGE));
-            }
-        }).start();
+        tableModel.reload(startDate, endDate, search, e ->
+            JOptionPane.showMessageDialog(this, 
+                "Error loading transaction history: " + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     // Test method
@@ -220,6 +161,7 @@ public class recordsPanel extends JPanel {
             frame.setSize(1000, 600);
             userFrame mockFrame = new userFrame();
             mockFrame.loggedInUserId = 1;
+            mockFrame.effectiveUserId = 1;
             mockFrame.loggedInUserRole = "Admin";
             frame.add(new recordsPanel(mockFrame));
             frame.setLocationRelativeTo(null);
@@ -1,16 +1,17 @@
 package com.inventorysystem.gui;
 
+import com.inventorysystem.data.AsyncRepository;
 import com.inventorysystem.data.StockRepository;
-import com.inventorysystem.data.UserRepository;
 import com.inventorysystem.model.StockRecord;
+import com.inventorysystem.util.AppExecutors;
 import javax.swing.*;
 import javax.swing.border.*;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 
 import java.awt.*;
-import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 // Shows stock movements (in, out, current) with date filtering
 public class stockPanel extends JPanel {
@@ -18,30 +19,16 @@ public class stockPanel extends JPanel {
     private DefaultTableModel model;
     private JTable stockTable;
     private final int userId;
-    private final StockRepository stockRepository;
-    private final UserRepository userRepository;
+    private final AsyncRepository<StockRepository> stockRepository;
+    private int loadGeneration = 0; // Only the newest load fills the table
+    private CompletableFuture<List<StockRecord>> pendingLoad;
     private DateRangePanel dateRangePanel;
 
     public stockPanel(userFrame mainFrame) {
-        int originalUserId = mainFrame.loggedInUserId;
-        String userRole = mainFrame.loggedInUserRole;
-        this.userRepository = new UserRepository();
+        // Employees see their admin's data; resolved once at login
+        this.userId = mainFrame.effectiveUserId;
         
-        // Employee sees admin's data
-        int effectiveUserId = originalUserId;
-        if (userRole.equalsIgnoreCase("Employee")) {
-            try {
-                int adminId = userRepository.getAdminIdForEmployee(originalUserId);
-                if (adminId > 0) {
-                    effectiveUserId = adminId;
-                }
-            } catch (Exception e) {
-                System.err.println("Error getting admin ID for employee: " + e.getMessage());
-            }
-        }
-        this.userId = effectiveUserId;
-        
-        this.stockRepository = new StockRepository();
+        this.stockRepository = AsyncRepository.of(new StockRepository());
 
         setLayout(new BorderLayout(10, 10));
         setBorder(new EmptyBorder(20, 20, 20, 20));
@@ -179,46 +166,59 @@ public class stockPanel extends JPanel {
         return scrollPane;
     }
 
-    // Get data from database and put in table
+    // Get data from database (off the EDT) and put in table; a newer load cancels the running query
     private void loadStockSummary() {
+        final int generation = ++loadGeneration;
+        if (pendingLoad != null) {
+            pendingLoad.cancel(true);
+        }
+        java.sql.Timestamp startDate = dateRangePanel.getRangeStart();
+        java.sql.Timestamp endDate = dateRangePanel.getRangeEndExclusive();
+
+        pendingLoad = stockRepository.supply(repo -> repo.getStockSummaryWithDateRange(userId, startDate, endDate));
+        AppExecutors.onEdt(
+            pendingLoad,
+            summary -> {
+                if (generation == loadGeneration) showStockSummary(summary);
+            },
+            error -> {
+                if (generation != loadGeneration) return;
+                model.setRowCount(0);
+                JOptionPane.showMessageDialog(this,
+                    "Could not load stock summary: " + error.getMessage(),
+                    "Database Error", JOptionPane.ERROR_MESSAGE);
+                error.printStackTrace();
+            });
+    }
+
+    private void showStockSummary(List<StockRecord> summary) {
         model.setRowCount(0);
-        try {
-            java.sql.Date startDate = dateRangePanel.getSqlStartDate();
-            java.sql.Date endDate = dateRangePanel.getSqlEndDate();
-            List<StockRecord> summary = stockRepository.getStockSummaryWithDateRange(userId, startDate, endDate);
+        int rowNum = 1;
+        for (StockRecord record : summary) {
+            int available = record.endingStock();
+            String status;
             
-            int rowNum = 1;
-            for (StockRecord record : summary) {
-                int available = record.endingStock();
-                String status;
-                
-                // Determine status based on stock level
-                if (available == 0) {
-                    status = "Out of Stock";
-                } else if (available < 20) {
-                    status = "Low Stock";;
-                } else if (available < 40) {
-                    status = "Normal";;
-                } else {
-                    status = "High Stock";
-                }
-                
-                model.addRow(new Object[]{
-                    rowNum++,
-                    record.productId(),
-                    record.productName(),
-                    record.categoryName(),
-                    record.stockIn(),
-                    record.stockOut(),
-                    available,
-                    status
-                });
+            // Determine status based on stock level
+            if (available == 0) {
+                status = "Out of Stock";
+            } else if (available < 20) {
+                status = "Low Stock";;
+            } else if (available < 40) {
+                status = "Normal";;
+            } else {
+                status = "High Stock";
             }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                "Could not load stock summary: " + e.getMessage(),
-                "Database Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+            
+            model.addRow(new Object[]{
+                rowNum++,
+                record.productId(),
+                record.productName(),
+                record.categoryName(),
+                record.stockIn(),
+                record.stockOut(),
+                available,
+                status
+            });
         }
     }
 
@@ -230,6 +230,7 @@ public class stockPanel extends JPanel {
             frame.setSize(1000, 600);
             userFrame mockFrame = new userFrame();
             mockFrame.loggedInUserId = 1;
+            mockFrame.effectiveUserId = 1;
             mockFrame.loggedInUserRole = "Admin";
             frame.add(new stockPanel(mockFrame));
             frame.setLocationRelativeTo(null);
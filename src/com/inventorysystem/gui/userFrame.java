@@ -1,8 +1,14 @@
 package com.inventorysystem.gui;
 
+import com.inventorysystem.data.AsyncRepository;
+import com.inventorysystem.data.DatabaseConnection;
+import com.inventorysystem.data.ScanJournal;
 import com.inventorysystem.data.StoreRepository;
 import com.inventorysystem.data.UserRepository;
 import com.inventorysystem.model.Store;
+import com.inventorysystem.util.AppExecutors;
+import com.inventorysystem.util.DebugLogger;
+import com.inventorysystem.util.SoundUtil;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
@@ -22,6 +28,8 @@ public class userFrame extends JFrame {
     public int loggedInUserId;
     public String loggedInUsername;
     public String loggedInUserRole;
+    // Owner of the store data: the admin's id for employees, otherwise loggedInUserId
+    public int effectiveUserId;
 
     private StoreRepository storeRepository;
     private UserRepository userRepository;
@@ -34,6 +42,18 @@ public class userFrame extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setResizable(true);
 
+        // Stop background work and release pooled connections when the window closes
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                AppExecutors.shutdown();
+                ScanJournal.closeAll();
+                SoundUtil.shutdown();
+                DatabaseConnection.shutdown();
+                DebugLogger.shutdown();
+            }
+        });
+
         // Set to maximized/full screen by default
         setExtendedState(JFrame.MAXIMIZED_BOTH);
         setMinimumSize(new Dimension(1000, 700));
@@ -59,47 +79,53 @@ public class userFrame extends JFrame {
         this.loggedInUserId = userId;
         this.loggedInUsername = username;
         this.loggedInUserRole = role;
+        boolean isEmployee = role.equalsIgnoreCase("Employee");
 
-        try {
-            Store storeToUse;
-            
-            if (role.equalsIgnoreCase("Employee")) {
+        // Look up the store off the EDT; the main screens are built once it arrives
+        AppExecutors.onEdt(
+            AsyncRepository.of(storeRepository).supply(stores -> {
                 // Employee: Get Admin's store
-                int adminId = userRepository.getAdminIdForEmployee(userId);
-                if (adminId == -1) {
-                    JOptionPane.showMessageDialog(this, 
-                        "Error: Your account is not linked to an Admin.\nPlease contact system administrator.", 
-                        "Account Error", JOptionPane.ERROR_MESSAGE);
-                    showLoginPanel();
-                    return;
-                }
-                storeToUse = storeRepository.getStoreByUserId(adminId);
-                if (storeToUse == null) {
-                    JOptionPane.showMessageDialog(this, 
-                        "Error: Your Admin has not set up a store yet.\nPlease contact your administrator.", 
-                        "Store Not Found", JOptionPane.ERROR_MESSAGE);
-                    showLoginPanel();
-                    return;
-                }
-            } else {
-                // Admin: Get or create their own store
-                storeToUse = storeRepository.getStoreByUserId(userId);
-                if (storeToUse == null) {
-                    storeToUse = promptAndCreateStore(userId);
-                    if (storeToUse == null) {
+                int ownerId = isEmployee ? userRepository.getAdminIdForEmployee(userId) : userId;
+                return new StoreLookup(ownerId, ownerId == -1 ? null : stores.getStoreByUserId(ownerId));
+            }),
+            lookup -> {
+                if (loggedInUserId != userId) return; // Logged out while loading
+
+                if (isEmployee) {
+                    if (lookup.ownerId() == -1) {
+                        JOptionPane.showMessageDialog(this, 
+                            "Error: Your account is not linked to an Admin.\nPlease contact system administrator.", 
+                            "Account Error", JOptionPane.ERROR_MESSAGE);
+                        showLoginPanel();
+                        return;
+                    }
+                    if (lookup.store() == null) {
+                        JOptionPane.showMessageDialog(this, 
+                            "Error: Your Admin has not set up a store yet.\nPlease contact your administrator.", 
+                            "Store Not Found", JOptionPane.ERROR_MESSAGE);
                         showLoginPanel();
                         return;
                     }
+                } else if (lookup.store() == null) {
+                    // Admin: create their own store first
+                    promptAndCreateStore(userId);
+                    return;
                 }
-            }
 
-            showMainApplication(storeToUse.name(), storeToUse.location(), storeToUse.contact());
+                this.effectiveUserId = lookup.ownerId();
+                Store storeToUse = lookup.store();
+                showMainApplication(storeToUse.name(), storeToUse.location(), storeToUse.contact());
+            },
+            error -> showStoreError(error));
+    }
 
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error fetching store: " + e.getMessage(), 
-                "Database Error", JOptionPane.ERROR_MESSAGE);
-            showLoginPanel();
-        }
+    // Store owner id and store, fetched together at login
+    private record StoreLookup(int ownerId, Store store) {}
+
+    private void showStoreError(Throwable error) {
+        JOptionPane.showMessageDialog(this, "Error fetching store: " + error.getMessage(), 
+            "Database Error", JOptionPane.ERROR_MESSAGE);
+        showLoginPanel();
     }
 
     /**
@@ -119,7 +145,7 @@ public class userFrame extends JFrame {
     /**
      * Prompts user to create store profile on first login.
      */
-    private Store promptAndCreateStore(int userId) throws SQLException {
+    private void promptAndCreateStore(int userId) {
         JTextField nameField = new JTextField(20);
         nameField.setFont(UIConstants.INPUT_FONT);
         nameField.setBorder(BorderFactory.createCompoundBorder(
@@ -181,42 +207,55 @@ public class userFrame extends JFrame {
         gbc.gridy = 5;
         panel.add(contactField, gbc);
 
+        String newName;
+        String newLocation;
+        String newContact;
         while (true) {
             int result = JOptionPane.showConfirmDialog(this, panel, "Set Up Your Store", 
                 JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
 
-            if (result == JOptionPane.OK_OPTION) {
-                String newName = nameField.getText().trim();
-                String newLocation = locField.getText().trim();
-                String newContact = contactField.getText().trim();
-
-                if (newName.isEmpty()) {
-                    JOptionPane.showMessageDialog(this, "Store Name cannot be empty.", 
-                        "Input Error", JOptionPane.ERROR_MESSAGE);
-                    continue;
-                }
-
-                boolean success = storeRepository.addStore(userId, newName, newLocation, newContact);
-
-                if (success) {
-                    Store newStore = storeRepository.getStoreByUserId(userId);
-                    if (newStore != null) {
-                        return newStore;
-                    } else {
-                        throw new SQLException("Failed to retrieve store after creation.");
-                    }
-                } else {
-                    JOptionPane.showMessageDialog(this, "Failed to add store. Please try again.", 
-                        "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } else {
+            if (result != JOptionPane.OK_OPTION) {
                 // User cancelled
                 JOptionPane.showMessageDialog(this, 
                     "Store setup is required to use the system.", 
                     "Setup Required", JOptionPane.INFORMATION_MESSAGE);
-                return null;
+                showLoginPanel();
+                return;
+            }
+
+            newName = nameField.getText().trim();
+            newLocation = locField.getText().trim();
+            newContact = contactField.getText().trim();
+
+            if (newName.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Store Name cannot be empty.", 
+                    "Input Error", JOptionPane.ERROR_MESSAGE);
+                continue;
             }
+            break;
         }
+
+        final String name = newName, location = newLocation, contact = newContact;
+        AppExecutors.onEdt(
+            AsyncRepository.of(storeRepository).supply(stores -> {
+                if (!stores.addStore(userId, name, location, contact)) return null;
+                Store newStore = stores.getStoreByUserId(userId);
+                if (newStore == null) {
+                    throw new SQLException("Failed to retrieve store after creation.");
+                }
+                return newStore;
+            }),
+            newStore -> {
+                if (newStore == null) {
+                    JOptionPane.showMessageDialog(this, "Failed to add store. Please try again.", 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    promptAndCreateStore(userId);
+                    return;
+                }
+                this.effectiveUserId = userId;
+                showMainApplication(newStore.name(), newStore.location(), newStore.contact());
+            },
+            error -> showStoreError(error));
     }
 
     /**
@@ -232,6 +271,7 @@ public class userFrame extends JFrame {
         this.loggedInUserId = 0;
         this.loggedInUsername = null;
         this.loggedInUserRole = null;
+        this.effectiveUserId = 0;
 
         cardLayout.show(mainContainer, "login");
         setExtendedState(JFrame.MAXIMIZED_BOTH);
@@ -0,0 +1,11 @@
+package com.inventorysystem.model;
+
+// Outcome of one product in a bulk operation
+public record BulkResult(
+    int productId,
+    String error     // Why this product was skipped; null when it succeeded
+) {
+    public boolean succeeded() {
+        return error == null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.inventorysystem.model;
+
+// One line of a checkout basket
+public record CartLine(
+    int productId,
+    int quantity
+) {}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.inventorysystem.model;
+
+import java.util.List;
+
+// Everything the dashboard shows, loaded together in one call
+public record DashboardSnapshot(
+    int totalProducts,
+    int totalStock,
+    int outOfStockCount,
+    double totalInventoryCost,
+    double totalIncome,       // For the selected date range
+    double totalProfit,       // For the selected date range
+    List<Object[]> bestSellers,
+    List<Object[]> stockAlerts
+) {}
@@ -8,5 +8,9 @@ public record Product(
     double costPrice,
     double retailPrice,
     int stock,
-    double totalCost
+    double totalCost,
+    int quantityDamaged,
+    Double markupPercent,           // Product-specific markup, null when the user default applies
+    double effectiveMarkupPercent,  // Product markup or the user default
+    double effectiveRetailPrice     // Stored retail price, or cost plus effective markup
 ) {}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.inventorysystem.model;
+
+// What a printed QR label shows and encodes for one product
+public record ProductLabel(
+    int productId,
+    String name,
+    int categoryId,
+    String categoryName,
+    double costPrice,
+    int stock
+) {}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.inventorysystem.model;
+
+// One line of a bulk stock change: removal, or a return of the given type
+public record StockAdjustment(
+    int productId,
+    int quantity,
+    String type,     // Return type (CUSTOMER-RETURN, REJECT, REFUND, DISPOSE); unused for removals
+    String notes
+) {}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.inventorysystem.model;
+
+// Progress of a background store deletion
+public record StoreDeletionProgress(
+    int storeId,
+    String step,         // Table currently being emptied, or "Done"
+    long rowsDeleted,
+    long totalRows       // Counted when the run started; rows added meanwhile are deleted too
+) {
+    public int percent() {
+        if (totalRows <= 0) return 100;
+        return (int) Math.min(100, rowsDeleted * 100 / totalRows);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.inventorysystem.model;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+// One window of transaction history plus the key to fetch the next window
+public record TransactionPage(
+    List<TransactionRecord> rows,
+    Key nextKey      // Key of the last row; null when there are no more rows
+) {
+    // Position in the history ordering: newest first, then stock log before sales, then row id
+    public record Key(
+        Timestamp transactionDate,
+        int source,  // RecordsRepository.SOURCE_SALE or SOURCE_STOCK_LOG
+        long rowId
+    ) {}
+}
@@ -0,0 +1,57 @@
+package com.inventorysystem.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+// Settings from config.properties on the classpath, loaded once.
+// A -Dkey=value system property overrides the file (e.g. pointing db.url at a scratch database).
+// Optional settings fall back to their default when missing or blank.
+public final class AppConfig {
+
+    private static final String FILE_NAME = "config.properties";
+    private static final Properties PROPERTIES = new Properties();
+    private static final boolean LOADED;
+
+    static {
+        try (InputStream input = AppConfig.class.getResourceAsStream("/" + FILE_NAME)) {
+            if (input != null) {
+                PROPERTIES.load(input);
+            }
+            LOADED = input != null;
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to load " + FILE_NAME, ex);
+        }
+    }
+
+    private AppConfig() {}
+
+    // False when config.properties is not on the classpath
+    public static boolean isLoaded() {
+        return LOADED;
+    }
+
+    public static String get(String key) {
+        return System.getProperty(key, PROPERTIES.getProperty(key));
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key);
+        if (value == null || value.trim().isEmpty()) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid number for " + key + " in " + FILE_NAME + ": " + value);
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key);
+        if (value == null || value.trim().isEmpty()) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid number for " + key + " in " + FILE_NAME + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.inventorysystem.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+// Application-wide background executors on virtual threads.
+// Each pool is named, caps how many tasks run at once and how many may wait,
+// and hands results back to Swing through EDT. Shut down with the main window.
+public final class AppExecutors {
+
+    // Database calls; kept under db.pool.maxSize so tasks queue here instead of timing out on the pool
+    private static final ThreadPoolExecutor DB = newPool("db", 8, 512);
+    // Webcam start/stop and the decode loop; a single worker keeps them in order
+    private static final ThreadPoolExecutor SCANNER = newPool("scanner", 1, 16);
+    // Scan journal writes and fsyncs; one writer keeps the file append-only and in order
+    private static final ThreadPoolExecutor JOURNAL = newPool("journal", 1, 1024);
+    // Long-running database housekeeping such as store deletion; one worker so it never crowds out checkout
+    private static final ThreadPoolExecutor MAINTENANCE = newPool("maintenance", 1, 64);
+    // Short non-database jobs
+    private static final ThreadPoolExecutor BACKGROUND = newPool("background", 4, 256);
+    // Sound loading and playback; a single worker owns the clips, and a short queue drops beeps nobody would hear
+    private static final ThreadPoolExecutor AUDIO = newPool("audio", 1, 8);
+
+    // Runs tasks on the Swing event thread, timing how long each waited in the event queue and ran
+    public static final Executor EDT = task -> {
+        long posted = System.nanoTime();
+        SwingUtilities.invokeLater(() -> {
+            long started = System.nanoTime();
+            Metrics.record("edt.task.wait", started - posted);
+            try {
+                task.run();
+            } finally {
+                Metrics.record("edt.task.run", System.nanoTime() - started);
+            }
+        });
+    };
+
+    private AppExecutors() {}
+
+    public static ExecutorService db() {
+        return DB;
+    }
+
+    public static ExecutorService scanner() {
+        return SCANNER;
+    }
+
+    public static ExecutorService background() {
+        return BACKGROUND;
+    }
+
+    public static ExecutorService audio() {
+        return AUDIO;
+    }
+
+    public static ExecutorService journal() {
+        return JOURNAL;
+    }
+
+    public static ExecutorService maintenance() {
+        return MAINTENANCE;
+    }
+
+    // Deliver a future's outcome on the EDT; onError receives the unwrapped cause.
+    // A cancelled future reports nothing: whoever cancelled it has moved on.
+    public static <T> void onEdt(CompletableFuture<T> future, Consumer<? super T> onSuccess, Consumer<Throwable> onError) {
+        future.whenCompleteAsync((result, error) -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else if (!future.isCancelled() && !(unwrap(error) instanceof CancellationException)) {
+                onError.accept(unwrap(error));
+            }
+        }, EDT);
+    }
+
+    // Strip the CompletionException/ExecutionException layers a future adds around the real error
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    // Stop accepting work, give running database tasks and journal writes a moment to finish, then interrupt the rest
+    public static void shutdown() {
+        SCANNER.shutdownNow();
+        BACKGROUND.shutdownNow();
+        drain(AUDIO); // Lets a beep already queued finish loading before the clips are closed
+        MAINTENANCE.shutdownNow(); // Interrupted jobs resume on the next start
+        drain(DB);
+        drain(JOURNAL); // After DB, which still records replayed entries here
+    }
+
+    private static void drain(ExecutorService pool) {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadPoolExecutor newPool(String name, int threads, int queueCapacity) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            Thread.ofVirtual().name(name + "-", 1).factory(),
+            (task, executor) -> {
+                throw new RejectedExecutionException(executor.isShutdown()
+                    ? "The " + name + " executor has been shut down."
+                    : "The " + name + " executor is busy (" + queueCapacity + " tasks waiting).");
+            });
+        pool.allowCoreThreadTimeOut(true); // Idle workers exit; virtual threads are cheap to recreate
+        return pool;
+    }
+}
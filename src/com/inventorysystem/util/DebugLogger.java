@@ -1,74 +1,272 @@
 package com.inventorysystem.util;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
-// Simple logger to help debug issues - writes to console and file
+// Logger for debugging - writes to console and a size-rotated file.
+// Callers only drop a record into a lock-free ring buffer; one background writer
+// formats, prints and appends them in batches. A record at a disabled level
+// returns after one volatile read, and the Supplier overloads skip building the message.
 public class DebugLogger {
-    
-    private static final boolean ENABLE_LOGGING = true;
+
+    public enum Level { DEBUG, INFO, ERROR, OFF }
+
     private static final String LOG_FILE = "smartstock_debug.log";
-    
+    private static final long MAX_FILE_BYTES = AppConfig.getLong("log.maxFileBytes", 5L * 1024 * 1024);
+    private static final int MAX_FILES = AppConfig.getInt("log.maxFiles", 3);
+
+    // Power of two so a sequence maps to a slot with a mask
+    private static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+    private static final long FLUSH_INTERVAL_MS = 200;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private static final DateTimeFormatter TIME_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private record LogRecord(long millis, Level level, String thread, String message, Throwable error) {}
+
+    private static volatile Level level = configuredLevel();
+
+    // Ring buffer: producers claim tail with CAS, the writer alone advances head
+    private static final AtomicReferenceArray<LogRecord> SLOTS = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicLong TAIL = new AtomicLong();
+    private static volatile long head = 0;
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    private static volatile Thread writer;
+    private static volatile boolean stopping = false;
+
+    // Writer thread state
+    private static FileChannel channel;
+    private static final ByteBuffer BUFFER = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+
+    private DebugLogger() {}
+
+    // log.level from config.properties; INFO when missing or unknown
+    private static Level configuredLevel() {
+        String value = AppConfig.get("log.level");
+        if (value == null || value.trim().isEmpty()) return Level.INFO;
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown log.level '" + value + "', using INFO");
+            return Level.INFO;
+        }
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static boolean isEnabled(Level recordLevel) {
+        return recordLevel != Level.OFF && recordLevel.ordinal() >= level.ordinal();
+    }
+
+    // Records dropped because the buffer was full
+    public static long getDroppedCount() {
+        return DROPPED.get();
+    }
+
     // Log info message (normal operations)
     public static void info(String message) {
-        if (ENABLE_LOGGING) {
-            String formatted = formatMessage("INFO", message);
-            System.out.println(formatted);
-            writeToFile(formatted);
-        }
+        if (isEnabled(Level.INFO)) log(Level.INFO, message, null);
+    }
+
+    public static void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) log(Level.INFO, message.get(), null);
     }
-    
+
     // Log error message (something went wrong)
     public static void error(String message) {
-        String formatted = formatMessage("ERROR", message);
-        System.err.println(formatted);
-        writeToFile(formatted);
+        if (isEnabled(Level.ERROR)) log(Level.ERROR, message, null);
     }
-    
+
     // Log error with exception details
     public static void error(String message, Exception e) {
-        String formatted = formatMessage("ERROR", message + " - " + e.getMessage());
-        System.err.println(formatted);
-        e.printStackTrace();
-        writeToFile(formatted);
-        writeToFile(getStackTrace(e));
+        if (isEnabled(Level.ERROR)) log(Level.ERROR, message + " - " + e.getMessage(), e);
     }
-    
+
     // Log debug message (detailed info for troubleshooting)
     public static void debug(String message) {
-        if (ENABLE_LOGGING) {
-            String formatted = formatMessage("DEBUG", message);
-            System.out.println(formatted);
-            writeToFile(formatted);
+        if (isEnabled(Level.DEBUG)) log(Level.DEBUG, message, null);
+    }
+
+    public static void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) log(Level.DEBUG, message.get(), null);
+    }
+
+    // Write out everything queued and close the file (called on application exit)
+    public static void shutdown() {
+        Thread current = writer;
+        if (current == null) return;
+        stopping = true;
+        LockSupport.unpark(current);
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
-    
-    // Format message with timestamp
-    private static String formatMessage(String level, String message) {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        return String.format("[%s] [%s] %s", sdf.format(new Date()), level, message);
-    }
-    
-    // Write to log file
-    private static void writeToFile(String message) {
-        try (FileWriter fw = new FileWriter(LOG_FILE, true);
-             PrintWriter pw = new PrintWriter(fw)) {
-            pw.println(message);
+
+    // --- Producers ---
+
+    private static void log(Level recordLevel, String message, Throwable error) {
+        if (stopping) return;
+        LogRecord record = new LogRecord(System.currentTimeMillis(), recordLevel,
+                                         Thread.currentThread().getName(), message, error);
+        long sequence;
+        do {
+            sequence = TAIL.get();
+            if (sequence - head >= CAPACITY) {
+                DROPPED.incrementAndGet(); // Never block the caller, least of all the EDT
+                return;
+            }
+        } while (!TAIL.compareAndSet(sequence, sequence + 1));
+        SLOTS.set((int) (sequence & MASK), record);
+
+        Thread current = writer != null ? writer : startWriter();
+        // The writer wakes on its own every FLUSH_INTERVAL_MS; errors and a quarter-full buffer wake it early
+        if (recordLevel == Level.ERROR || sequence - head >= CAPACITY / 4) LockSupport.unpark(current);
+    }
+
+    private static synchronized Thread startWriter() {
+        if (writer == null) {
+            Thread thread = Thread.ofPlatform().daemon().name("debug-logger").unstarted(DebugLogger::drainLoop);
+            writer = thread;
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(DebugLogger::shutdown, "debug-logger-shutdown"));
+        }
+        return writer;
+    }
+
+    // --- Writer ---
+
+    private static void drainLoop() {
+        try {
+            channel = openLog();
+        } catch (IOException e) {
+            System.err.println("Failed to open log file: " + e.getMessage());
+        }
+        while (true) {
+            boolean wasStopping = stopping;
+            drain();
+            flush();
+            if (wasStopping) break;
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS));
+        }
+        long dropped = DROPPED.get();
+        if (dropped > 0) System.err.println("Debug logger dropped " + dropped + " records (buffer full)");
+        closeLog();
+    }
+
+    // Takes every published record in order; stops at a slot whose producer has not filled it yet
+    private static void drain() {
+        long next = head;
+        while (true) {
+            int slot = (int) (next & MASK);
+            LogRecord record = SLOTS.get(slot);
+            if (record == null) break;
+            SLOTS.set(slot, null);
+            head = ++next; // Frees the slot for producers
+            write(record);
+        }
+    }
+
+    private static void write(LogRecord record) {
+        String line = String.format("[%s] [%s] %s", TIME_FORMAT.format(Instant.ofEpochMilli(record.millis())),
+                                    record.level(), record.message());
+        if (record.level() == Level.ERROR) {
+            System.err.println(line);
+            if (record.error() != null) record.error().printStackTrace();
+        } else {
+            System.out.println(line);
+        }
+
+        append(line + System.lineSeparator());
+        if (record.error() != null) append(getStackTrace(record.error()));
+    }
+
+    private static void append(String text) {
+        if (channel == null) return;
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!BUFFER.hasRemaining()) flush();
+            int length = Math.min(BUFFER.remaining(), bytes.length - offset);
+            BUFFER.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private static void flush() {
+        if (channel == null || BUFFER.position() == 0) return;
+        BUFFER.flip();
+        try {
+            while (BUFFER.hasRemaining()) channel.write(BUFFER);
+            if (channel.size() >= MAX_FILE_BYTES) rotate();
         } catch (IOException e) {
             // Can't log the logging error, just print it
             System.err.println("Failed to write to log file: " + e.getMessage());
+        } finally {
+            BUFFER.clear();
         }
     }
-    
-    // Get full stack trace as string
-    private static String getStackTrace(Exception e) {
-        StringBuilder sb = new StringBuilder();
-        for (StackTraceElement element : e.getStackTrace()) {
-            sb.append("    at ").append(element.toString()).append("\n");
+
+    // smartstock_debug.log -> .1 -> .2 ..., keeping MAX_FILES old files
+    private static void rotate() throws IOException {
+        channel.close();
+        Path log = Paths.get(LOG_FILE);
+        Files.deleteIfExists(Paths.get(LOG_FILE + "." + MAX_FILES));
+        for (int i = MAX_FILES - 1; i >= 1; i--) {
+            Path older = Paths.get(LOG_FILE + "." + i);
+            if (Files.exists(older)) Files.move(older, Paths.get(LOG_FILE + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (MAX_FILES > 0) Files.move(log, Paths.get(LOG_FILE + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        else Files.deleteIfExists(log);
+        channel = openLog();
+    }
+
+    private static FileChannel openLog() throws IOException {
+        return FileChannel.open(Paths.get(LOG_FILE), StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void closeLog() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close log file: " + e.getMessage());
         }
-        return sb.toString();
+        channel = null;
+    }
+
+    // Get full stack trace as string
+    private static String getStackTrace(Throwable e) {
+        StringWriter text = new StringWriter();
+        e.printStackTrace(new PrintWriter(text));
+        return text.toString();
     }
 }
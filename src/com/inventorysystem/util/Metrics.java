@@ -0,0 +1,165 @@
+package com.inventorysystem.util;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Application-wide counters and latency histograms, keyed by name.
+// Recording is lock-free and cheap enough for every SQL statement; the
+// diagnostics dialog reads snapshots and can dump them to a JSON file.
+public final class Metrics {
+
+    // New names beyond this are folded into OVERFLOW_NAME so odd SQL can't grow the registry forever
+    private static final int MAX_NAMES = 1000;
+    private static final String OVERFLOW_NAME = "(other)";
+
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    /** Latency summary of one histogram, in milliseconds. */
+    public record Snapshot(String name, long count, double meanMillis,
+                           double p50Millis, double p95Millis, double p99Millis, double maxMillis) {}
+
+    private Metrics() {}
+
+    public static void increment(String name) {
+        counter(name).increment();
+    }
+
+    public static void record(String name, long elapsedNanos) {
+        histogram(name).record(elapsedNanos);
+    }
+
+    public static Histogram histogram(String name) {
+        Histogram histogram = HISTOGRAMS.get(name);
+        if (histogram != null) return histogram;
+        if (HISTOGRAMS.size() >= MAX_NAMES) name = OVERFLOW_NAME;
+        return HISTOGRAMS.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    private static LongAdder counter(String name) {
+        LongAdder counter = COUNTERS.get(name);
+        if (counter != null) return counter;
+        if (COUNTERS.size() >= MAX_NAMES) name = OVERFLOW_NAME;
+        return COUNTERS.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    // Every histogram, sorted by name
+    public static List<Snapshot> histograms() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            snapshots.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        return snapshots;
+    }
+
+    // Every counter, sorted by name
+    public static Map<String, Long> counters() {
+        Map<String, Long> values = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    public static void reset() {
+        HISTOGRAMS.clear();
+        COUNTERS.clear();
+    }
+
+    // Write the current counters and histograms to a JSON file
+    public static void dump(Path file) throws IOException {
+        JSONArray histograms = new JSONArray();
+        for (Snapshot snapshot : histograms()) {
+            histograms.put(new JSONObject()
+                .put("name", snapshot.name())
+                .put("count", snapshot.count())
+                .put("mean_ms", snapshot.meanMillis())
+                .put("p50_ms", snapshot.p50Millis())
+                .put("p95_ms", snapshot.p95Millis())
+                .put("p99_ms", snapshot.p99Millis())
+                .put("max_ms", snapshot.maxMillis()));
+        }
+        JSONObject report = new JSONObject()
+            .put("taken_at", new Timestamp(System.currentTimeMillis()).toString())
+            .put("counters", new JSONObject(counters()))
+            .put("histograms", histograms);
+        Files.writeString(file, report.toString(2), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Log-linear latency histogram in the style of HdrHistogram: values in
+     * microseconds, 16 linear buckets per power of two, so any percentile is
+     * within about 6% of the true value whatever the range.
+     */
+    public static final class Histogram {
+
+        private static final int SUB_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        public void record(long elapsedNanos) {
+            long micros = Math.max(0, elapsedNanos / 1000);
+            counts.incrementAndGet(index(micros));
+            count.increment();
+            totalMicros.add(micros);
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+
+        public Snapshot snapshot(String name) {
+            long[] copy = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+                total += copy[i];
+            }
+            long max = maxMicros.get();
+            double mean = total == 0 ? 0 : totalMicros.sum() / (double) count.sum() / 1000.0;
+            return new Snapshot(name, total, mean,
+                percentile(copy, total, 50, max), percentile(copy, total, 95, max),
+                percentile(copy, total, 99, max), max / 1000.0);
+        }
+
+        // Upper edge of the bucket holding the nearest-rank percentile, capped at the maximum seen
+        private static double percentile(long[] counts, long total, double percent, long max) {
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(upperBound(i), max) / 1000.0;
+            }
+            return max / 1000.0;
+        }
+
+        private static int index(long micros) {
+            if (micros < SUB_BUCKETS) return (int) micros;
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) ((micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBound(int index) {
+            if (index < SUB_BUCKETS) return index;
+            int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+            int sub = index % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+        }
+    }
+}
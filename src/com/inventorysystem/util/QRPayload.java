@@ -0,0 +1,113 @@
+package com.inventorysystem.util;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * Text carried by product QR labels.
+ *
+ * Labels are written in the compact format
+ *   SS1:crc:P:id:categoryId:costCentavos:stock:name
+ * where crc is the CRC-32 (hex) of everything after it and an id of 0 means
+ * "assign one on scan". The name comes last so it may contain colons. This is
+ * less than half the length of the old JSON labels, so the code needs fewer
+ * modules and reads faster from further away. Old labels of the form
+ * {"action":"create_product","data":{...}} are still read.
+ */
+public final class QRPayload {
+
+    public static final String CREATE_PRODUCT = "create_product";
+
+    private static final String PREFIX = "SS";
+    private static final int VERSION = 1;
+    private static final String PRODUCT_RECORD = "P";
+    // Fields after the checksum: record type, id, category, cost, stock, name
+    private static final int PRODUCT_FIELDS = 6;
+
+    /**
+     * A decoded label: its action and the product data in the shape
+     * ProductRepository.upsertProductFromQR expects.
+     */
+    public record Command(String action, JSONObject data) {}
+
+    private QRPayload() {}
+
+    /**
+     * Compact label text for a product; productId 0 leaves the ID to be assigned on scan.
+     */
+    public static String encodeProduct(int productId, String name, int categoryId, double costPrice, int stock) {
+        String body = String.join(":",
+            PRODUCT_RECORD,
+            Integer.toString(productId),
+            Integer.toString(categoryId),
+            Long.toString(Math.round(costPrice * 100)),
+            Integer.toString(stock),
+            name);
+        return PREFIX + VERSION + ":" + checksum(body) + ":" + body;
+    }
+
+    /**
+     * Reads either label format. Throws IllegalArgumentException for text that is
+     * not a label, a label from a newer version, or a damaged one.
+     */
+    public static Command decode(String text) {
+        String trimmed = text.trim();
+        if (trimmed.startsWith("{")) {
+            return decodeJson(trimmed);
+        }
+        if (!trimmed.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("Not a SmartStock QR label.");
+        }
+
+        int versionEnd = trimmed.indexOf(':');
+        int checksumEnd = versionEnd < 0 ? -1 : trimmed.indexOf(':', versionEnd + 1);
+        if (checksumEnd < 0) {
+            throw new IllegalArgumentException("Not a SmartStock QR label.");
+        }
+        String version = trimmed.substring(PREFIX.length(), versionEnd);
+        if (!version.equals(Integer.toString(VERSION))) {
+            throw new IllegalArgumentException("Unsupported QR label version " + version + "; please update SmartStock.");
+        }
+        String body = trimmed.substring(checksumEnd + 1);
+        if (!trimmed.substring(versionEnd + 1, checksumEnd).equals(checksum(body))) {
+            throw new IllegalArgumentException("QR label is damaged or incomplete (checksum mismatch). Please scan again.");
+        }
+
+        String[] fields = body.split(":", PRODUCT_FIELDS);
+        if (fields.length != PRODUCT_FIELDS || !fields[0].equals(PRODUCT_RECORD)) {
+            throw new IllegalArgumentException("Unknown QR label record: " + fields[0]);
+        }
+        try {
+            JSONObject data = new JSONObject();
+            int productId = Integer.parseInt(fields[1]);
+            if (productId > 0) data.put("id", productId);
+            data.put("name", fields[5]);
+            data.put("category_id", Integer.parseInt(fields[2]));
+            data.put("cost_price", Long.parseLong(fields[3]) / 100.0);
+            data.put("stock", Integer.parseInt(fields[4]));
+            return new Command(CREATE_PRODUCT, data);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in QR label: " + e.getMessage());
+        }
+    }
+
+    // Labels printed before the compact format
+    private static Command decodeJson(String text) {
+        try {
+            JSONObject mainObject = new JSONObject(text);
+            return new Command(mainObject.getString("action"), mainObject.getJSONObject("data"));
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Unreadable QR label: " + e.getMessage());
+        }
+    }
+
+    private static String checksum(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return String.format(Locale.ROOT, "%08X", crc.getValue());
+    }
+}
@@ -1,24 +1,105 @@
 package com.inventorysystem.util;
 
 import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
 
+// Short UI sounds from /resources. Each sound is decoded once into a few open clips
+// that are rewound and reused; a single audio worker does all loading and playback,
+// so no thread or audio line is created per beep.
 public class SoundUtil {
+
+    // Decoded at startup so the first scan beeps as quickly as the hundredth
+    private static final String[] PRELOADED = {"beep.wav", "success.wav"};
+    // Clips per sound; a rapid repeat uses the next one instead of cutting the last off
+    private static final int CLIPS_PER_SOUND = 2;
+
+    // Sound name -> its clips, or an empty array when it could not be loaded (only touched by the audio worker)
+    private static final Map<String, Clip[]> CLIPS = new HashMap<>();
+    private static final Map<String, Integer> NEXT_CLIP = new HashMap<>();
+
+    // Open the common sounds in the background (called once at startup)
+    public static void preload() {
+        submit(() -> {
+            for (String name : PRELOADED) clipsFor(name);
+        });
+    }
+
     public static void play(String soundFileName) {
-        new Thread(() -> { // Run in thread to prevent UI freezing
-            try {
-                String resourcePath = "/resources/" + soundFileName;
-                InputStream audioSrc = SoundUtil.class.getResourceAsStream(resourcePath);
-                if (audioSrc == null) return;
-                InputStream bufferedIn = new BufferedInputStream(audioSrc);
-                Clip clip = AudioSystem.getClip();
-                clip.open(AudioSystem.getAudioInputStream(bufferedIn));
-                clip.start();
-            } catch (Exception e) {
-                System.err.println("Sound error: " + e.getMessage());
+        submit(() -> {
+            Clip[] clips = clipsFor(soundFileName);
+            if (clips.length == 0) return;
+            int index = NEXT_CLIP.merge(soundFileName, 1, (a, b) -> (a + b) % clips.length);
+            Clip clip = clips[index];
+            clip.stop(); // Still playing only if every clip of this sound was just used
+            clip.setFramePosition(0);
+            clip.start();
+        });
+    }
+
+    // Close every clip and release the audio lines (called on application exit, after the audio worker has stopped)
+    public static void shutdown() {
+        synchronized (CLIPS) {
+            for (Clip[] clips : CLIPS.values()) {
+                for (Clip clip : clips) clip.close();
+            }
+            CLIPS.clear();
+        }
+    }
+
+    private static void submit(Runnable task) {
+        try {
+            AppExecutors.audio().execute(task); // Off the EDT to prevent UI freezing
+        } catch (RejectedExecutionException e) {
+            System.err.println("Sound skipped: " + e.getMessage());
+        }
+    }
+
+    // The sound's clips, decoding and opening them on first use
+    private static Clip[] clipsFor(String name) {
+        synchronized (CLIPS) {
+            Clip[] clips = CLIPS.get(name);
+            if (clips == null) {
+                clips = load(name);
+                CLIPS.put(name, clips); // A failed sound stays empty instead of being retried on every scan
+            }
+            return clips;
+        }
+    }
+
+    private static Clip[] load(String name) {
+        String resourcePath = "/resources/" + name;
+        InputStream audioSrc = SoundUtil.class.getResourceAsStream(resourcePath);
+        if (audioSrc == null) {
+            System.err.println("Sound not found: " + resourcePath);
+            return new Clip[0];
+        }
+
+        Clip[] clips = new Clip[CLIPS_PER_SOUND];
+        int opened = 0;
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(new BufferedInputStream(audioSrc))) {
+            AudioFormat format = stream.getFormat();
+            byte[] data = stream.readAllBytes();
+            for (; opened < clips.length; opened++) {
+                clips[opened] = AudioSystem.getClip();
+                clips[opened].open(format, data, 0, data.length);
+            }
+            return clips;
+        } catch (IOException | UnsupportedAudioFileException | LineUnavailableException | IllegalArgumentException e) {
+            System.err.println("Sound error: " + e.getMessage());
+            for (int i = 0; i <= opened && i < clips.length; i++) {
+                if (clips[i] != null) clips[i].close();
             }
-        }).start();
+            return new Clip[0];
+        }
     }
-}
\ No newline at end of file
+}
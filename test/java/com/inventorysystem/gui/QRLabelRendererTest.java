@@ -0,0 +1,29 @@
+package com.inventorysystem.gui;
+
+import com.inventorysystem.model.ProductLabel;
+import com.inventorysystem.util.QRPayload;
+import org.json.JSONObject;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Renders a label, reads it back the way the scanner does and checks the product survives
+class QRLabelRendererTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Plain Soap", "Café ₱ Special", "寿司 Roll", "Ñoño: 2-in-1"})
+    void labelRoundTrips(String name) throws Exception {
+        ProductLabel label = new ProductLabel(42, name, 7, "Snacks", 12.5, 30);
+
+        String scanned = QRScanPipeline.decodeStill(QRLabelRenderer.render(label));
+        assertEquals(QRLabelRenderer.payload(label), scanned);
+
+        JSONObject data = QRPayload.decode(scanned).data();
+        assertEquals(42, data.getInt("id"));
+        assertEquals(name, data.getString("name"));
+        assertEquals(7, data.getInt("category_id"));
+        assertEquals(12.5, data.getDouble("cost_price"));
+        assertEquals(30, data.getInt("stock"));
+    }
+}